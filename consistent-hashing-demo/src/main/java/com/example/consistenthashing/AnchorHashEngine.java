@@ -0,0 +1,297 @@
+package com.example.consistenthashing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Placement engine based on AnchorHash (Mendelson et al., 2020).
+ * A fixed anchor of buckets is allocated up front and nodes occupy a working
+ * subset of it. Lookups are expected O(1) with a handful of integer array
+ * reads, and any node can be added or removed with minimal disruption.
+ * <p>
+ * Mutations copy the small anchor arrays and publish the new state
+ * atomically, so lookups never observe a half-applied change.
+ */
+public class AnchorHashEngine implements PlacementEngine {
+    private static final Logger logger = LoggerFactory.getLogger(AnchorHashEngine.class);
+
+    /**
+     * Default anchor size, i.e. the maximum number of nodes the engine can hold.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final long SEED_INCREMENT = 0x9E3779B97F4A7C15L;
+
+    private final int capacity;
+    private final Map<String, Integer> bucketsByNode;
+    private final Lock writeLock;
+    private volatile State state;
+
+    /**
+     * Creates a new AnchorHash engine.
+     *
+     * @param capacity Anchor size; the maximum number of nodes
+     */
+    public AnchorHashEngine(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Anchor capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.bucketsByNode = new HashMap<>();
+        this.writeLock = new ReentrantLock();
+        this.state = State.initial(capacity);
+
+        logger.info("Initialized AnchorHash engine with capacity {}", capacity);
+    }
+
+    /**
+     * Creates a new AnchorHash engine with the default capacity.
+     */
+    public AnchorHashEngine() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    @Override
+    public String getName() {
+        return "anchor";
+    }
+
+    @Override
+    public boolean addNode(String nodeId, String nodeAddress) {
+        writeLock.lock();
+        try {
+            if (bucketsByNode.containsKey(nodeId)) {
+                logger.warn("Node {} already exists in the anchor", nodeId);
+                return false;
+            }
+            State next = state.copy();
+            if (next.removedCount == 0) {
+                logger.warn("Anchor capacity {} exhausted, cannot add node {}", capacity, nodeId);
+                return false;
+            }
+            int bucket = next.addBucket();
+            next.nodes[bucket] = new ConsistentHashRing.Node(nodeId, nodeAddress);
+            bucketsByNode.put(nodeId, bucket);
+            state = next;
+            logger.info("Added node {} to anchor bucket {}", nodeId, bucket);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean removeNode(String nodeId) {
+        writeLock.lock();
+        try {
+            Integer bucket = bucketsByNode.remove(nodeId);
+            if (bucket == null) {
+                logger.warn("Node {} does not exist in the anchor", nodeId);
+                return false;
+            }
+            State next = state.copy();
+            next.removeBucket(bucket);
+            next.nodes[bucket] = null;
+            state = next;
+            logger.info("Removed node {} from anchor bucket {}", nodeId, bucket);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public ConsistentHashRing.Node getNode(String key) {
+        if (key == null || key.trim().isEmpty()) {
+            logger.warn("Invalid key provided: {}", key);
+            return null;
+        }
+
+        ConsistentHashRing.Node node = getNodeByHash(KeyHasher.hash(key));
+        if (node == null) {
+            logger.warn("Anchor has no working buckets, cannot find node for key: {}", key);
+            return null;
+        }
+        logger.debug("Key '{}' mapped to node: {}", key, node.getId());
+        return node;
+    }
+
+    @Override
+    public ConsistentHashRing.Node getNodeByHash(long keyHash) {
+        State current = state;
+        if (current.workingCount == 0) {
+            return null;
+        }
+        return current.nodes[current.bucketFor(keyHash)];
+    }
+
+    /**
+     * Gets multiple distinct nodes for a key. Replicas are found by looking up
+     * independently re-seeded copies of the key hash, which keeps each replica
+     * as stable under membership changes as the primary.
+     */
+    @Override
+    public List<ConsistentHashRing.Node> getNodes(String key, int count) {
+        if (key == null || key.trim().isEmpty()) {
+            logger.warn("Invalid key provided: {}", key);
+            return Collections.emptyList();
+        }
+
+        if (state.workingCount == 0) {
+            logger.warn("Anchor has no working buckets, cannot find nodes for key: {}", key);
+            return Collections.emptyList();
+        }
+        return getNodesByHash(KeyHasher.hash(key), count);
+    }
+
+    @Override
+    public List<ConsistentHashRing.Node> getNodesByHash(long hash, int count) {
+        State current = state;
+        if (current.workingCount == 0) {
+            return Collections.emptyList();
+        }
+
+        int wanted = Math.min(count, current.workingCount);
+        List<ConsistentHashRing.Node> nodes = new ArrayList<>(Math.max(wanted, 0));
+        Set<Integer> seen = new HashSet<>();
+        for (int attempt = 0; nodes.size() < wanted && attempt < wanted * 16; attempt++) {
+            int bucket = current.bucketFor(attempt == 0 ? hash : KeyHasher.mix(hash + attempt * SEED_INCREMENT));
+            if (seen.add(bucket)) {
+                nodes.add(current.nodes[bucket]);
+            }
+        }
+        // Extremely unlikely fallback: fill from the working set in order
+        for (int i = 0; nodes.size() < wanted && i < current.workingCount; i++) {
+            int bucket = current.working[i];
+            if (seen.add(bucket)) {
+                nodes.add(current.nodes[bucket]);
+            }
+        }
+        return nodes;
+    }
+
+    @Override
+    public ConsistentHashRing.HashRingStats getStats() {
+        State current = state;
+        Map<String, Integer> distribution = new HashMap<>();
+        for (int i = 0; i < current.workingCount; i++) {
+            distribution.put(current.nodes[current.working[i]].getId(), 1);
+        }
+        return new ConsistentHashRing.HashRingStats(current.workingCount, capacity, 1, distribution);
+    }
+
+    @Override
+    public Set<ConsistentHashRing.Node> getAllNodes() {
+        State current = state;
+        Set<ConsistentHashRing.Node> nodes = new HashSet<>();
+        for (int i = 0; i < current.workingCount; i++) {
+            nodes.add(current.nodes[current.working[i]]);
+        }
+        return nodes;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return state.workingCount == 0;
+    }
+
+    @Override
+    public int getNodeCount() {
+        return state.workingCount;
+    }
+
+    @Override
+    public long estimateMemoryBytes() {
+        // A, W, L, K and the removed stack, plus the bucket to node references
+        return (long) capacity * (5 * Integer.BYTES + 8);
+    }
+
+    /**
+     * Anchor arrays as named in the paper: A (removal sizes), W (working set),
+     * L (last location), K (successor) and the removed-bucket stack R.
+     */
+    private static final class State {
+        final int[] removedAt;
+        final int[] working;
+        final int[] location;
+        final int[] successor;
+        final int[] removed;
+        final ConsistentHashRing.Node[] nodes;
+        int removedCount;
+        int workingCount;
+
+        private State(int[] removedAt, int[] working, int[] location, int[] successor,
+                int[] removed, ConsistentHashRing.Node[] nodes, int removedCount, int workingCount) {
+            this.removedAt = removedAt;
+            this.working = working;
+            this.location = location;
+            this.successor = successor;
+            this.removed = removed;
+            this.nodes = nodes;
+            this.removedCount = removedCount;
+            this.workingCount = workingCount;
+        }
+
+        static State initial(int capacity) {
+            int[] removedAt = new int[capacity];
+            int[] working = new int[capacity];
+            int[] location = new int[capacity];
+            int[] successor = new int[capacity];
+            int[] removed = new int[capacity];
+            int removedCount = 0;
+            for (int b = 0; b < capacity; b++) {
+                working[b] = b;
+                location[b] = b;
+                successor[b] = b;
+            }
+            // Every bucket starts out removed; the last pushed is handed out first
+            for (int b = capacity - 1; b >= 0; b--) {
+                removed[removedCount++] = b;
+                removedAt[b] = b;
+            }
+            return new State(removedAt, working, location, successor, removed,
+                    new ConsistentHashRing.Node[capacity], removedCount, 0);
+        }
+
+        State copy() {
+            return new State(removedAt.clone(), working.clone(), location.clone(), successor.clone(),
+                    removed.clone(), nodes.clone(), removedCount, workingCount);
+        }
+
+        int bucketFor(long hash) {
+            int bucket = (int) Long.remainderUnsigned(hash, removedAt.length);
+            while (removedAt[bucket] > 0) {
+                int h = (int) Long.remainderUnsigned(
+                        KeyHasher.mix(hash + (bucket + 1) * SEED_INCREMENT), removedAt[bucket]);
+                while (removedAt[h] >= removedAt[bucket]) {
+                    h = successor[h];
+                }
+                bucket = h;
+            }
+            return bucket;
+        }
+
+        int addBucket() {
+            int bucket = removed[--removedCount];
+            removedAt[bucket] = 0;
+            location[working[workingCount]] = workingCount;
+            working[location[bucket]] = bucket;
+            successor[bucket] = bucket;
+            workingCount++;
+            return bucket;
+        }
+
+        void removeBucket(int bucket) {
+            removed[removedCount++] = bucket;
+            workingCount--;
+            removedAt[bucket] = workingCount;
+            working[location[bucket]] = working[workingCount];
+            location[working[workingCount]] = location[bucket];
+            successor[bucket] = working[workingCount];
+        }
+    }
+}
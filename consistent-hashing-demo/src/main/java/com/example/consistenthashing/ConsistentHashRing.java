@@ -1,29 +1,102 @@
 package com.example.consistenthashing;
 
-import com.google.common.hash.Hashing;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.concurrent.ConcurrentSkipListMap;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 /**
  * A scalable implementation of consistent hashing using a virtual node ring.
  * This implementation provides thread-safe operations and supports dynamic node
  * addition/removal
  * with minimal redistribution of keys.
+ * <p>
+ * Lookups never take a lock: they binary-search an immutable
+ * {@link RingSnapshot} that is rebuilt and published atomically whenever the
+ * membership changes. Writers serialize on a single lock and keep a per-node
+ * index of token positions, so adding or removing a node only hashes and
+ * searches that node's own tokens.
+ * <p>
+ * Nodes can carry a weight, typically their relative capacity: a node gets
+ * round(weight &times; virtualNodesPerPhysicalNode) tokens, so its share of the
+ * key space is proportional to its weight. Changing a weight only adds or
+ * removes the difference in tokens.
+ * <p>
+ * The ring can also run in bounded-load mode (Mirrokni et al., "Consistent
+ * Hashing with Bounded Loads"). Callers report each key they
+ * {@link #assign(String) assign} and later {@link #release(String) release};
+ * a node holding ceil((1+&epsilon;) &middot; average load) keys is full and
+ * further keys that hash to it continue clockwise to the next node with
+ * room. Each node's load is a single atomic counter, not a striped one, so
+ * a key is counted against a node with a compare-and-set that re-checks the
+ * capacity, and concurrent assignments cannot push a node past the bound in
+ * force when they were made; releases do not move keys.
+ * <p>
+ * For skewed traffic, an optional {@link LookupMemo} in front of
+ * {@link #getNode(String)} and {@link #getNodes(String, int)} remembers the
+ * token position of recently seen keys, stamped with the snapshot epoch.
+ * <p>
+ * Nodes can be labelled with a zone. With zone-aware replicas enabled,
+ * {@link #getNodes(String, int)} spreads a key's replicas over as many zones
+ * as it can before placing two in the same one; the primary is unchanged.
+ * {@link #getNodesByLocality(String, int, String)} works in either mode.
+ * <p>
+ * The epoch doubles as the ring version for replicas: every published
+ * layout is logged with the node changes that produced it, so a client
+ * holding {@link #getMembership()} at one epoch can catch up through
+ * {@link #getChangesSince(long)}.
  */
-public class ConsistentHashRing {
+public class ConsistentHashRing implements PlacementEngine {
     private static final Logger logger = LoggerFactory.getLogger(ConsistentHashRing.class);
 
-    private final ConcurrentSkipListMap<Long, VirtualNode> hashRing;
+    /**
+     * Number of recently removed nodes whose tokens are kept, so a node that
+     * flaps back in does not need to be rehashed.
+     */
+    private static final int RETIRED_TOKEN_CACHE_SIZE = 1024;
+
+    /**
+     * Per-thread scratch for the bounded-load walk, so an assignment does not
+     * allocate.
+     */
+    private static final ThreadLocal<WalkScratch> WALK_SCRATCH = ThreadLocal.withInitial(WalkScratch::new);
+
+    /**
+     * Default length of the precomputed replica preference lists.
+     */
+    public static final int DEFAULT_MAX_REPLICAS = 3;
+
+    /**
+     * Load balance factor that disables the bounded-load capacity check.
+     */
+    public static final double UNBOUNDED = -1;
+
     private final Map<String, Node> physicalNodes;
-    private final ReadWriteLock lock;
+    private final Map<String, long[]> nodeTokens;
+    private final Map<String, Integer> nodeSlots;
+    private final Map<String, Integer> nodeTokenCounts;
+    private final Map<String, long[]> retiredTokens;
+    private final Lock writeLock;
     private final int virtualNodesPerPhysicalNode;
     private final String virtualNodeSuffix;
+    private final double loadBalanceFactor;
+    // One counter per node rather than a striped LongAdder: a striped sum cannot
+    // be compared and incremented atomically, which the capacity bound needs.
+    // Lookups never touch these; only assign and release contend on them.
+    private final Map<String, AtomicLong> nodeLoads;
+    private final LongAdder totalLoad;
+    private final LookupMemo memo;
+    private final List<Consumer<RingSnapshot>> snapshotListeners;
+    private final RingChangeLog changeLog;
+    private volatile RingSnapshot snapshot;
 
     /**
      * Creates a new consistent hash ring with the specified number of virtual nodes
@@ -33,16 +106,113 @@ public class ConsistentHashRing {
      *                                    physical node
      * @param virtualNodeSuffix           Suffix to append to virtual node names for
      *                                    uniqueness
+     * @param maxReplicas                 Maximum replication factor served from
+     *                                    precomputed preference lists
+     * @param loadBalanceFactor           The &epsilon; of bounded-load mode; a node
+     *                                    is full at (1+&epsilon;) times the average
+     *                                    load. Negative disables the bound.
+     * @param lookupMemoSize              Slots in the key lookup memo; 0 disables it
+     * @param zoneAwareReplicas           Whether replica lists spread over zones
      */
-    public ConsistentHashRing(int virtualNodesPerPhysicalNode, String virtualNodeSuffix) {
-        this.hashRing = new ConcurrentSkipListMap<>();
-        this.physicalNodes = new HashMap<>();
-        this.lock = new ReentrantReadWriteLock();
+    public ConsistentHashRing(int virtualNodesPerPhysicalNode, String virtualNodeSuffix, int maxReplicas,
+            double loadBalanceFactor, int lookupMemoSize, boolean zoneAwareReplicas) {
+        if (maxReplicas < 1) {
+            throw new IllegalArgumentException("Max replicas must be positive: " + maxReplicas);
+        }
+        this.physicalNodes = new LinkedHashMap<>();
+        this.nodeTokens = new HashMap<>();
+        this.nodeSlots = new HashMap<>();
+        this.nodeTokenCounts = new HashMap<>();
+        this.retiredTokens = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, long[]> eldest) {
+                return size() > RETIRED_TOKEN_CACHE_SIZE;
+            }
+        };
+        this.writeLock = new ReentrantLock();
         this.virtualNodesPerPhysicalNode = virtualNodesPerPhysicalNode;
         this.virtualNodeSuffix = virtualNodeSuffix;
+        this.loadBalanceFactor = loadBalanceFactor;
+        this.nodeLoads = new ConcurrentHashMap<>();
+        this.totalLoad = new LongAdder();
+        this.memo = lookupMemoSize > 0 ? new LookupMemo(lookupMemoSize) : null;
+        this.snapshotListeners = new CopyOnWriteArrayList<>();
+        this.changeLog = new RingChangeLog(RingChangeLog.DEFAULT_CAPACITY);
+        this.snapshot = RingSnapshot.empty(maxReplicas, zoneAwareReplicas);
 
         logger.info("Initialized consistent hash ring with {} virtual nodes per physical node",
                 virtualNodesPerPhysicalNode);
+        if (isBoundedLoad()) {
+            logger.info("Bounded-load mode enabled with load balance factor {}", loadBalanceFactor);
+        }
+        if (memo != null) {
+            logger.info("Lookup memo enabled with {} slots", memo.capacity());
+        }
+        if (zoneAwareReplicas) {
+            logger.info("Zone-aware replica placement enabled");
+        }
+    }
+
+    /**
+     * Creates a new consistent hash ring whose replicas follow ring order.
+     * 
+     * @param virtualNodesPerPhysicalNode Number of virtual nodes to create for each
+     *                                    physical node
+     * @param virtualNodeSuffix           Suffix to append to virtual node names for
+     *                                    uniqueness
+     * @param maxReplicas                 Maximum replication factor served from
+     *                                    precomputed preference lists
+     * @param loadBalanceFactor           The &epsilon; of bounded-load mode; negative
+     *                                    disables the bound
+     * @param lookupMemoSize              Slots in the key lookup memo; 0 disables it
+     */
+    public ConsistentHashRing(int virtualNodesPerPhysicalNode, String virtualNodeSuffix, int maxReplicas,
+            double loadBalanceFactor, int lookupMemoSize) {
+        this(virtualNodesPerPhysicalNode, virtualNodeSuffix, maxReplicas, loadBalanceFactor, lookupMemoSize, false);
+    }
+
+    /**
+     * Creates a new consistent hash ring without a lookup memo.
+     * 
+     * @param virtualNodesPerPhysicalNode Number of virtual nodes to create for each
+     *                                    physical node
+     * @param virtualNodeSuffix           Suffix to append to virtual node names for
+     *                                    uniqueness
+     * @param maxReplicas                 Maximum replication factor served from
+     *                                    precomputed preference lists
+     * @param loadBalanceFactor           The &epsilon; of bounded-load mode; negative
+     *                                    disables the bound
+     */
+    public ConsistentHashRing(int virtualNodesPerPhysicalNode, String virtualNodeSuffix, int maxReplicas,
+            double loadBalanceFactor) {
+        this(virtualNodesPerPhysicalNode, virtualNodeSuffix, maxReplicas, loadBalanceFactor, 0);
+    }
+
+    /**
+     * Creates a new consistent hash ring without a load bound.
+     * 
+     * @param virtualNodesPerPhysicalNode Number of virtual nodes to create for each
+     *                                    physical node
+     * @param virtualNodeSuffix           Suffix to append to virtual node names for
+     *                                    uniqueness
+     * @param maxReplicas                 Maximum replication factor served from
+     *                                    precomputed preference lists
+     */
+    public ConsistentHashRing(int virtualNodesPerPhysicalNode, String virtualNodeSuffix, int maxReplicas) {
+        this(virtualNodesPerPhysicalNode, virtualNodeSuffix, maxReplicas, UNBOUNDED);
+    }
+
+    /**
+     * Creates a new consistent hash ring with the specified number of virtual nodes
+     * per physical node and the default maximum replication factor.
+     * 
+     * @param virtualNodesPerPhysicalNode Number of virtual nodes to create for each
+     *                                    physical node
+     * @param virtualNodeSuffix           Suffix to append to virtual node names for
+     *                                    uniqueness
+     */
+    public ConsistentHashRing(int virtualNodesPerPhysicalNode, String virtualNodeSuffix) {
+        this(virtualNodesPerPhysicalNode, virtualNodeSuffix, DEFAULT_MAX_REPLICAS);
     }
 
     /**
@@ -53,6 +223,11 @@ public class ConsistentHashRing {
         this(150, "#");
     }
 
+    @Override
+    public String getName() {
+        return "ring";
+    }
+
     /**
      * Adds a physical node to the hash ring.
      * 
@@ -60,30 +235,66 @@ public class ConsistentHashRing {
      * @param nodeAddress Network address of the node
      * @return true if the node was added successfully, false if it already exists
      */
+    @Override
     public boolean addNode(String nodeId, String nodeAddress) {
-        lock.writeLock().lock();
+        return addNode(nodeId, nodeAddress, 1.0);
+    }
+
+    /**
+     * Adds a weighted physical node to the hash ring.
+     * 
+     * @param nodeId      Unique identifier for the node
+     * @param nodeAddress Network address of the node
+     * @param weight      Relative capacity of the node; 1.0 gets the default
+     *                    number of virtual nodes
+     * @return true if the node was added successfully, false if it already exists
+     * @throws IllegalArgumentException if the weight is not positive and finite
+     */
+    @Override
+    public boolean addNode(String nodeId, String nodeAddress, double weight) {
+        return addNode(nodeId, nodeAddress, weight, null);
+    }
+
+    /**
+     * Adds a weighted physical node in a zone to the hash ring.
+     * 
+     * @param nodeId      Unique identifier for the node
+     * @param nodeAddress Network address of the node
+     * @param weight      Relative capacity of the node; 1.0 gets the default
+     *                    number of virtual nodes
+     * @param zone        Failure domain of the node, or null if unlabelled
+     * @return true if the node was added successfully, false if it already exists
+     * @throws IllegalArgumentException if the weight is not positive and finite
+     */
+    @Override
+    public boolean addNode(String nodeId, String nodeAddress, double weight, String zone) {
+        int tokenCount = tokenCountFor(weight);
+        writeLock.lock();
         try {
             if (physicalNodes.containsKey(nodeId)) {
                 logger.warn("Node {} already exists in the hash ring", nodeId);
                 return false;
             }
 
-            Node physicalNode = new Node(nodeId, nodeAddress);
-            physicalNodes.put(nodeId, physicalNode);
+            Node physicalNode = new Node(nodeId, nodeAddress, weight, zone);
+            long[] tokens = tokensFor(nodeId, tokenCount);
+            retiredTokens.remove(nodeId);
 
-            // Create virtual nodes for this physical node
-            for (int i = 0; i < virtualNodesPerPhysicalNode; i++) {
-                String virtualNodeId = nodeId + virtualNodeSuffix + i;
-                VirtualNode virtualNode = new VirtualNode(virtualNodeId, physicalNode);
-                long hash = hash(virtualNodeId);
-                hashRing.put(hash, virtualNode);
-            }
+            RingSnapshot current = snapshot;
+            int slot = current.freeSlot();
+            physicalNodes.put(nodeId, physicalNode);
+            nodeTokens.put(nodeId, tokens);
+            nodeSlots.put(nodeId, slot);
+            nodeTokenCounts.put(nodeId, tokenCount);
+            nodeLoads.put(nodeId, new AtomicLong());
+            publish(current.withNode(slot, physicalNode, tokens),
+                    List.of(RingChanges.NodeChange.added(physicalNode)));
 
             logger.info("Added node {} with {} virtual nodes to the hash ring",
-                    nodeId, virtualNodesPerPhysicalNode);
+                    nodeId, tokenCount);
             return true;
         } finally {
-            lock.writeLock().unlock();
+            writeLock.unlock();
         }
     }
 
@@ -93,124 +304,523 @@ public class ConsistentHashRing {
      * @param nodeId Unique identifier of the node to remove
      * @return true if the node was removed successfully, false if it doesn't exist
      */
+    @Override
     public boolean removeNode(String nodeId) {
-        lock.writeLock().lock();
+        writeLock.lock();
         try {
             if (!physicalNodes.containsKey(nodeId)) {
                 logger.warn("Node {} does not exist in the hash ring", nodeId);
                 return false;
             }
 
-            // Remove all virtual nodes for this physical node
-            Iterator<Map.Entry<Long, VirtualNode>> iterator = hashRing.entrySet().iterator();
-            while (iterator.hasNext()) {
-                Map.Entry<Long, VirtualNode> entry = iterator.next();
-                if (entry.getValue().getPhysicalNode().getId().equals(nodeId)) {
-                    iterator.remove();
-                }
-            }
-
+            // Splice out only this node's virtual nodes, found through its token index
+            long[] tokens = nodeTokens.remove(nodeId);
+            int slot = nodeSlots.remove(nodeId);
+            nodeTokenCounts.remove(nodeId);
             physicalNodes.remove(nodeId);
+            publish(snapshot.withoutNode(slot, tokens), List.of(RingChanges.NodeChange.removed(nodeId)));
+            retiredTokens.put(nodeId, tokens);
+
+            // Keys assigned to the node are gone with it
+            AtomicLong load = nodeLoads.remove(nodeId);
+            totalLoad.add(-load.get());
 
             logger.info("Removed node {} and all its virtual nodes from the hash ring", nodeId);
             return true;
         } finally {
-            lock.writeLock().unlock();
+            writeLock.unlock();
         }
     }
 
     /**
-     * Gets the node responsible for a given key.
-     * 
-     * @param key The key to hash and find the responsible node for
-     * @return The physical node responsible for the key, or null if no nodes exist
+     * Applies a batch of removals and additions as one atomic change: the
+     * write lock is taken once, the snapshot is rebuilt in a single pass and
+     * published once with a single new epoch. Lookups see either the layout
+     * before the batch or the one after it, never a partial one.
+     *
+     * @param batch The changes to apply; removals take effect first
+     * @return Per-node outcome
+     * @throws IllegalArgumentException if any added node's weight is not
+     *                                  positive and finite; nothing is changed
      */
-    public Node getNode(String key) {
-        lock.readLock().lock();
+    @Override
+    public MembershipBatch.Result applyBatch(MembershipBatch batch) {
+        List<MembershipBatch.Addition> additions = batch.additions();
+        int[] tokenCounts = new int[additions.size()];
+        for (int i = 0; i < tokenCounts.length; i++) {
+            tokenCounts[i] = tokenCountFor(additions.get(i).weight());
+        }
+
+        writeLock.lock();
         try {
-            // Validate input key
-            if (key == null || key.trim().isEmpty()) {
-                logger.warn("Invalid key provided: {}", key);
-                return null;
+            RingSnapshot current = snapshot;
+            Node[] nodes = new Node[current.slotCount() + additions.size()];
+            for (int slot = 0; slot < current.slotCount(); slot++) {
+                nodes[slot] = current.nodeAt(slot);
             }
+            boolean[] vacated = new boolean[current.slotCount()];
 
-            if (hashRing.isEmpty()) {
-                logger.warn("Hash ring is empty, cannot find node for key: {}", key);
-                return null;
+            List<RingChanges.NodeChange> changes = new ArrayList<>();
+            Map<String, Boolean> removed = new LinkedHashMap<>();
+            for (String nodeId : batch.removals()) {
+                Integer slot = nodeSlots.remove(nodeId);
+                removed.merge(nodeId, slot != null, Boolean::logicalOr);
+                if (slot == null) {
+                    logger.warn("Node {} does not exist in the hash ring", nodeId);
+                    continue;
+                }
+                physicalNodes.remove(nodeId);
+                nodeTokenCounts.remove(nodeId);
+                retiredTokens.put(nodeId, nodeTokens.remove(nodeId));
+                totalLoad.add(-nodeLoads.remove(nodeId).get());
+                nodes[slot] = null;
+                vacated[slot] = true;
+                changes.add(RingChanges.NodeChange.removed(nodeId));
             }
 
-            long hash = hash(key);
-            Map.Entry<Long, VirtualNode> entry = hashRing.ceilingEntry(hash);
+            Map<String, Boolean> added = new LinkedHashMap<>();
+            int[] addedSlots = new int[additions.size()];
+            long[][] addedTokens = new long[additions.size()][];
+            int addedCount = 0;
+            int slotCount = current.slotCount();
+            int freeSlot = 0;
+            for (int i = 0; i < additions.size(); i++) {
+                MembershipBatch.Addition addition = additions.get(i);
+                String nodeId = addition.nodeId();
+                boolean exists = physicalNodes.containsKey(nodeId);
+                added.merge(nodeId, !exists, Boolean::logicalOr);
+                if (exists) {
+                    logger.warn("Node {} already exists in the hash ring", nodeId);
+                    continue;
+                }
 
-            // If no entry found, wrap around to the first entry (ring behavior)
-            if (entry == null) {
-                entry = hashRing.firstEntry();
+                Node physicalNode = new Node(nodeId, addition.nodeAddress(), addition.weight(), addition.zone());
+                long[] tokens = tokensFor(nodeId, tokenCounts[i]);
+                retiredTokens.remove(nodeId);
+                while (nodes[freeSlot] != null) {
+                    freeSlot++;
+                }
+                nodes[freeSlot] = physicalNode;
+                slotCount = Math.max(slotCount, freeSlot + 1);
+                physicalNodes.put(nodeId, physicalNode);
+                nodeTokens.put(nodeId, tokens);
+                nodeSlots.put(nodeId, freeSlot);
+                nodeTokenCounts.put(nodeId, tokenCounts[i]);
+                nodeLoads.put(nodeId, new AtomicLong());
+                addedSlots[addedCount] = freeSlot;
+                addedTokens[addedCount++] = tokens;
+                changes.add(RingChanges.NodeChange.added(physicalNode));
             }
 
-            Node responsibleNode = entry.getValue().getPhysicalNode();
-            logger.debug("Key '{}' (hash: {}) mapped to node: {}", key, hash, responsibleNode.getId());
-            return responsibleNode;
+            MembershipBatch.Result result = new MembershipBatch.Result(added, removed);
+            if (result.changed()) {
+                publish(current.withMembership(Arrays.copyOf(nodes, slotCount), vacated,
+                        Arrays.copyOf(addedSlots, addedCount), Arrays.copyOf(addedTokens, addedCount)), changes);
+                logger.info("Applied {} to the hash ring: {} nodes added, {} removed", batch.describe(),
+                        addedCount, removed.values().stream().filter(Boolean::booleanValue).count());
+            }
+            return result;
         } finally {
-            lock.readLock().unlock();
+            writeLock.unlock();
         }
     }
 
     /**
-     * Gets multiple nodes responsible for a given key (for replication purposes).
+     * Changes the weight of a node. Only the difference in virtual nodes is
+     * added to or removed from the ring, so keys move only between this node
+     * and its neighbours.
      * 
-     * @param key   The key to hash and find responsible nodes for
-     * @param count Number of nodes to return
-     * @return List of physical nodes responsible for the key, ordered by proximity
+     * @param nodeId Unique identifier of the node
+     * @param weight New relative capacity of the node
+     * @return true if the weight was updated, false if the node doesn't exist
+     * @throws IllegalArgumentException if the weight is not positive and finite
      */
-    public List<Node> getNodes(String key, int count) {
-        lock.readLock().lock();
+    @Override
+    public boolean updateWeight(String nodeId, double weight) {
+        int newCount = tokenCountFor(weight);
+        writeLock.lock();
         try {
-            // Validate input key
-            if (key == null || key.trim().isEmpty()) {
-                logger.warn("Invalid key provided: {}", key);
-                return Collections.emptyList();
+            Node node = physicalNodes.get(nodeId);
+            if (node == null) {
+                logger.warn("Node {} does not exist in the hash ring", nodeId);
+                return false;
             }
 
-            if (hashRing.isEmpty()) {
-                logger.warn("Hash ring is empty, cannot find nodes for key: {}", key);
-                return Collections.emptyList();
+            int oldCount = nodeTokenCounts.get(nodeId);
+            Reweight reweight = reweight(node, weight, newCount);
+            publish(reweight.snapshot(), List.of(RingChanges.NodeChange.reweighted(reweight.node())));
+            physicalNodes.put(nodeId, reweight.node());
+            nodeTokens.put(nodeId, reweight.tokens());
+            nodeTokenCounts.put(nodeId, newCount);
+
+            logger.info("Updated weight of node {} to {} ({} -> {} virtual nodes)",
+                    nodeId, weight, oldCount, newCount);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Derives the layout for a node's new weight without publishing it. Only
+     * the virtual nodes between the old and new counts are hashed. Must be
+     * called with the write lock held.
+     */
+    private Reweight reweight(Node node, double weight, int newCount) {
+        String nodeId = node.getId();
+        Node updated = node.withWeight(weight);
+        int slot = nodeSlots.get(nodeId);
+        int oldCount = nodeTokenCounts.get(nodeId);
+        long[] tokens = nodeTokens.get(nodeId);
+
+        if (newCount > oldCount) {
+            long[] added = difference(computeTokens(nodeId, oldCount, newCount), tokens);
+            return new Reweight(updated, snapshot.withTokens(slot, updated, added), union(tokens, added));
+        } else if (newCount < oldCount) {
+            long[] kept = computeTokens(nodeId, 0, newCount);
+            long[] removed = difference(computeTokens(nodeId, newCount, oldCount), kept);
+            return new Reweight(updated, snapshot.withoutTokens(slot, updated, removed), kept);
+        }
+        return new Reweight(updated, snapshot.withTokens(slot, updated, new long[0]), tokens);
+    }
+
+    /**
+     * A node's re-weighted instance, the layout it produces and its new tokens.
+     */
+    private record Reweight(Node node, RingSnapshot snapshot, long[] tokens) {
+    }
+
+    /**
+     * Plans the ranges that would move if a node were added, without changing
+     * the ring.
+     * 
+     * @param nodeId      Unique identifier for the node
+     * @param nodeAddress Network address of the node
+     * @param weight      Relative capacity of the node
+     * @return The ranges that would move to the new node
+     * @throws IllegalArgumentException if the node already exists or the weight is invalid
+     */
+    public RebalancePlan planAddNode(String nodeId, String nodeAddress, double weight) {
+        int tokenCount = tokenCountFor(weight);
+        writeLock.lock();
+        try {
+            if (physicalNodes.containsKey(nodeId)) {
+                throw new IllegalArgumentException("Node " + nodeId + " already exists in the hash ring");
             }
+            RingSnapshot current = snapshot;
+            RingSnapshot proposed = current.withNode(current.freeSlot(), new Node(nodeId, nodeAddress, weight),
+                    tokensFor(nodeId, tokenCount));
+            return RebalancePlan.diff("add " + nodeId, current, proposed);
+        } finally {
+            writeLock.unlock();
+        }
+    }
 
-            List<Node> nodes = new ArrayList<>();
-            long hash = hash(key);
-            NavigableMap<Long, VirtualNode> tailMap = hashRing.tailMap(hash, true);
-
-            // Add nodes from the tail map
-            for (VirtualNode virtualNode : tailMap.values()) {
-                Node physicalNode = virtualNode.getPhysicalNode();
-                if (!nodes.contains(physicalNode)) {
-                    nodes.add(physicalNode);
-                    if (nodes.size() >= count) {
-                        break;
-                    }
-                }
+    /**
+     * Plans the ranges that would move if a node were removed or failed,
+     * without changing the ring.
+     * 
+     * @param nodeId Unique identifier of the node
+     * @return The ranges that would move off the node
+     * @throws IllegalArgumentException if the node doesn't exist
+     */
+    public RebalancePlan planRemoveNode(String nodeId) {
+        writeLock.lock();
+        try {
+            if (!physicalNodes.containsKey(nodeId)) {
+                throw new IllegalArgumentException("Node " + nodeId + " does not exist in the hash ring");
             }
+            RingSnapshot current = snapshot;
+            RingSnapshot proposed = current.withoutNode(nodeSlots.get(nodeId), nodeTokens.get(nodeId));
+            return RebalancePlan.diff("remove " + nodeId, current, proposed);
+        } finally {
+            writeLock.unlock();
+        }
+    }
 
-            // If we need more nodes, wrap around to the beginning
-            if (nodes.size() < count) {
-                for (VirtualNode virtualNode : hashRing.values()) {
-                    Node physicalNode = virtualNode.getPhysicalNode();
-                    if (!nodes.contains(physicalNode)) {
-                        nodes.add(physicalNode);
-                        if (nodes.size() >= count) {
-                            break;
-                        }
-                    }
-                }
+    /**
+     * Plans the ranges that would move if a node's weight changed, without
+     * changing the ring.
+     * 
+     * @param nodeId Unique identifier of the node
+     * @param weight Proposed relative capacity of the node
+     * @return The ranges that would move to or from the node
+     * @throws IllegalArgumentException if the node doesn't exist or the weight is invalid
+     */
+    public RebalancePlan planUpdateWeight(String nodeId, double weight) {
+        int newCount = tokenCountFor(weight);
+        writeLock.lock();
+        try {
+            Node node = physicalNodes.get(nodeId);
+            if (node == null) {
+                throw new IllegalArgumentException("Node " + nodeId + " does not exist in the hash ring");
             }
+            RingSnapshot current = snapshot;
+            return RebalancePlan.diff("reweight " + nodeId + " to " + weight, current,
+                    reweight(node, weight, newCount).snapshot());
+        } finally {
+            writeLock.unlock();
+        }
+    }
 
+    /**
+     * Gets the node responsible for a given key.
+     * 
+     * @param key The key to hash and find the responsible node for
+     * @return The physical node responsible for the key, or null if no nodes exist
+     */
+    @Override
+    public Node getNode(String key) {
+        // Validate input key
+        if (key == null || key.trim().isEmpty()) {
+            logger.warn("Invalid key provided: {}", key);
+            return null;
+        }
+
+        RingSnapshot current = snapshot;
+        if (current.isEmpty()) {
+            logger.warn("Hash ring is empty, cannot find node for key: {}", key);
+            return null;
+        }
+        Node responsibleNode = current.ownerAt(positionFor(current, key));
+        if (logger.isDebugEnabled()) {
+            logger.debug("Key '{}' (hash: {}) mapped to node: {}", key, hash(key), responsibleNode.getId());
+        }
+        return responsibleNode;
+    }
+
+    /**
+     * Gets the node responsible for a precomputed key hash. Performs no
+     * allocation.
+     * 
+     * @param keyHash The key hash
+     * @return The physical node responsible for the hash, or null if no nodes exist
+     */
+    @Override
+    public Node getNodeByHash(long keyHash) {
+        RingSnapshot current = snapshot;
+        if (current.isEmpty()) {
+            return null;
+        }
+        return current.ownerAt(current.positionFor(keyHash));
+    }
+
+    /**
+     * Gets multiple nodes responsible for a given key (for replication purposes).
+     * 
+     * @param key   The key to hash and find responsible nodes for
+     * @param count Number of nodes to return
+     * @return List of physical nodes responsible for the key, ordered by proximity
+     */
+    @Override
+    public List<Node> getNodes(String key, int count) {
+        // Validate input key
+        if (key == null || key.trim().isEmpty()) {
+            logger.warn("Invalid key provided: {}", key);
+            return Collections.emptyList();
+        }
+
+        RingSnapshot current = snapshot;
+        if (current.isEmpty()) {
+            logger.warn("Hash ring is empty, cannot find nodes for key: {}", key);
+            return Collections.emptyList();
+        }
+
+        List<Node> nodes = count <= 0
+                ? Collections.emptyList()
+                : nodesAt(current, positionFor(current, key), count);
+        if (logger.isDebugEnabled()) {
             logger.debug("Key '{}' mapped to {} nodes: {}",
                     key, nodes.size(),
                     nodes.stream().map(Node::getId).toList());
-            return nodes;
-        } finally {
-            lock.readLock().unlock();
         }
+        return nodes;
+    }
+
+    /**
+     * Gets multiple nodes responsible for a precomputed key hash. Requests up
+     * to the maximum replication factor are served from the precomputed
+     * preference list of the key's token; larger requests walk the ring.
+     * 
+     * @param keyHash The key hash
+     * @param count   Number of nodes to return
+     * @return List of physical nodes responsible for the hash, ordered by proximity
+     */
+    @Override
+    public List<Node> getNodesByHash(long keyHash, int count) {
+        RingSnapshot current = snapshot;
+        if (current.isEmpty() || count <= 0) {
+            return Collections.emptyList();
+        }
+        return nodesAt(current, current.positionFor(keyHash), count);
+    }
+
+    private static List<Node> nodesAt(RingSnapshot current, int position, int count) {
+        if (count <= current.preferenceListLength()) {
+            return Arrays.asList(current.preferenceList(position, count));
+        }
+        return Arrays.asList(current.walk(position, count));
+    }
+
+    /**
+     * Assigns a key to a node and counts it against that node's load. In
+     * bounded-load mode a key whose primary node is full moves clockwise to
+     * the first node below capacity; otherwise this is {@link #getNode(String)}
+     * plus load accounting. Every assignment must be paired with a
+     * {@link #release(String)} once the key is no longer held.
+     * 
+     * @param key The key to assign
+     * @return The node the key was assigned to, or null if no nodes exist
+     */
+    public Node assign(String key) {
+        if (key == null || key.trim().isEmpty()) {
+            logger.warn("Invalid key provided: {}", key);
+            return null;
+        }
+
+        RingSnapshot current = snapshot;
+        if (current.isEmpty()) {
+            logger.warn("Hash ring is empty, cannot assign key: {}", key);
+            return null;
+        }
+
+        // Counted in the total first, so the capacity always covers keys still being placed
+        totalLoad.increment();
+        long keyHash = hash(key);
+        Node node = null;
+        while (node == null) {
+            int position = current.positionFor(keyHash);
+            if (isBoundedLoad()) {
+                long capacity = capacityFor(totalLoad.sum());
+                node = reserveBelowCapacity(current, position, capacity);
+                if (node == null && capacityFor(totalLoad.sum()) == capacity) {
+                    // Only nodes that lost every token can have room left; the owner takes the key
+                    node = reserve(current.ownerAt(position), Long.MAX_VALUE);
+                }
+            } else {
+                node = reserve(current.ownerAt(position), Long.MAX_VALUE);
+            }
+            if (node == null) {
+                // A node was removed or the capacity changed meanwhile; retry on the current ring
+                current = snapshot;
+                if (current.isEmpty()) {
+                    totalLoad.decrement();
+                    logger.warn("Hash ring is empty, cannot assign key: {}", key);
+                    return null;
+                }
+            }
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("Key '{}' assigned to node: {}", key, node.getId());
+        }
+        return node;
+    }
+
+    /**
+     * Releases one key previously assigned to a node.
+     * 
+     * @param nodeId The node the key was assigned to
+     * @return true if the load was released, false if the node is unknown or
+     *         holds no keys, as after a double release or a release left over
+     *         from before the node was removed and added back
+     */
+    public boolean release(String nodeId) {
+        AtomicLong load = nodeLoads.get(nodeId);
+        if (load == null) {
+            logger.warn("Cannot release load on unknown node: {}", nodeId);
+            return false;
+        }
+        if (load.getAndUpdate(current -> current > 0 ? current - 1 : current) == 0) {
+            logger.warn("Cannot release load on node {}: it holds no keys", nodeId);
+            return false;
+        }
+        totalLoad.decrement();
+        return true;
+    }
+
+    /**
+     * Gets the current load of every node.
+     * 
+     * @return Map of node ID to the number of keys assigned to it
+     */
+    public Map<String, Long> getLoads() {
+        Map<String, Long> loads = new TreeMap<>();
+        nodeLoads.forEach((nodeId, load) -> loads.put(nodeId, load.get()));
+        return loads;
+    }
+
+    /**
+     * Gets the per-node capacity for the current total load: ceil((1+&epsilon;)
+     * times the average load, counting the key about to be placed).
+     * 
+     * @return The capacity, or {@link Long#MAX_VALUE} when the load is unbounded
+     */
+    public long getCapacity() {
+        return capacityFor(totalLoad.sum() + 1);
+    }
+
+    private long capacityFor(long load) {
+        int nodeCount = snapshot.nodeCount();
+        if (!isBoundedLoad() || nodeCount == 0) {
+            return Long.MAX_VALUE;
+        }
+        return (long) Math.ceil((1 + loadBalanceFactor) * load / nodeCount);
+    }
+
+    /**
+     * Checks whether the ring bounds per-node load.
+     * 
+     * @return true if bounded-load mode is enabled
+     */
+    public boolean isBoundedLoad() {
+        return loadBalanceFactor >= 0;
+    }
+
+    /**
+     * Walks clockwise from a token and counts the key against the first node
+     * below capacity. Stops once every node has been tried.
+     *
+     * @return The node, or null if none had room
+     */
+    private Node reserveBelowCapacity(RingSnapshot current, int position, long capacity) {
+        WalkScratch scratch = WALK_SCRATCH.get();
+        int stamp = scratch.next(current.slotCount());
+        int tokenCount = current.tokenCount();
+        int nodesLeft = current.nodeCount();
+        for (int step = 0; step < tokenCount && nodesLeft > 0; step++) {
+            int slot = current.ownerSlotAt((position + step) % tokenCount);
+            if (scratch.stamps[slot] == stamp) {
+                continue;
+            }
+            scratch.stamps[slot] = stamp;
+            nodesLeft--;
+            Node node = reserve(current.nodeAt(slot), capacity);
+            if (node != null) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Counts one key against a node if it stays within capacity.
+     *
+     * @return The node, or null if it is full or was removed
+     */
+    private Node reserve(Node node, long capacity) {
+        AtomicLong load = nodeLoads.get(node.getId());
+        if (load == null) {
+            return null;
+        }
+        long current = load.get();
+        while (current < capacity) {
+            if (load.compareAndSet(current, current + 1)) {
+                return node;
+            }
+            current = load.get();
+        }
+        return null;
     }
 
     /**
@@ -218,25 +828,44 @@ public class ConsistentHashRing {
      * 
      * @return HashRingStats containing distribution information
      */
+    @Override
     public HashRingStats getStats() {
-        lock.readLock().lock();
-        try {
-            Map<String, Integer> nodeDistribution = new HashMap<>();
+        RingSnapshot current = snapshot;
+        Map<String, Integer> nodeDistribution = new HashMap<>();
 
-            // Count virtual nodes per physical node
-            for (VirtualNode virtualNode : hashRing.values()) {
-                String nodeId = virtualNode.getPhysicalNode().getId();
-                nodeDistribution.merge(nodeId, 1, Integer::sum);
+        // Count virtual nodes per physical node
+        int[] tokensPerNode = new int[current.slotCount()];
+        for (int i = 0; i < current.tokenCount(); i++) {
+            tokensPerNode[current.ownerSlotAt(i)]++;
+        }
+        double totalWeight = 0;
+        for (int slot = 0; slot < tokensPerNode.length; slot++) {
+            Node node = current.nodeAt(slot);
+            if (node != null) {
+                nodeDistribution.put(node.getId(), tokensPerNode[slot]);
+                totalWeight += node.getWeight();
             }
+        }
 
-            return new HashRingStats(
-                    physicalNodes.size(),
-                    hashRing.size(),
-                    virtualNodesPerPhysicalNode,
-                    nodeDistribution);
-        } finally {
-            lock.readLock().unlock();
+        // Compare each node's weight share with the hash space it actually owns
+        Map<String, Double> expectedOwnership = new HashMap<>();
+        Map<String, Double> actualOwnership = new HashMap<>();
+        double[] ownership = current.ownershipBySlot();
+        for (int slot = 0; slot < ownership.length; slot++) {
+            Node node = current.nodeAt(slot);
+            if (node != null) {
+                expectedOwnership.put(node.getId(), node.getWeight() / totalWeight);
+                actualOwnership.put(node.getId(), ownership[slot]);
+            }
         }
+
+        return new HashRingStats(
+                current.nodeCount(),
+                current.tokenCount(),
+                virtualNodesPerPhysicalNode,
+                nodeDistribution,
+                expectedOwnership,
+                actualOwnership);
     }
 
     /**
@@ -244,13 +873,17 @@ public class ConsistentHashRing {
      * 
      * @return Set of all physical nodes
      */
+    @Override
     public Set<Node> getAllNodes() {
-        lock.readLock().lock();
-        try {
-            return new HashSet<>(physicalNodes.values());
-        } finally {
-            lock.readLock().unlock();
+        RingSnapshot current = snapshot;
+        Set<Node> nodes = new HashSet<>();
+        for (int slot = 0; slot < current.slotCount(); slot++) {
+            Node node = current.nodeAt(slot);
+            if (node != null) {
+                nodes.add(node);
+            }
         }
+        return nodes;
     }
 
     /**
@@ -258,13 +891,9 @@ public class ConsistentHashRing {
      * 
      * @return true if no nodes exist, false otherwise
      */
+    @Override
     public boolean isEmpty() {
-        lock.readLock().lock();
-        try {
-            return hashRing.isEmpty();
-        } finally {
-            lock.readLock().unlock();
-        }
+        return snapshot.isEmpty();
     }
 
     /**
@@ -272,15 +901,272 @@ public class ConsistentHashRing {
      * 
      * @return Number of physical nodes
      */
+    @Override
     public int getNodeCount() {
-        lock.readLock().lock();
+        return snapshot.nodeCount();
+    }
+
+    /**
+     * Gets the number of virtual nodes for a node weight.
+     * 
+     * @param weight Relative capacity of the node
+     * @return Virtual node count, at least one
+     */
+    private int tokenCountFor(double weight) {
+        if (!(weight > 0) || Double.isInfinite(weight)) {
+            throw new IllegalArgumentException("Node weight must be positive and finite: " + weight);
+        }
+        return (int) Math.max(1, Math.round(weight * virtualNodesPerPhysicalNode));
+    }
+
+    /**
+     * Gets the tokens a node would be added with, reusing cached tokens from
+     * an earlier removal when the weight is unchanged. Must be called with the
+     * write lock held.
+     */
+    private long[] tokensFor(String nodeId, int tokenCount) {
+        long[] tokens = retiredTokens.get(nodeId);
+        if (tokens == null || tokens.length != tokenCount) {
+            tokens = computeTokens(nodeId, 0, tokenCount);
+        }
+        return tokens;
+    }
+
+    /**
+     * Hashes a range of a node's virtual node names into sorted, de-duplicated
+     * tokens.
+     * 
+     * @param nodeId Unique identifier of the node
+     * @param from   First virtual node index, inclusive
+     * @param to     Last virtual node index, exclusive
+     * @return The tokens of those virtual nodes
+     */
+    private long[] computeTokens(String nodeId, int from, int to) {
+        long[] tokens = new long[to - from];
+        for (int i = from; i < to; i++) {
+            tokens[i - from] = hash(nodeId + virtualNodeSuffix + i);
+        }
+        Arrays.sort(tokens);
+        return Arrays.stream(tokens).distinct().toArray();
+    }
+
+    /**
+     * Gets the tokens of a sorted array that are absent from another.
+     */
+    private static long[] difference(long[] sorted, long[] excluded) {
+        return Arrays.stream(sorted).filter(token -> Arrays.binarySearch(excluded, token) < 0).toArray();
+    }
+
+    /**
+     * Merges two sorted, disjoint token arrays.
+     */
+    private static long[] union(long[] first, long[] second) {
+        long[] merged = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, merged, first.length, second.length);
+        Arrays.sort(merged);
+        return merged;
+    }
+
+    /**
+     * Estimates the heap retained by the ring: the per-node token index plus
+     * the primitive lookup snapshot.
+     *
+     * @return Estimated size in bytes
+     */
+    @Override
+    public long estimateMemoryBytes() {
+        RingSnapshot current = snapshot;
+        long tokenIndex = current.tokenCount() * (long) Long.BYTES;
+        long lookupSide = current.tokenCount() * (long) (Long.BYTES + Integer.BYTES);
+        long preferenceLists = current.tokenCount() * (long) current.preferenceListLength() * Integer.BYTES;
+        return tokenIndex + lookupSide + preferenceLists + (memo == null ? 0 : memo.estimateMemoryBytes());
+    }
+
+    /**
+     * Gets the epoch of the published ring layout. Every membership or weight
+     * change increments it.
+     *
+     * @return The current epoch
+     */
+    public long getEpoch() {
+        return snapshot.epoch();
+    }
+
+    /**
+     * Gets the full membership of the published layout, from which a replica
+     * can rebuild the same ring.
+     *
+     * @return The membership, versioned by the current epoch
+     */
+    public RingMembership getMembership() {
+        RingSnapshot current = snapshot;
+        List<RingMembership.Member> members = new ArrayList<>(current.nodeCount());
+        for (int slot = 0; slot < current.slotCount(); slot++) {
+            Node node = current.nodeAt(slot);
+            if (node != null) {
+                members.add(new RingMembership.Member(node.getId(), node.getAddress(), node.getWeight(),
+                        node.getZone()));
+            }
+        }
+        return new RingMembership(current.epoch(), virtualNodesPerPhysicalNode, virtualNodeSuffix,
+                current.maxReplicas(), current.zoneAware(), members);
+    }
+
+    /**
+     * Gets the node changes published after an epoch. Only the most recent
+     * {@value RingChangeLog#DEFAULT_CAPACITY} epochs are retained.
+     *
+     * @param since Epoch the caller has
+     * @return The changes, or a reset if the caller must reload the membership
+     */
+    public RingChanges getChangesSince(long since) {
+        return changeLog.since(since);
+    }
+
+    /**
+     * Returns a future completed once the ring publishes a layout after an
+     * epoch. It is completed on another thread, never the writer's.
+     *
+     * @param epoch Epoch the caller has
+     * @return A future of its own that the caller may time out
+     */
+    public CompletableFuture<Void> awaitChangeAfter(long epoch) {
+        return changeLog.awaitAfter(epoch);
+    }
+
+    /**
+     * Gets the lookup memo, if one is enabled.
+     *
+     * @return The memo, or empty if lookups are not memoized
+     */
+    public Optional<LookupMemo> getLookupMemo() {
+        return Optional.ofNullable(memo);
+    }
+
+    /**
+     * Finds the token position of a key in a snapshot, going through the
+     * lookup memo when one is enabled.
+     */
+    private int positionFor(RingSnapshot current, String key) {
+        if (memo == null) {
+            return current.positionFor(hash(key));
+        }
+        long epoch = current.epoch();
+        int position = memo.lookup(key, epoch);
+        if (position < 0) {
+            position = current.positionFor(hash(key));
+            memo.record(key, epoch, position);
+        }
+        return position;
+    }
+
+    /**
+     * Replaces an empty ring with a previously persisted layout. The tokens
+     * are taken as stored rather than rehashed, so the cost depends only on
+     * the snapshot's size. A node's token index holds the tokens it owns in
+     * the snapshot; tokens it lost to a collision are not recovered.
+     *
+     * @param restored Snapshot with the same virtual node settings as this ring
+     * @return true if the snapshot was installed, false if the ring already has nodes
+     */
+    boolean restore(RingSnapshot restored) {
+        writeLock.lock();
         try {
-            return physicalNodes.size();
+            if (!physicalNodes.isEmpty()) {
+                logger.warn("Hash ring already has nodes, not restoring snapshot at epoch {}", restored.epoch());
+                return false;
+            }
+
+            int[] ownedTokens = new int[restored.slotCount()];
+            for (int position = 0; position < restored.tokenCount(); position++) {
+                ownedTokens[restored.ownerSlotAt(position)]++;
+            }
+            long[][] tokensBySlot = new long[restored.slotCount()][];
+            for (int slot = 0; slot < tokensBySlot.length; slot++) {
+                tokensBySlot[slot] = new long[ownedTokens[slot]];
+                ownedTokens[slot] = 0;
+            }
+            // Positions are sorted, so every node's tokens come out sorted
+            for (int position = 0; position < restored.tokenCount(); position++) {
+                int slot = restored.ownerSlotAt(position);
+                tokensBySlot[slot][ownedTokens[slot]++] = restored.tokenAt(position);
+            }
+
+            for (int slot = 0; slot < restored.slotCount(); slot++) {
+                Node node = restored.nodeAt(slot);
+                if (node != null) {
+                    physicalNodes.put(node.getId(), node);
+                    nodeTokens.put(node.getId(), tokensBySlot[slot]);
+                    nodeSlots.put(node.getId(), slot);
+                    nodeTokenCounts.put(node.getId(), tokenCountFor(node.getWeight()));
+                    nodeLoads.put(node.getId(), new AtomicLong());
+                }
+            }
+            snapshot = restored;
+            changeLog.reset(restored.epoch());
+            notifyListeners(restored);
+
+            logger.info("Restored hash ring snapshot at epoch {} with {} nodes and {} virtual nodes",
+                    restored.epoch(), restored.nodeCount(), restored.tokenCount());
+            return true;
         } finally {
-            lock.readLock().unlock();
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Registers a listener called with every newly published snapshot. It runs
+     * on the writer's thread while the write lock is held, in publication
+     * order, so it must only hand the snapshot off.
+     *
+     * @param listener The listener
+     */
+    void addSnapshotListener(Consumer<RingSnapshot> listener) {
+        snapshotListeners.add(listener);
+    }
+
+    /**
+     * Unregisters a snapshot listener.
+     *
+     * @param listener The listener
+     */
+    void removeSnapshotListener(Consumer<RingSnapshot> listener) {
+        snapshotListeners.remove(listener);
+    }
+
+    /**
+     * Publishes a new layout and records the node changes that produced it
+     * under its epoch. Must be called with the write lock held.
+     */
+    private void publish(RingSnapshot next, List<RingChanges.NodeChange> changes) {
+        snapshot = next;
+        changeLog.append(next.epoch(), changes);
+        notifyListeners(next);
+    }
+
+    private void notifyListeners(RingSnapshot next) {
+        for (Consumer<RingSnapshot> listener : snapshotListeners) {
+            listener.accept(next);
         }
     }
 
+    int getVirtualNodesPerPhysicalNode() {
+        return virtualNodesPerPhysicalNode;
+    }
+
+    String getVirtualNodeSuffix() {
+        return virtualNodeSuffix;
+    }
+
+    /**
+     * Gets the currently published snapshot.
+     *
+     * @return The current snapshot
+     */
+    RingSnapshot snapshot() {
+        return snapshot;
+    }
+
     /**
      * Computes the hash value for a given key using MurmurHash3.
      * 
@@ -288,23 +1174,70 @@ public class ConsistentHashRing {
      * @return The hash value
      */
     private long hash(String key) {
-        return Hashing.murmur3_128()
-                .hashString(key, StandardCharsets.UTF_8)
-                .asLong();
+        return KeyHasher.hash(key);
+    }
+
+    /**
+     * Marks the slots a walk has visited by stamping them with the walk's
+     * number, so the array is reused across walks without clearing.
+     */
+    private static final class WalkScratch {
+        int[] stamps = new int[0];
+        int stamp;
+
+        int next(int slotCount) {
+            if (stamps.length < slotCount) {
+                stamps = new int[slotCount];
+                stamp = 0;
+            }
+            if (++stamp == 0) {
+                Arrays.fill(stamps, 0);
+                stamp = 1;
+            }
+            return stamp;
+        }
     }
 
     /**
-     * Represents a physical node in the distributed system.
+     * Represents a physical node in the distributed system. A node may carry a
+     * zone label naming its failure domain, such as an availability zone or
+     * a rack; unlabelled nodes all count as one domain.
      */
     public static class Node {
         private final String id;
         private final String address;
         private final long createdAt;
+        private final double weight;
+        private final String zone;
 
         public Node(String id, String address) {
+            this(id, address, 1.0);
+        }
+
+        public Node(String id, String address, double weight) {
+            this(id, address, weight, null);
+        }
+
+        public Node(String id, String address, double weight, String zone) {
+            this(id, address, System.currentTimeMillis(), weight, zone);
+        }
+
+        Node(String id, String address, long createdAt, double weight, String zone) {
             this.id = id;
             this.address = address;
-            this.createdAt = System.currentTimeMillis();
+            this.createdAt = createdAt;
+            this.weight = weight;
+            this.zone = zone;
+        }
+
+        /**
+         * Creates a copy of this node with a different weight.
+         *
+         * @param weight The new weight
+         * @return The re-weighted node
+         */
+        public Node withWeight(double weight) {
+            return new Node(id, address, createdAt, weight, zone);
         }
 
         public String getId() {
@@ -319,6 +1252,19 @@ public class ConsistentHashRing {
             return createdAt;
         }
 
+        public double getWeight() {
+            return weight;
+        }
+
+        /**
+         * Gets the failure domain label of this node.
+         *
+         * @return The zone, or null if the node is unlabelled
+         */
+        public String getZone() {
+            return zone;
+        }
+
         @Override
         public boolean equals(Object o) {
             if (this == o)
@@ -336,33 +1282,8 @@ public class ConsistentHashRing {
 
         @Override
         public String toString() {
-            return "Node{id='" + id + "', address='" + address + "'}";
-        }
-    }
-
-    /**
-     * Represents a virtual node in the hash ring.
-     */
-    private static class VirtualNode {
-        private final String id;
-        private final Node physicalNode;
-
-        public VirtualNode(String id, Node physicalNode) {
-            this.id = id;
-            this.physicalNode = physicalNode;
-        }
-
-        public String getId() {
-            return id;
-        }
-
-        public Node getPhysicalNode() {
-            return physicalNode;
-        }
-
-        @Override
-        public String toString() {
-            return "VirtualNode{id='" + id + "', physicalNode=" + physicalNode.getId() + "}";
+            return "Node{id='" + id + "', address='" + address + "'"
+                    + (zone == null ? "" : ", zone='" + zone + "'") + "}";
         }
     }
 
@@ -374,13 +1295,29 @@ public class ConsistentHashRing {
         private final int virtualNodeCount;
         private final int virtualNodesPerPhysicalNode;
         private final Map<String, Integer> nodeDistribution;
+        private final Map<String, Double> expectedOwnership;
+        private final Map<String, Double> actualOwnership;
 
         public HashRingStats(int physicalNodeCount, int virtualNodeCount,
                 int virtualNodesPerPhysicalNode, Map<String, Integer> nodeDistribution) {
+            this(physicalNodeCount, virtualNodeCount, virtualNodesPerPhysicalNode, nodeDistribution,
+                    Collections.emptyMap(), Collections.emptyMap());
+        }
+
+        /**
+         * @param expectedOwnership Share of the key space each node should own,
+         *                          by weight
+         * @param actualOwnership   Share of the key space each node owns
+         */
+        public HashRingStats(int physicalNodeCount, int virtualNodeCount,
+                int virtualNodesPerPhysicalNode, Map<String, Integer> nodeDistribution,
+                Map<String, Double> expectedOwnership, Map<String, Double> actualOwnership) {
             this.physicalNodeCount = physicalNodeCount;
             this.virtualNodeCount = virtualNodeCount;
             this.virtualNodesPerPhysicalNode = virtualNodesPerPhysicalNode;
             this.nodeDistribution = new HashMap<>(nodeDistribution);
+            this.expectedOwnership = new HashMap<>(expectedOwnership);
+            this.actualOwnership = new HashMap<>(actualOwnership);
         }
 
         public int getPhysicalNodeCount() {
@@ -399,6 +1336,14 @@ public class ConsistentHashRing {
             return new HashMap<>(nodeDistribution);
         }
 
+        public Map<String, Double> getExpectedOwnership() {
+            return new HashMap<>(expectedOwnership);
+        }
+
+        public Map<String, Double> getActualOwnership() {
+            return new HashMap<>(actualOwnership);
+        }
+
         @Override
         public String toString() {
             return String.format("HashRingStats{physicalNodes=%d, virtualNodes=%d, distribution=%s}",
@@ -0,0 +1,181 @@
+package com.example.consistenthashing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Configuration for the consistent hashing module.
+ * Selects and sizes the placement engine used by the service.
+ */
+@Configuration
+public class ConsistentHashingConfig {
+    private static final Logger logger = LoggerFactory.getLogger(ConsistentHashingConfig.class);
+
+    @Value("${consistent-hashing.engine:ring}")
+    private String engine;
+
+    @Value("${consistent-hashing.ring.virtual-nodes:150}")
+    private int virtualNodesPerPhysicalNode;
+
+    @Value("${consistent-hashing.ring.max-replicas:3}")
+    private int maxReplicas;
+
+    @Value("${consistent-hashing.ring.load-balance-factor:-1}")
+    private double loadBalanceFactor;
+
+    @Value("${consistent-hashing.ring.lookup-memo-size:0}")
+    private int lookupMemoSize;
+
+    @Value("${consistent-hashing.ring.zone-aware-replicas:false}")
+    private boolean zoneAwareReplicas;
+
+    @Value("${consistent-hashing.ring.snapshot-path:}")
+    private String ringSnapshotPath;
+
+    @Value("${consistent-hashing.maglev.table-size:65537}")
+    private int maglevTableSize;
+
+    @Value("${consistent-hashing.anchor.capacity:1024}")
+    private int anchorCapacity;
+
+    @Value("${consistent-hashing.cache.maximum-size:100000}")
+    private long cacheMaximumSize;
+
+    @Value("${consistent-hashing.cache.maximum-weight-bytes:0}")
+    private long cacheMaximumWeightBytes;
+
+    @Value("${consistent-hashing.cache.default-ttl:10m}")
+    private Duration cacheDefaultTtl;
+
+    @Value("${consistent-hashing.cache.migration-batch-size:1000}")
+    private int migrationBatchSize;
+
+    @Value("${consistent-hashing.tcp.host:0.0.0.0}")
+    private String tcpHost;
+
+    @Value("${consistent-hashing.tcp.port:0}")
+    private int tcpPort;
+
+    @Value("${consistent-hashing.async.mode:platform}")
+    private String asyncMode;
+
+    @Value("${consistent-hashing.async.platform-threads:0}")
+    private int asyncPlatformThreads;
+
+    @Value("${consistent-hashing.async.batch-chunk-size:256}")
+    private int asyncBatchChunkSize;
+
+    @Value("${consistent-hashing.async.max-concurrency:0}")
+    private int asyncMaxConcurrency;
+
+    @Value("${consistent-hashing.traffic.sketch-depth:4}")
+    private int sketchDepth;
+
+    @Value("${consistent-hashing.traffic.sketch-width:2048}")
+    private int sketchWidth;
+
+    @Value("${consistent-hashing.traffic.top-k:20}")
+    private int topK;
+
+    /**
+     * Creates the ring snapshot file store when
+     * {@code consistent-hashing.ring.snapshot-path} is set.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "consistent-hashing.ring.snapshot-path")
+    public RingSnapshotStore ringSnapshotStore() {
+        return new RingSnapshotStore(Path.of(ringSnapshotPath));
+    }
+
+    /**
+     * Creates the placement engine selected for this deployment. A ring is
+     * restored from its snapshot file when one is configured, and its lookup
+     * memo metrics are published when a registry is available.
+     */
+    @Bean
+    public PlacementEngine placementEngine(ObjectProvider<MeterRegistry> meterRegistry,
+            ObjectProvider<RingSnapshotStore> snapshotStore) {
+        PlacementEngineType type = PlacementEngineType.fromName(engine);
+        logger.info("Using {} placement engine", type.name().toLowerCase());
+        PlacementEngine placementEngine = type.create(virtualNodesPerPhysicalNode, maxReplicas, loadBalanceFactor,
+                lookupMemoSize, zoneAwareReplicas, maglevTableSize, anchorCapacity);
+        if (placementEngine instanceof ConsistentHashRing ring) {
+            ring.getLookupMemo().ifPresent(memo -> meterRegistry.ifAvailable(memo::bindTo));
+            snapshotStore.ifAvailable(store -> store.attach(ring));
+        }
+        return placementEngine;
+    }
+
+    /**
+     * Creates the bounded in-process cache behind the service's cache API,
+     * unless {@code consistent-hashing.cache.mode=sharded} replaces it.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "consistent-hashing.cache.mode", havingValue = "local", matchIfMissing = true)
+    public LocalCache localCache() {
+        logger.info("Using local cache bounded by {}, default TTL {}",
+                cacheMaximumWeightBytes > 0 ? cacheMaximumWeightBytes + " bytes" : cacheMaximumSize + " entries",
+                cacheDefaultTtl);
+        return new LocalCache(cacheMaximumSize, cacheMaximumWeightBytes, cacheDefaultTtl);
+    }
+
+    /**
+     * Creates the ring-partitioned store used instead of the local cache when
+     * {@code consistent-hashing.cache.mode=sharded}.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "consistent-hashing.cache.mode", havingValue = "sharded")
+    public ShardedStore shardedStore(PlacementEngine placementEngine) {
+        if (!(placementEngine instanceof ConsistentHashRing ring)) {
+            throw new IllegalStateException(
+                    "Sharded cache mode requires the ring placement engine, not " + placementEngine.getName());
+        }
+        logger.info("Using sharded cache store bounded by {}, migrating {} keys per batch",
+                cacheMaximumWeightBytes > 0 ? cacheMaximumWeightBytes + " bytes" : cacheMaximumSize + " entries",
+                migrationBatchSize);
+        return new ShardedStore(ring, migrationBatchSize, cacheDefaultTtl, cacheMaximumSize,
+                cacheMaximumWeightBytes);
+    }
+
+    /**
+     * Starts the binary TCP lookup server next to the HTTP API when
+     * {@code consistent-hashing.tcp.port} is set.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "consistent-hashing.tcp.port")
+    public LookupServer lookupServer(PlacementEngine placementEngine) {
+        return new LookupServer(placementEngine, new InetSocketAddress(tcpHost, tcpPort), maxReplicas).start();
+    }
+
+    /**
+     * Creates the executor behind the service's asynchronous lookups, on
+     * platform threads unless {@code consistent-hashing.async.mode} opts in to
+     * virtual threads, which need a Java 21+ runtime.
+     */
+    @Bean
+    public LookupExecutor lookupExecutor() {
+        LookupExecutor executor = new LookupExecutor(LookupExecutor.Mode.fromName(asyncMode), asyncPlatformThreads,
+                asyncBatchChunkSize, asyncMaxConcurrency);
+        logger.info("Running async lookups on {} threads", executor.getMode().name().toLowerCase());
+        return executor;
+    }
+
+    /**
+     * Creates the lookup traffic telemetry, publishing to Micrometer when a
+     * registry is available.
+     */
+    @Bean
+    public TrafficStats trafficStats(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new TrafficStats(sketchDepth, sketchWidth, topK, meterRegistry.getIfAvailable());
+    }
+}
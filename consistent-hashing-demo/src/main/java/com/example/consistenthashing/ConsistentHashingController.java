@@ -8,9 +8,15 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import java.time.Duration;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -26,20 +32,61 @@ import java.util.concurrent.CompletableFuture;
 public class ConsistentHashingController {
     private static final Logger logger = LoggerFactory.getLogger(ConsistentHashingController.class);
 
+    /**
+     * Longest long-poll wait for ring changes; below the MVC async request timeout.
+     */
+    private static final int MAX_RING_CHANGES_WAIT_SECONDS = 55;
+
+    /**
+     * Most keys a batch lookup may carry; the same bound the TCP lookup server
+     * puts on a single LOOKUP.
+     */
+    static final int MAX_BATCH_LOOKUP_KEYS = LookupServer.MAX_LOOKUP_RESULTS;
+
     private final ConsistentHashingService service;
 
     // Request and Response DTOs
-    public record AddNodeRequest(@NotBlank String nodeId, @NotBlank String nodeAddress) {
+    public record AddNodeRequest(@NotBlank String nodeId, @NotBlank String nodeAddress, @Positive Double weight,
+            String zone) {
+    }
+
+    public record MembershipBatchRequest(List<@Valid AddNodeRequest> add, List<@NotBlank String> remove) {
+    }
+
+    public record UpdateWeightRequest(@NotNull @Positive Double weight) {
     }
 
-    public record NodeResponse(String id, String address, long createdAt) {
+    public enum MembershipChange {
+        ADD, REMOVE, FAIL, UPDATE_WEIGHT
+    }
+
+    public record RebalancePlanRequest(@NotNull MembershipChange change, @NotBlank String nodeId,
+            String nodeAddress, @Positive Double weight) {
+    }
+
+    public record NodeResponse(String id, String address, long createdAt, String zone) {
+    }
+
+    public record BatchLookupRequest(@NotEmpty @Size(max = MAX_BATCH_LOOKUP_KEYS) List<@NotBlank String> keys) {
     }
 
     public record StatsResponse(int physicalNodeCount, int virtualNodeCount,
-            int virtualNodesPerPhysicalNode, Map<String, Integer> nodeDistribution) {
+            int virtualNodesPerPhysicalNode, Map<String, Integer> nodeDistribution,
+            Map<String, Double> expectedOwnership, Map<String, Double> actualOwnership) {
+    }
+
+    public record LoadResponse(boolean boundedLoad, long capacity, Map<String, Long> loads) {
+    }
+
+    public record LookupMemoResponse(boolean enabled, long epoch, int capacity, long hitCount, long missCount,
+            double hitRate) {
     }
 
-    public record CacheRequest(@NotBlank String key, @NotNull Object value) {
+    public record TrafficResponse(long totalRequests, Map<String, Long> nodeRequests, double skew,
+            List<TrafficStats.HotKey> hotKeys) {
+    }
+
+    public record CacheRequest(@NotBlank String key, @NotNull Object value, @Positive Long ttlSeconds) {
     }
 
     public record HealthResponse(String status, long totalRequests, int nodeCount, long timestamp) {
@@ -59,7 +106,15 @@ public class ConsistentHashingController {
     public ResponseEntity<ApiResponse<Boolean>> addNode(@Valid @RequestBody AddNodeRequest request) {
         try {
             logger.info("Adding node: {} at {}", request.nodeId(), request.nodeAddress());
-            boolean success = service.addNode(request.nodeId(), request.nodeAddress());
+            boolean success;
+            if (request.zone() != null) {
+                success = service.addNode(request.nodeId(), request.nodeAddress(),
+                        request.weight() == null ? 1.0 : request.weight(), request.zone());
+            } else if (request.weight() != null) {
+                success = service.addNode(request.nodeId(), request.nodeAddress(), request.weight());
+            } else {
+                success = service.addNode(request.nodeId(), request.nodeAddress());
+            }
 
             if (success) {
                 return ResponseEntity.ok(ApiResponse.success(success, "Node added successfully"));
@@ -67,6 +122,9 @@ public class ConsistentHashingController {
                 return ResponseEntity.badRequest()
                         .body(ApiResponse.error("Node already exists", false));
             }
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage(), false));
         } catch (Exception e) {
             logger.error("Error adding node: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -99,6 +157,75 @@ public class ConsistentHashingController {
         }
     }
 
+    /**
+     * Adds and removes a set of nodes as one membership change, so the ring is
+     * rebuilt once for the whole batch. Removals take effect first.
+     * 
+     * @param request Nodes to add and node IDs to remove
+     * @return Per-node outcome
+     */
+    @PostMapping("/nodes/batch")
+    public ResponseEntity<ApiResponse<MembershipBatch.Result>> applyMembershipBatch(
+            @Valid @RequestBody MembershipBatchRequest request) {
+        try {
+            MembershipBatch batch = new MembershipBatch();
+            if (request.remove() != null) {
+                request.remove().forEach(batch::remove);
+            }
+            if (request.add() != null) {
+                for (AddNodeRequest node : request.add()) {
+                    batch.add(node.nodeId(), node.nodeAddress(), node.weight() == null ? 1.0 : node.weight(),
+                            node.zone());
+                }
+            }
+            if (batch.isEmpty()) {
+                return ResponseEntity.badRequest()
+                        .body(ApiResponse.error("Batch has no nodes to add or remove", null));
+            }
+
+            logger.info("Applying membership {}", batch.describe());
+            MembershipBatch.Result result = service.applyMembershipBatch(batch);
+            return ResponseEntity.ok(ApiResponse.success(result,
+                    result.changed() ? "Membership batch applied" : "Membership batch changed nothing"));
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage(), null));
+        } catch (Exception e) {
+            logger.error("Error applying membership batch: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to apply membership batch: " + e.getMessage(), null));
+        }
+    }
+
+    /**
+     * Changes the relative capacity of a node.
+     * 
+     * @param nodeId  ID of the node
+     * @param request New weight
+     * @return Response indicating success or failure
+     */
+    @PutMapping("/nodes/{nodeId}/weight")
+    public ResponseEntity<ApiResponse<Boolean>> updateWeight(@PathVariable @NotBlank String nodeId,
+            @Valid @RequestBody UpdateWeightRequest request) {
+        try {
+            logger.info("Updating weight of node {} to {}", nodeId, request.weight());
+            boolean success = service.updateWeight(nodeId, request.weight());
+
+            if (success) {
+                return ResponseEntity.ok(ApiResponse.success(success, "Node weight updated successfully"));
+            } else {
+                return ResponseEntity.notFound().build();
+            }
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage(), false));
+        } catch (Exception e) {
+            logger.error("Error updating node weight: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to update node weight: " + e.getMessage(), false));
+        }
+    }
+
     /**
      * Gets the node responsible for a given key.
      * 
@@ -115,7 +242,7 @@ public class ConsistentHashingController {
                 NodeResponse response = new NodeResponse(
                         node.getId(),
                         node.getAddress(),
-                        node.getCreatedAt());
+                        node.getCreatedAt(), node.getZone());
                 return ResponseEntity.ok(ApiResponse.success(response, "Node found"));
             } else {
                 return ResponseEntity.notFound()
@@ -133,18 +260,22 @@ public class ConsistentHashingController {
      * 
      * @param key   The key to lookup
      * @param count Number of nodes to return (default: 3)
+     * @param zone  Caller's zone; when given, replicas in it are listed first
      * @return List of responsible nodes
      */
     @GetMapping("/lookup/{key}/replicas")
     public ResponseEntity<ApiResponse<List<NodeResponse>>> getNodesForKey(
             @PathVariable @NotBlank String key,
-            @RequestParam(defaultValue = "3") @Positive int count) {
+            @RequestParam(defaultValue = "3") @Positive int count,
+            @RequestParam(required = false) String zone) {
         try {
             logger.debug("Looking up {} nodes for key: {}", count, key);
-            List<ConsistentHashRing.Node> nodes = service.getNodesForKey(key, count);
+            List<ConsistentHashRing.Node> nodes = zone == null
+                    ? service.getNodesForKey(key, count)
+                    : service.getNodesForKey(key, count, zone);
 
             List<NodeResponse> response = nodes.stream()
-                    .map(node -> new NodeResponse(node.getId(), node.getAddress(), node.getCreatedAt()))
+                    .map(node -> new NodeResponse(node.getId(), node.getAddress(), node.getCreatedAt(), node.getZone()))
                     .toList();
 
             return ResponseEntity.ok(ApiResponse.success(response, "Nodes found"));
@@ -155,6 +286,82 @@ public class ConsistentHashingController {
         }
     }
 
+    /**
+     * Assigns a key to a node and counts it against that node's load.
+     * 
+     * @param key The key to assign
+     * @return The node the key was assigned to
+     */
+    @PostMapping("/assign/{key}")
+    public ResponseEntity<ApiResponse<NodeResponse>> assignKey(@PathVariable @NotBlank String key) {
+        try {
+            ConsistentHashRing.Node node = service.assignKey(key);
+
+            if (node != null) {
+                NodeResponse response = new NodeResponse(node.getId(), node.getAddress(), node.getCreatedAt(), node.getZone());
+                return ResponseEntity.ok(ApiResponse.success(response, "Key assigned"));
+            } else {
+                return ResponseEntity.notFound().build();
+            }
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage(), null));
+        } catch (Exception e) {
+            logger.error("Error assigning key {}: {}", key, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to assign key: " + e.getMessage(), null));
+        }
+    }
+
+    /**
+     * Releases one key previously assigned to a node.
+     * 
+     * @param nodeId The node the key was assigned to
+     * @return Response indicating success or failure
+     */
+    @PostMapping("/nodes/{nodeId}/release")
+    public ResponseEntity<ApiResponse<Boolean>> releaseKey(@PathVariable @NotBlank String nodeId) {
+        try {
+            boolean success = service.releaseKey(nodeId);
+
+            if (success) {
+                return ResponseEntity.ok(ApiResponse.success(success, "Key released"));
+            } else {
+                return ResponseEntity.notFound().build();
+            }
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage(), false));
+        } catch (Exception e) {
+            logger.error("Error releasing key on node {}: {}", nodeId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to release key: " + e.getMessage(), false));
+        }
+    }
+
+    /**
+     * Gets the live load of every node and the current bounded-load capacity.
+     * 
+     * @return Per-node loads
+     */
+    @GetMapping("/loads")
+    public ResponseEntity<ApiResponse<LoadResponse>> getLoads() {
+        try {
+            LoadResponse response = new LoadResponse(
+                    service.isBoundedLoad(),
+                    service.getNodeCapacity(),
+                    service.getNodeLoads());
+            return ResponseEntity.ok(ApiResponse.success(response, "Loads retrieved successfully"));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage(), null));
+        } catch (Exception e) {
+            logger.error("Error getting loads: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to get loads: " + e.getMessage(), null));
+        }
+    }
+
     /**
      * Asynchronously gets the node responsible for a given key.
      * 
@@ -170,7 +377,7 @@ public class ConsistentHashingController {
                         NodeResponse response = new NodeResponse(
                                 node.getId(),
                                 node.getAddress(),
-                                node.getCreatedAt());
+                                node.getCreatedAt(), node.getZone());
                         return ResponseEntity.ok(ApiResponse.success(response, "Node found"));
                     } else {
                         return ResponseEntity.notFound().<ApiResponse<NodeResponse>>build();
@@ -183,6 +390,35 @@ public class ConsistentHashingController {
                 });
     }
 
+    /**
+     * Asynchronously gets the nodes responsible for a batch of keys. The keys
+     * are looked up in chunks with bounded concurrency, off the request thread.
+     * 
+     * @param request The keys to lookup
+     * @return CompletableFuture containing the responsible node per key; keys
+     *         without a node are left out
+     */
+    @PostMapping("/lookup/batch")
+    public CompletableFuture<ResponseEntity<ApiResponse<Map<String, NodeResponse>>>> getNodesForKeysAsync(
+            @Valid @RequestBody BatchLookupRequest request) {
+        return service.getNodesForKeysAsync(request.keys())
+                .thenApply(nodes -> {
+                    Map<String, NodeResponse> response = new LinkedHashMap<>();
+                    nodes.forEach((key, node) -> response.put(key, new NodeResponse(
+                            node.getId(),
+                            node.getAddress(),
+                            node.getCreatedAt(), node.getZone())));
+                    return ResponseEntity.ok(ApiResponse.success(response,
+                            response.size() + " of " + request.keys().size() + " keys mapped"));
+                })
+                .exceptionally(throwable -> {
+                    logger.error("Error in batch lookup of {} keys: {}", request.keys().size(),
+                            throwable.getMessage(), throwable);
+                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                            .body(ApiResponse.error("Failed to lookup nodes: " + throwable.getMessage(), null));
+                });
+    }
+
     /**
      * Gets all nodes in the hash ring.
      * 
@@ -193,7 +429,7 @@ public class ConsistentHashingController {
         try {
             List<ConsistentHashRing.Node> nodes = service.getAllNodes();
             List<NodeResponse> response = nodes.stream()
-                    .map(node -> new NodeResponse(node.getId(), node.getAddress(), node.getCreatedAt()))
+                    .map(node -> new NodeResponse(node.getId(), node.getAddress(), node.getCreatedAt(), node.getZone()))
                     .toList();
 
             return ResponseEntity.ok(ApiResponse.success(response, "Nodes retrieved successfully"));
@@ -217,7 +453,9 @@ public class ConsistentHashingController {
                     stats.getPhysicalNodeCount(),
                     stats.getVirtualNodeCount(),
                     stats.getVirtualNodesPerPhysicalNode(),
-                    stats.getNodeDistribution());
+                    stats.getNodeDistribution(),
+                    stats.getExpectedOwnership(),
+                    stats.getActualOwnership());
 
             return ResponseEntity.ok(ApiResponse.success(response, "Statistics retrieved successfully"));
         } catch (Exception e) {
@@ -227,6 +465,164 @@ public class ConsistentHashingController {
         }
     }
 
+    /**
+     * Compares lookup latency, memory footprint and key movement of every
+     * placement engine on a synthetic cluster.
+     * 
+     * @param nodes Number of nodes in the synthetic cluster (default: 50, at most 1023)
+     * @param keys  Number of sample keys (default: 100000, at most 1000000)
+     * @return One result per engine
+     */
+    @GetMapping("/engines/compare")
+    public ResponseEntity<ApiResponse<List<PlacementEngineComparison.EngineResult>>> compareEngines(
+            @RequestParam(defaultValue = "50") @Positive @Max(PlacementEngineComparison.MAX_NODES) int nodes,
+            @RequestParam(defaultValue = "100000") @Positive @Max(PlacementEngineComparison.MAX_SAMPLE_KEYS) int keys) {
+        try {
+            logger.info("Comparing placement engines with {} nodes and {} keys", nodes, keys);
+            List<PlacementEngineComparison.EngineResult> results = service.compareEngines(nodes, keys);
+            return ResponseEntity.ok(ApiResponse.success(results,
+                    "Engine comparison completed (active engine: " + service.getEngineName() + ")"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage(), null));
+        } catch (Exception e) {
+            logger.error("Error comparing engines: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to compare engines: " + e.getMessage(), null));
+        }
+    }
+
+    /**
+     * Gets live lookup traffic: requests served per node, the load skew and
+     * the hottest keys.
+     * 
+     * @return Traffic statistics
+     */
+    @GetMapping("/stats/traffic")
+    public ResponseEntity<ApiResponse<TrafficResponse>> getTrafficStats() {
+        try {
+            TrafficStats traffic = service.getTrafficStats();
+            TrafficResponse response = new TrafficResponse(
+                    service.getTotalRequests(),
+                    traffic.getNodeRequests(),
+                    traffic.getSkew(),
+                    traffic.getHotKeys());
+            return ResponseEntity.ok(ApiResponse.success(response, "Traffic statistics retrieved successfully"));
+        } catch (Exception e) {
+            logger.error("Error getting traffic stats: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to get traffic stats: " + e.getMessage(), null));
+        }
+    }
+
+    /**
+     * Gets the ring lookup memo's hit and miss counts, to judge whether
+     * memoization pays off for the current traffic.
+     * 
+     * @return Memo statistics
+     */
+    @GetMapping("/stats/memo")
+    public ResponseEntity<ApiResponse<LookupMemoResponse>> getLookupMemoStats() {
+        try {
+            long epoch = service.getRingEpoch();
+            LookupMemoResponse response = service.getLookupMemo()
+                    .map(memo -> new LookupMemoResponse(true, epoch, memo.capacity(), memo.hitCount(),
+                            memo.missCount(), memo.hitRate()))
+                    .orElse(new LookupMemoResponse(false, epoch, 0, 0, 0, 0));
+            return ResponseEntity.ok(ApiResponse.success(response, "Lookup memo statistics retrieved successfully"));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage(), null));
+        } catch (Exception e) {
+            logger.error("Error getting lookup memo stats: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to get lookup memo stats: " + e.getMessage(), null));
+        }
+    }
+
+    /**
+     * Gets the full ring membership, from which a client can rebuild the ring
+     * and route keys without calling the lookup endpoints.
+     * 
+     * @return The membership at the current version
+     */
+    @GetMapping("/ring")
+    public ResponseEntity<ApiResponse<RingMembership>> getRingMembership() {
+        try {
+            RingMembership membership = service.getRingMembership();
+            return ResponseEntity.ok(ApiResponse.success(membership, "Ring membership retrieved successfully"));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage(), null));
+        } catch (Exception e) {
+            logger.error("Error getting ring membership: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to get ring membership: " + e.getMessage(), null));
+        }
+    }
+
+    /**
+     * Gets the ring changes after a version. With a wait, a caller that is
+     * already up to date is answered as soon as the ring changes, or with no
+     * changes once the wait is over (long polling).
+     * 
+     * @param since       Version the caller has
+     * @param waitSeconds Longest time to hold the request open (default: 0)
+     * @return The changes, or a reset if the caller must reload the membership
+     */
+    @GetMapping("/ring/changes")
+    public CompletableFuture<ResponseEntity<ApiResponse<RingChanges>>> getRingChanges(
+            @RequestParam @PositiveOrZero long since,
+            @RequestParam(defaultValue = "0") @PositiveOrZero @Max(MAX_RING_CHANGES_WAIT_SECONDS) int waitSeconds) {
+        try {
+            return service.getRingChanges(since, Duration.ofSeconds(waitSeconds))
+                    .thenApply(changes -> ResponseEntity.ok(ApiResponse.success(changes,
+                            changes.resetRequired() ? "Reload the ring membership" : "Ring changes retrieved")))
+                    .exceptionally(throwable -> {
+                        logger.error("Error getting ring changes since {}: {}", since, throwable.getMessage(),
+                                throwable);
+                        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                .body(ApiResponse.error("Failed to get ring changes: " + throwable.getMessage(),
+                                        null));
+                    });
+        } catch (IllegalStateException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage(), null)));
+        }
+    }
+
+    /**
+     * Computes the hash ranges a proposed membership change would move,
+     * without applying it.
+     * 
+     * @param request The proposed change
+     * @return The ranges that change owner
+     */
+    @PostMapping("/rebalance/plan")
+    public ResponseEntity<ApiResponse<RebalancePlan>> planRebalance(@Valid @RequestBody RebalancePlanRequest request) {
+        try {
+            double weight = request.weight() == null ? 1.0 : request.weight();
+            RebalancePlan plan = switch (request.change()) {
+                case ADD -> {
+                    if (request.nodeAddress() == null || request.nodeAddress().isBlank()) {
+                        throw new IllegalArgumentException("nodeAddress is required to plan adding a node");
+                    }
+                    yield service.planAddNode(request.nodeId(), request.nodeAddress(), weight);
+                }
+                case REMOVE, FAIL -> service.planRemoveNode(request.nodeId());
+                case UPDATE_WEIGHT -> service.planUpdateWeight(request.nodeId(), weight);
+            };
+            return ResponseEntity.ok(ApiResponse.success(plan, "Rebalance plan computed"));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage(), null));
+        } catch (Exception e) {
+            logger.error("Error planning rebalance: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to plan rebalance: " + e.getMessage(), null));
+        }
+    }
+
     /**
      * Gets cache statistics.
      * 
@@ -253,7 +649,11 @@ public class ConsistentHashingController {
     @PostMapping("/cache")
     public ResponseEntity<ApiResponse<String>> putInCache(@Valid @RequestBody CacheRequest request) {
         try {
-            service.putInCache(request.key(), request.value());
+            if (request.ttlSeconds() == null) {
+                service.putInCache(request.key(), request.value());
+            } else {
+                service.putInCache(request.key(), request.value(), Duration.ofSeconds(request.ttlSeconds()));
+            }
             return ResponseEntity.ok(ApiResponse.success("Value stored", "Value stored successfully"));
         } catch (Exception e) {
             logger.error("Error storing value in cache: {}", e.getMessage(), e);
@@ -2,30 +2,72 @@ package com.example.consistenthashing;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
 
 /**
  * Service layer for consistent hashing operations.
  * Provides business logic, caching, and async processing capabilities.
+ * Asynchronous lookups run on a {@link LookupExecutor}.
+ * <p>
+ * The cache is either a single local cache, or, in sharded mode, a
+ * {@link ShardedStore} that keeps each key on the shard of its ring owner and
+ * migrates moved ranges on every membership change.
  */
 @Service
 public class ConsistentHashingService {
     private static final Logger logger = LoggerFactory.getLogger(ConsistentHashingService.class);
 
-    private final ConsistentHashRing hashRing;
-    private final Map<String, Object> cache;
+    private final PlacementEngine placementEngine;
+    private final TrafficStats trafficStats;
+    private final LocalCache cache;
+    private final ShardedStore shardedStore;
+    private final LookupExecutor lookupExecutor;
     private final AtomicLong requestCounter;
 
     public ConsistentHashingService() {
-        this.hashRing = new ConsistentHashRing();
-        this.cache = new ConcurrentHashMap<>();
+        this(new ConsistentHashRing());
+    }
+
+    public ConsistentHashingService(PlacementEngine placementEngine) {
+        this(placementEngine, new TrafficStats(), new LocalCache());
+    }
+
+    public ConsistentHashingService(PlacementEngine placementEngine, TrafficStats trafficStats, LocalCache cache) {
+        this(placementEngine, trafficStats, cache, null);
+    }
+
+    public ConsistentHashingService(PlacementEngine placementEngine, TrafficStats trafficStats, LocalCache cache,
+            @Nullable ShardedStore shardedStore) {
+        this(placementEngine, trafficStats, cache, shardedStore, new LookupExecutor());
+    }
+
+    @Autowired
+    public ConsistentHashingService(PlacementEngine placementEngine, TrafficStats trafficStats,
+            @Nullable LocalCache cache, @Nullable ShardedStore shardedStore, LookupExecutor lookupExecutor) {
+        if (cache == null && shardedStore == null) {
+            throw new IllegalStateException("Either a local cache or a sharded store is required");
+        }
+        this.placementEngine = placementEngine;
+        this.trafficStats = trafficStats;
+        this.cache = cache;
+        this.shardedStore = shardedStore;
+        this.lookupExecutor = lookupExecutor;
         this.requestCounter = new AtomicLong(0);
 
         // Initialize with some default nodes
@@ -33,16 +75,23 @@ public class ConsistentHashingService {
     }
 
     /**
-     * Initializes the hash ring with some default nodes for demonstration.
+     * Initializes the hash ring with some default nodes for demonstration,
+     * unless the engine already has nodes, e.g. restored from a snapshot.
      */
     private void initializeDefaultNodes() {
+        if (!placementEngine.isEmpty()) {
+            logger.info("Starting {} engine with {} existing nodes",
+                    placementEngine.getName(), placementEngine.getNodeCount());
+            return;
+        }
         addNode("node-1", "192.168.1.10:8080");
         addNode("node-2", "192.168.1.11:8080");
         addNode("node-3", "192.168.1.12:8080");
         addNode("node-4", "192.168.1.13:8080");
         addNode("node-5", "192.168.1.14:8080");
 
-        logger.info("Initialized hash ring with {} default nodes", hashRing.getNodeCount());
+        logger.info("Initialized {} engine with {} default nodes",
+                placementEngine.getName(), placementEngine.getNodeCount());
     }
 
     /**
@@ -53,13 +102,68 @@ public class ConsistentHashingService {
      * @return true if the node was added successfully
      */
     public boolean addNode(String nodeId, String nodeAddress) {
-        boolean success = hashRing.addNode(nodeId, nodeAddress);
+        boolean success = changeMembership("add " + nodeId, () -> placementEngine.addNode(nodeId, nodeAddress));
         if (success) {
             logger.info("Successfully added node: {} at {}", nodeId, nodeAddress);
         }
         return success;
     }
 
+    /**
+     * Adds a new node to the hash ring with a relative capacity.
+     * 
+     * @param nodeId      Unique identifier for the node
+     * @param nodeAddress Network address of the node
+     * @param weight      Relative capacity of the node; 1.0 is the default
+     * @return true if the node was added successfully
+     * @throws UnsupportedOperationException if the engine does not support weights
+     */
+    public boolean addNode(String nodeId, String nodeAddress, double weight) {
+        boolean success = changeMembership("add " + nodeId,
+                () -> placementEngine.addNode(nodeId, nodeAddress, weight));
+        if (success) {
+            logger.info("Successfully added node: {} at {} with weight {}", nodeId, nodeAddress, weight);
+        }
+        return success;
+    }
+
+    /**
+     * Adds a new node to the hash ring in a failure domain.
+     * 
+     * @param nodeId      Unique identifier for the node
+     * @param nodeAddress Network address of the node
+     * @param weight      Relative capacity of the node; 1.0 is the default
+     * @param zone        Zone or rack of the node
+     * @return true if the node was added successfully
+     * @throws UnsupportedOperationException if the engine does not support weights or zones
+     */
+    public boolean addNode(String nodeId, String nodeAddress, double weight, String zone) {
+        boolean success = changeMembership("add " + nodeId,
+                () -> placementEngine.addNode(nodeId, nodeAddress, weight, zone));
+        if (success) {
+            logger.info("Successfully added node: {} at {} in zone {} with weight {}", nodeId, nodeAddress, zone,
+                    weight);
+        }
+        return success;
+    }
+
+    /**
+     * Changes the relative capacity of a node.
+     * 
+     * @param nodeId Unique identifier of the node
+     * @param weight New relative capacity of the node
+     * @return true if the weight was updated, false if the node doesn't exist
+     * @throws UnsupportedOperationException if the engine does not support weights
+     */
+    public boolean updateWeight(String nodeId, double weight) {
+        boolean success = changeMembership("reweight " + nodeId,
+                () -> placementEngine.updateWeight(nodeId, weight));
+        if (success) {
+            logger.info("Successfully updated weight of node: {} to {}", nodeId, weight);
+        }
+        return success;
+    }
+
     /**
      * Removes a node from the hash ring.
      * 
@@ -67,13 +171,24 @@ public class ConsistentHashingService {
      * @return true if the node was removed successfully
      */
     public boolean removeNode(String nodeId) {
-        boolean success = hashRing.removeNode(nodeId);
+        boolean success = changeMembership("remove " + nodeId, () -> placementEngine.removeNode(nodeId));
         if (success) {
             logger.info("Successfully removed node: {}", nodeId);
         }
         return success;
     }
 
+    /**
+     * Applies a membership change, letting the sharded store migrate the
+     * ranges it moves.
+     */
+    private boolean changeMembership(String change, BooleanSupplier mutation) {
+        if (shardedStore == null) {
+            return mutation.getAsBoolean();
+        }
+        return shardedStore.applyChange(change, mutation);
+    }
+
     /**
      * Gets the node responsible for a given key.
      * 
@@ -84,7 +199,8 @@ public class ConsistentHashingService {
         long requestId = requestCounter.incrementAndGet();
         logger.debug("Request {}: Getting node for key: {}", requestId, key);
 
-        ConsistentHashRing.Node node = hashRing.getNode(key);
+        ConsistentHashRing.Node node = placementEngine.getNode(key);
+        trafficStats.record(key, node);
         if (node != null) {
             logger.debug("Request {}: Key '{}' mapped to node: {}", requestId, key, node.getId());
         } else {
@@ -105,7 +221,9 @@ public class ConsistentHashingService {
         long requestId = requestCounter.incrementAndGet();
         logger.debug("Request {}: Getting {} nodes for key: {}", requestId, count, key);
 
-        List<ConsistentHashRing.Node> nodes = hashRing.getNodes(key, count);
+        List<ConsistentHashRing.Node> nodes = placementEngine.getNodes(key, count);
+        // Attribute the lookup to the primary replica
+        trafficStats.record(key, nodes.isEmpty() ? null : nodes.get(0));
         logger.debug("Request {}: Key '{}' mapped to {} nodes: {}",
                 requestId, key, nodes.size(),
                 nodes.stream().map(ConsistentHashRing.Node::getId).toList());
@@ -114,16 +232,222 @@ public class ConsistentHashingService {
     }
 
     /**
-     * Stores a value in the cache with the given key.
+     * Gets multiple nodes responsible for a given key, ordered for a reader
+     * in the given zone: replicas in that zone first, so reads can stay local.
+     * 
+     * @param key   The key to hash and find responsible nodes for
+     * @param count Number of nodes to return
+     * @param zone  The reader's zone
+     * @return List of physical nodes responsible for the key, nearest first
+     */
+    public List<ConsistentHashRing.Node> getNodesForKey(String key, int count, String zone) {
+        long requestId = requestCounter.incrementAndGet();
+        logger.debug("Request {}: Getting {} nodes near zone {} for key: {}", requestId, count, zone, key);
+
+        List<ConsistentHashRing.Node> nodes = placementEngine.getNodesByLocality(key, count, zone);
+        trafficStats.record(key, nodes.isEmpty() ? null : nodes.get(0));
+        return nodes;
+    }
+
+    /**
+     * Plans the hash ranges that would move if a node were added. The ring is
+     * not changed.
+     * 
+     * @param nodeId      Unique identifier for the node
+     * @param nodeAddress Network address of the node
+     * @param weight      Relative capacity of the node
+     * @return The ranges that would move
+     * @throws IllegalArgumentException if the node already exists
+     * @throws IllegalStateException    if the placement engine cannot plan moves
+     */
+    public RebalancePlan planAddNode(String nodeId, String nodeAddress, double weight) {
+        return logPlan(requireRing("Rebalance planning").planAddNode(nodeId, nodeAddress, weight));
+    }
+
+    /**
+     * Plans the hash ranges that would move if a node were removed or failed.
+     * The ring is not changed.
+     * 
+     * @param nodeId Unique identifier of the node
+     * @return The ranges that would move
+     * @throws IllegalArgumentException if the node doesn't exist
+     * @throws IllegalStateException    if the placement engine cannot plan moves
+     */
+    public RebalancePlan planRemoveNode(String nodeId) {
+        return logPlan(requireRing("Rebalance planning").planRemoveNode(nodeId));
+    }
+
+    /**
+     * Plans the hash ranges that would move if a node's weight changed. The
+     * ring is not changed.
+     * 
+     * @param nodeId Unique identifier of the node
+     * @param weight Proposed relative capacity of the node
+     * @return The ranges that would move
+     * @throws IllegalArgumentException if the node doesn't exist
+     * @throws IllegalStateException    if the placement engine cannot plan moves
+     */
+    public RebalancePlan planUpdateWeight(String nodeId, double weight) {
+        return logPlan(requireRing("Rebalance planning").planUpdateWeight(nodeId, weight));
+    }
+
+    private RebalancePlan logPlan(RebalancePlan plan) {
+        logger.info("Planned '{}': {} ranges covering {}% of the hash space move",
+                plan.change(), plan.moves().size(), String.format("%.2f", plan.movedFraction() * 100));
+        return plan;
+    }
+
+    /**
+     * Assigns a key to a node under the ring's load accounting. With
+     * bounded-load mode enabled, keys overflow from full nodes to the next
+     * node clockwise.
+     * 
+     * @param key The key to assign
+     * @return The node the key was assigned to, or null if no nodes exist
+     * @throws IllegalStateException if the placement engine does not track load
+     */
+    public ConsistentHashRing.Node assignKey(String key) {
+        long requestId = requestCounter.incrementAndGet();
+        ConsistentHashRing.Node node = requireRing("Load tracking").assign(key);
+        if (node != null) {
+            logger.debug("Request {}: Key '{}' assigned to node: {}", requestId, key, node.getId());
+        } else {
+            logger.warn("Request {}: No node available to assign key: {}", requestId, key);
+        }
+        return node;
+    }
+
+    /**
+     * Releases one key previously assigned to a node.
+     * 
+     * @param nodeId The node the key was assigned to
+     * @return true if the load was released, false if the node is unknown
+     * @throws IllegalStateException if the placement engine does not track load
+     */
+    public boolean releaseKey(String nodeId) {
+        return requireRing("Load tracking").release(nodeId);
+    }
+
+    /**
+     * Gets the number of assigned keys per node.
+     * 
+     * @return Map of node ID to load
+     * @throws IllegalStateException if the placement engine does not track load
+     */
+    public Map<String, Long> getNodeLoads() {
+        return requireRing("Load tracking").getLoads();
+    }
+
+    /**
+     * Gets the current per-node capacity of bounded-load mode.
+     * 
+     * @return The capacity, or {@link Long#MAX_VALUE} when the load is unbounded
+     * @throws IllegalStateException if the placement engine does not track load
+     */
+    public long getNodeCapacity() {
+        return requireRing("Load tracking").getCapacity();
+    }
+
+    /**
+     * Checks whether bounded-load mode is enabled.
+     * 
+     * @return true if the placement engine caps per-node load
+     */
+    public boolean isBoundedLoad() {
+        return placementEngine instanceof ConsistentHashRing ring && ring.isBoundedLoad();
+    }
+
+    /**
+     * Gets the epoch of the ring layout; it increments on every membership or
+     * weight change.
+     * 
+     * @return The current epoch
+     * @throws IllegalStateException if the placement engine is not the ring
+     */
+    public long getRingEpoch() {
+        return requireRing("Ring epochs").getEpoch();
+    }
+
+    /**
+     * Gets the full ring membership for clients that route keys locally.
+     *
+     * @return The membership at the current version
+     * @throws IllegalStateException if the placement engine is not the ring
+     */
+    public RingMembership getRingMembership() {
+        return requireRing("Ring replication").getMembership();
+    }
+
+    /**
+     * Gets the ring changes after a version, waiting up to the given time for
+     * one if the caller is already up to date.
+     *
+     * @param since Version the caller has
+     * @param wait  Longest time to wait for a change; zero returns at once
+     * @return Future of the changes, empty if none happened while waiting
+     * @throws IllegalStateException if the placement engine is not the ring
+     */
+    public CompletableFuture<RingChanges> getRingChanges(long since, Duration wait) {
+        ConsistentHashRing ring = requireRing("Ring replication");
+        RingChanges changes = ring.getChangesSince(since);
+        if (!changes.isEmpty() || wait.isZero()) {
+            return CompletableFuture.completedFuture(changes);
+        }
+        return ring.awaitChangeAfter(since)
+                .completeOnTimeout(null, wait.toMillis(), TimeUnit.MILLISECONDS)
+                .thenApply(ignored -> ring.getChangesSince(since));
+    }
+
+    /**
+     * Gets the ring's key lookup memo, if enabled.
+     * 
+     * @return The memo, or empty if lookups are not memoized
+     * @throws IllegalStateException if the placement engine is not the ring
+     */
+    public Optional<LookupMemo> getLookupMemo() {
+        return requireRing("Lookup memoization").getLookupMemo();
+    }
+
+    private ConsistentHashRing requireRing(String feature) {
+        if (placementEngine instanceof ConsistentHashRing ring) {
+            return ring;
+        }
+        throw new IllegalStateException(
+                feature + " requires the ring placement engine, not " + placementEngine.getName());
+    }
+
+    /**
+     * Stores a value in the cache with the given key and the default
+     * time-to-live.
      * 
      * @param key   The cache key
      * @param value The value to store
      */
     public void putInCache(String key, Object value) {
-        cache.put(key, value);
+        if (shardedStore != null) {
+            shardedStore.put(key, value);
+        } else {
+            cache.put(key, value);
+        }
         logger.debug("Stored value in cache for key: {}", key);
     }
 
+    /**
+     * Stores a value in the cache with its own time-to-live.
+     * 
+     * @param key   The cache key
+     * @param value The value to store
+     * @param ttl   How long the entry stays readable
+     */
+    public void putInCache(String key, Object value, Duration ttl) {
+        if (shardedStore != null) {
+            shardedStore.put(key, value, ttl);
+        } else {
+            cache.put(key, value, ttl);
+        }
+        logger.debug("Stored value in cache for key: {} with TTL {}", key, ttl);
+    }
+
     /**
      * Retrieves a value from the cache.
      * 
@@ -131,7 +455,7 @@ public class ConsistentHashingService {
      * @return The cached value, or null if not found
      */
     public Object getFromCache(String key) {
-        Object value = cache.get(key);
+        Object value = shardedStore != null ? shardedStore.get(key) : cache.get(key);
         if (value != null) {
             logger.debug("Cache hit for key: {}", key);
         } else {
@@ -147,7 +471,7 @@ public class ConsistentHashingService {
      * @return The removed value, or null if not found
      */
     public Object removeFromCache(String key) {
-        Object value = cache.remove(key);
+        Object value = shardedStore != null ? shardedStore.remove(key) : cache.remove(key);
         if (value != null) {
             logger.debug("Removed value from cache for key: {}", key);
         }
@@ -160,7 +484,36 @@ public class ConsistentHashingService {
      * @return HashRingStats containing distribution information
      */
     public ConsistentHashRing.HashRingStats getStats() {
-        return hashRing.getStats();
+        return placementEngine.getStats();
+    }
+
+    /**
+     * Gets live lookup traffic telemetry: per-node request counts and hot keys.
+     * 
+     * @return The traffic statistics
+     */
+    public TrafficStats getTrafficStats() {
+        return trafficStats;
+    }
+
+    /**
+     * Gets the name of the placement engine in use.
+     * 
+     * @return Engine name
+     */
+    public String getEngineName() {
+        return placementEngine.getName();
+    }
+
+    /**
+     * Compares all placement engines on a synthetic cluster.
+     * 
+     * @param nodeCount  Number of nodes in the synthetic cluster
+     * @param sampleKeys Number of keys used for latency and key movement
+     * @return One result per engine
+     */
+    public List<PlacementEngineComparison.EngineResult> compareEngines(int nodeCount, int sampleKeys) {
+        return new PlacementEngineComparison(nodeCount, sampleKeys).run();
     }
 
     /**
@@ -169,7 +522,7 @@ public class ConsistentHashingService {
      * @return Set of all physical nodes
      */
     public List<ConsistentHashRing.Node> getAllNodes() {
-        return hashRing.getAllNodes().stream().toList();
+        return placementEngine.getAllNodes().stream().toList();
     }
 
     /**
@@ -179,8 +532,23 @@ public class ConsistentHashingService {
      */
     public Map<String, Object> getCacheStats() {
         Map<String, Object> stats = new ConcurrentHashMap<>();
-        stats.put("size", cache.size());
+        if (shardedStore != null) {
+            stats.put("mode", "sharded");
+            stats.put("size", (int) Math.min(Integer.MAX_VALUE, shardedStore.size()));
+            stats.put("totalRequests", requestCounter.get());
+            stats.putAll(shardedStore.stats());
+            return stats;
+        }
+        CacheStats cacheStats = cache.stats();
+        stats.put("mode", "local");
+        stats.put("size", (int) Math.min(Integer.MAX_VALUE, cache.size()));
         stats.put("totalRequests", requestCounter.get());
+        stats.put("hitCount", cacheStats.hitCount());
+        stats.put("missCount", cacheStats.missCount());
+        stats.put("hitRate", cacheStats.hitRate());
+        stats.put("evictionCount", cacheStats.evictionCount());
+        stats.put("evictionWeight", cacheStats.evictionWeight());
+        cache.weightedSizeBytes().ifPresent(bytes -> stats.put("weightedSizeBytes", bytes));
         return stats;
     }
 
@@ -188,78 +556,84 @@ public class ConsistentHashingService {
      * Clears the cache.
      */
     public void clearCache() {
-        int size = cache.size();
-        cache.clear();
+        long size = shardedStore != null ? shardedStore.clear() : cache.clear();
         logger.info("Cleared cache with {} entries", size);
     }
 
     /**
-     * Asynchronously processes a key lookup operation.
+     * Asynchronously processes a key lookup operation on the lookup executor.
      * 
      * @param key The key to process
      * @return CompletableFuture containing the responsible node
      */
-    @Async
     public CompletableFuture<ConsistentHashRing.Node> getNodeForKeyAsync(String key) {
-        return CompletableFuture.completedFuture(getNodeForKey(key));
+        return lookupExecutor.submit(() -> getNodeForKey(key));
     }
 
     /**
-     * Asynchronously processes multiple key lookups.
+     * Asynchronously processes multiple key lookups. The keys are looked up in
+     * chunks with bounded concurrency on the lookup executor.
      * 
      * @param keys List of keys to process
-     * @return CompletableFuture containing a map of key to node mappings
+     * @return CompletableFuture containing a map of key to node mappings, in
+     *         key order; keys without a node are left out
      */
-    @Async
     public CompletableFuture<Map<String, ConsistentHashRing.Node>> getNodesForKeysAsync(List<String> keys) {
-        Map<String, ConsistentHashRing.Node> result = new ConcurrentHashMap<>();
-
-        keys.parallelStream().forEach(key -> {
-            ConsistentHashRing.Node node = getNodeForKey(key);
-            if (node != null) {
-                result.put(key, node);
+        return lookupExecutor.map(keys, this::getNodeForKey).thenApply(nodes -> {
+            Map<String, ConsistentHashRing.Node> result = new LinkedHashMap<>();
+            for (int i = 0; i < keys.size(); i++) {
+                if (nodes.get(i) != null) {
+                    result.put(keys.get(i), nodes.get(i));
+                }
             }
+            return result;
         });
+    }
 
-        return CompletableFuture.completedFuture(result);
+    /**
+     * Applies a batch of node removals and additions as a single membership
+     * change. The ring rebuilds and publishes its layout once, and in sharded
+     * mode one migration covers the whole batch.
+     * 
+     * @param batch The changes to apply; removals take effect first
+     * @return Per-node outcome
+     * @throws IllegalArgumentException      if an added node's weight is invalid
+     * @throws UnsupportedOperationException if the engine does not support weights
+     */
+    public MembershipBatch.Result applyMembershipBatch(MembershipBatch batch) {
+        AtomicReference<MembershipBatch.Result> result = new AtomicReference<>();
+        changeMembership(batch.describe(), () -> {
+            result.set(placementEngine.applyBatch(batch));
+            return result.get().changed();
+        });
+        logger.info("Membership batch completed. Added: {}, removed: {}",
+                result.get().added(), result.get().removed());
+        return result.get();
     }
 
     /**
-     * Performs a bulk operation to add multiple nodes.
+     * Performs a bulk operation to add multiple nodes as one membership change.
      * 
      * @param nodes Map of node ID to node address
      * @return Map of node ID to success status
      */
     public Map<String, Boolean> addNodesBulk(Map<String, String> nodes) {
-        Map<String, Boolean> results = new ConcurrentHashMap<>();
-
-        nodes.entrySet().parallelStream().forEach(entry -> {
-            String nodeId = entry.getKey();
-            String nodeAddress = entry.getValue();
-            boolean success = addNode(nodeId, nodeAddress);
-            results.put(nodeId, success);
-        });
-
-        logger.info("Bulk node addition completed. Results: {}", results);
-        return results;
+        MembershipBatch batch = new MembershipBatch();
+        nodes.forEach(batch::add);
+        return applyMembershipBatch(batch).added();
     }
 
     /**
-     * Performs a bulk operation to remove multiple nodes.
+     * Performs a bulk operation to remove multiple nodes as one membership
+     * change.
      * 
      * @param nodeIds List of node IDs to remove
      * @return Map of node ID to success status
      */
     public Map<String, Boolean> removeNodesBulk(List<String> nodeIds) {
-        Map<String, Boolean> results = new ConcurrentHashMap<>();
-
-        nodeIds.parallelStream().forEach(nodeId -> {
-            boolean success = removeNode(nodeId);
-            results.put(nodeId, success);
-        });
-
-        logger.info("Bulk node removal completed. Results: {}", results);
-        return results;
+        MembershipBatch batch = new MembershipBatch();
+        nodeIds.forEach(batch::remove);
+        return applyMembershipBatch(batch).removed();
     }
 
     /**
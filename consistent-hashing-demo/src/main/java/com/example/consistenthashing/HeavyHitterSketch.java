@@ -0,0 +1,146 @@
+package com.example.consistenthashing;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded-memory heavy-hitter tracker: a count-min sketch estimates how often
+ * each key was seen, and a small candidate table keeps the top-K keys by
+ * estimate. Memory is fixed at depth &times; width counters plus K entries no
+ * matter how many distinct keys pass through.
+ * <p>
+ * Estimates never undercount and overcount by at most about
+ * e/width &times; total with high probability. Recording a key is allocation-free
+ * unless it enters or is already in the top-K table; keys below the
+ * current top-K threshold return after the counter increments.
+ */
+final class HeavyHitterSketch {
+
+    private final int depth;
+    private final int width;
+    private final int mask;
+    private final AtomicLongArray counters;
+    private final int capacity;
+    private final Map<String, Long> candidates;
+    private volatile long threshold;
+
+    /**
+     * Creates a new sketch.
+     *
+     * @param depth    Number of hash rows
+     * @param width    Counters per row; rounded up to a power of two
+     * @param capacity Number of heavy hitters to keep
+     */
+    HeavyHitterSketch(int depth, int width, int capacity) {
+        if (depth < 1 || width < 1 || capacity < 1) {
+            throw new IllegalArgumentException("Sketch depth, width and capacity must be positive");
+        }
+        this.depth = depth;
+        this.width = width == 1 ? 1 : Integer.highestOneBit(width - 1) << 1;
+        this.mask = this.width - 1;
+        this.counters = new AtomicLongArray(depth * this.width);
+        this.capacity = capacity;
+        this.candidates = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Records one occurrence of a key.
+     *
+     * @param key The key
+     * @return The key's estimated count after this occurrence
+     */
+    long add(String key) {
+        long hash = KeyHasher.hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int column = (h1 + row * h2) & mask;
+            estimate = Math.min(estimate, counters.incrementAndGet(row * width + column));
+        }
+        offer(key, estimate);
+        return estimate;
+    }
+
+    /**
+     * Gets the estimated count of a key.
+     *
+     * @param key The key
+     * @return Estimated number of occurrences
+     */
+    long estimate(String key) {
+        long hash = KeyHasher.hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(row * width + ((h1 + row * h2) & mask)));
+        }
+        return estimate;
+    }
+
+    /**
+     * Gets the current heavy hitters, most frequent first.
+     *
+     * @return Key and estimated count pairs
+     */
+    List<Map.Entry<String, Long>> topK() {
+        List<Map.Entry<String, Long>> top = new ArrayList<>(candidates.entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue()))
+                .toList());
+        top.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()));
+        return top;
+    }
+
+    /**
+     * Clears all counters and heavy hitters.
+     */
+    synchronized void reset() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+        candidates.clear();
+        threshold = 0;
+    }
+
+    private void offer(String key, long estimate) {
+        if (candidates.computeIfPresent(key, (k, current) -> Math.max(current, estimate)) != null) {
+            return;
+        }
+        // Fast path: not a heavy hitter
+        if (estimate <= threshold && candidates.size() >= capacity) {
+            return;
+        }
+
+        synchronized (this) {
+            if (candidates.size() < capacity) {
+                candidates.put(key, estimate);
+                if (candidates.size() == capacity) {
+                    threshold = smallest().getValue();
+                }
+                return;
+            }
+            Map.Entry<String, Long> smallest = smallest();
+            if (estimate > smallest.getValue()) {
+                candidates.remove(smallest.getKey());
+                candidates.put(key, estimate);
+                smallest = smallest();
+            }
+            threshold = smallest.getValue();
+        }
+    }
+
+    private Map.Entry<String, Long> smallest() {
+        Map.Entry<String, Long> smallest = null;
+        for (Map.Entry<String, Long> entry : candidates.entrySet()) {
+            if (smallest == null || entry.getValue() < smallest.getValue()) {
+                smallest = entry;
+            }
+        }
+        return smallest;
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.consistenthashing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Placement engine based on Jump consistent hash (Lamping and Veach, 2014).
+ * Keys map to bucket numbers with no lookup structure at all; the engine only
+ * keeps the bucket to node array. Jump hash assumes buckets are only added or
+ * removed at the end, so removing a node from the middle moves the last node
+ * into the freed bucket. That costs roughly 2/N key movement instead of 1/N.
+ */
+public class JumpHashEngine implements PlacementEngine {
+    private static final Logger logger = LoggerFactory.getLogger(JumpHashEngine.class);
+
+    private final List<ConsistentHashRing.Node> buckets;
+    private final Lock writeLock;
+    private volatile ConsistentHashRing.Node[] published;
+
+    public JumpHashEngine() {
+        this.buckets = new ArrayList<>();
+        this.writeLock = new ReentrantLock();
+        this.published = new ConsistentHashRing.Node[0];
+    }
+
+    @Override
+    public String getName() {
+        return "jump";
+    }
+
+    @Override
+    public boolean addNode(String nodeId, String nodeAddress) {
+        writeLock.lock();
+        try {
+            if (indexOf(nodeId) >= 0) {
+                logger.warn("Node {} already exists in the jump hash buckets", nodeId);
+                return false;
+            }
+            buckets.add(new ConsistentHashRing.Node(nodeId, nodeAddress));
+            published = buckets.toArray(new ConsistentHashRing.Node[0]);
+            logger.info("Added node {} as jump hash bucket {}", nodeId, buckets.size() - 1);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean removeNode(String nodeId) {
+        writeLock.lock();
+        try {
+            int index = indexOf(nodeId);
+            if (index < 0) {
+                logger.warn("Node {} does not exist in the jump hash buckets", nodeId);
+                return false;
+            }
+            ConsistentHashRing.Node last = buckets.remove(buckets.size() - 1);
+            if (index < buckets.size()) {
+                buckets.set(index, last);
+            }
+            published = buckets.toArray(new ConsistentHashRing.Node[0]);
+            logger.info("Removed node {} from the jump hash buckets", nodeId);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public ConsistentHashRing.Node getNode(String key) {
+        if (key == null || key.trim().isEmpty()) {
+            logger.warn("Invalid key provided: {}", key);
+            return null;
+        }
+
+        ConsistentHashRing.Node node = getNodeByHash(KeyHasher.hash(key));
+        if (node == null) {
+            logger.warn("Jump hash has no buckets, cannot find node for key: {}", key);
+            return null;
+        }
+        logger.debug("Key '{}' mapped to node: {}", key, node.getId());
+        return node;
+    }
+
+    @Override
+    public ConsistentHashRing.Node getNodeByHash(long keyHash) {
+        ConsistentHashRing.Node[] current = published;
+        if (current.length == 0) {
+            return null;
+        }
+        return current[jump(keyHash, current.length)];
+    }
+
+    /**
+     * Gets multiple distinct nodes for a key: the primary bucket followed by the
+     * next buckets in order.
+     */
+    @Override
+    public List<ConsistentHashRing.Node> getNodes(String key, int count) {
+        if (key == null || key.trim().isEmpty()) {
+            logger.warn("Invalid key provided: {}", key);
+            return Collections.emptyList();
+        }
+
+        if (published.length == 0) {
+            logger.warn("Jump hash has no buckets, cannot find nodes for key: {}", key);
+            return Collections.emptyList();
+        }
+        return getNodesByHash(KeyHasher.hash(key), count);
+    }
+
+    @Override
+    public List<ConsistentHashRing.Node> getNodesByHash(long keyHash, int count) {
+        ConsistentHashRing.Node[] current = published;
+        if (current.length == 0) {
+            return Collections.emptyList();
+        }
+
+        int wanted = Math.min(count, current.length);
+        int primary = jump(keyHash, current.length);
+        List<ConsistentHashRing.Node> nodes = new ArrayList<>(Math.max(wanted, 0));
+        for (int i = 0; i < wanted; i++) {
+            nodes.add(current[(primary + i) % current.length]);
+        }
+        return nodes;
+    }
+
+    @Override
+    public ConsistentHashRing.HashRingStats getStats() {
+        ConsistentHashRing.Node[] current = published;
+        Map<String, Integer> distribution = new HashMap<>();
+        for (ConsistentHashRing.Node node : current) {
+            distribution.put(node.getId(), 1);
+        }
+        return new ConsistentHashRing.HashRingStats(current.length, current.length, 1, distribution);
+    }
+
+    @Override
+    public Set<ConsistentHashRing.Node> getAllNodes() {
+        return new HashSet<>(Arrays.asList(published));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return published.length == 0;
+    }
+
+    @Override
+    public int getNodeCount() {
+        return published.length;
+    }
+
+    @Override
+    public long estimateMemoryBytes() {
+        return (long) published.length * 8;
+    }
+
+    /**
+     * Maps a 64-bit key onto one of the given number of buckets.
+     *
+     * @param key     The key hash
+     * @param buckets Number of buckets
+     * @return Bucket index in [0, buckets)
+     */
+    static int jump(long key, int buckets) {
+        long b = -1;
+        long j = 0;
+        while (j < buckets) {
+            b = j;
+            key = key * 2862933555777941757L + 1;
+            j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) b;
+    }
+
+    private int indexOf(String nodeId) {
+        for (int i = 0; i < buckets.size(); i++) {
+            if (buckets.get(i).getId().equals(nodeId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.consistenthashing;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Hash functions shared by the placement engines.
+ * <p>
+ * Implements the first 64 bits of MurmurHash3 x64 128 without allocating:
+ * strings are UTF-8 encoded on the fly, byte arrays are read eight bytes at a
+ * time and buffers are read with absolute gets so their position is left
+ * untouched. The results are identical to
+ * {@code Hashing.murmur3_128().hashString(key, UTF_8).asLong()}, so switching
+ * to this path does not move any keys.
+ */
+final class KeyHasher {
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private static final VarHandle LONG_LE =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private KeyHasher() {
+    }
+
+    /**
+     * Computes the 64-bit hash value for a given key using MurmurHash3 over
+     * its UTF-8 encoding.
+     *
+     * @param key The key to hash
+     * @return The hash value
+     */
+    static long hash(String key) {
+        long h1 = 0;
+        long h2 = 0;
+        long k1 = 0;
+        long k2 = 0;
+        int filled = 0;
+        long length = 0;
+
+        int chars = key.length();
+        for (int i = 0; i < chars; i++) {
+            char c = key.charAt(i);
+
+            // Encode the code point into up to four bytes, lowest byte first
+            int encoded;
+            int byteCount;
+            if (c < 0x80) {
+                encoded = c;
+                byteCount = 1;
+            } else if (c < 0x800) {
+                encoded = (0xC0 | (c >>> 6)) | ((0x80 | (c & 0x3F)) << 8);
+                byteCount = 2;
+            } else if (Character.isSurrogate(c)) {
+                char low = i + 1 < chars ? key.charAt(i + 1) : 0;
+                if (Character.isHighSurrogate(c) && Character.isLowSurrogate(low)) {
+                    int codePoint = Character.toCodePoint(c, low);
+                    encoded = (0xF0 | (codePoint >>> 18))
+                            | ((0x80 | ((codePoint >>> 12) & 0x3F)) << 8)
+                            | ((0x80 | ((codePoint >>> 6) & 0x3F)) << 16)
+                            | ((0x80 | (codePoint & 0x3F)) << 24);
+                    byteCount = 4;
+                    i++;
+                } else {
+                    // Unpaired surrogate: String.getBytes(UTF_8) substitutes '?'
+                    encoded = '?';
+                    byteCount = 1;
+                }
+            } else {
+                encoded = (0xE0 | (c >>> 12))
+                        | ((0x80 | ((c >>> 6) & 0x3F)) << 8)
+                        | ((0x80 | (c & 0x3F)) << 16);
+                byteCount = 3;
+            }
+
+            for (int b = 0; b < byteCount; b++) {
+                long value = (encoded >>> (b * 8)) & 0xFF;
+                if (filled < 8) {
+                    k1 |= value << (filled * 8);
+                } else {
+                    k2 |= value << ((filled - 8) * 8);
+                }
+                if (++filled == 16) {
+                    h1 ^= mixK1(k1);
+                    h1 = Long.rotateLeft(h1, 27);
+                    h1 += h2;
+                    h1 = h1 * 5 + 0x52dce729;
+                    h2 ^= mixK2(k2);
+                    h2 = Long.rotateLeft(h2, 31);
+                    h2 += h1;
+                    h2 = h2 * 5 + 0x38495ab5;
+                    k1 = 0;
+                    k2 = 0;
+                    filled = 0;
+                }
+            }
+            length += byteCount;
+        }
+
+        if (filled > 0) {
+            h1 ^= mixK1(k1);
+            h2 ^= mixK2(k2);
+        }
+        return finish(h1, h2, length);
+    }
+
+    /**
+     * Computes the 64-bit hash value for a binary key.
+     *
+     * @param key The key bytes
+     * @return The hash value
+     */
+    static long hash(byte[] key) {
+        return hash(key, 0, key.length);
+    }
+
+    /**
+     * Computes the 64-bit hash value for a slice of a binary key.
+     *
+     * @param key    The key bytes
+     * @param offset Start of the key within the array
+     * @param length Number of key bytes
+     * @return The hash value
+     */
+    static long hash(byte[] key, int offset, int length) {
+        long h1 = 0;
+        long h2 = 0;
+        int end = offset + length;
+        int position = offset;
+        for (; position + 16 <= end; position += 16) {
+            h1 ^= mixK1((long) LONG_LE.get(key, position));
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+            h2 ^= mixK2((long) LONG_LE.get(key, position + 8));
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        if (position < end) {
+            long k1 = 0;
+            long k2 = 0;
+            for (int i = 0; position + i < end; i++) {
+                long value = key[position + i] & 0xFFL;
+                if (i < 8) {
+                    k1 |= value << (i * 8);
+                } else {
+                    k2 |= value << ((i - 8) * 8);
+                }
+            }
+            h1 ^= mixK1(k1);
+            h2 ^= mixK2(k2);
+        }
+        return finish(h1, h2, length);
+    }
+
+    /**
+     * Computes the 64-bit hash value for the remaining bytes of a buffer. The
+     * buffer's position, limit and byte order are not modified.
+     *
+     * @param key The key buffer
+     * @return The hash value
+     */
+    static long hash(ByteBuffer key) {
+        if (key.hasArray()) {
+            return hash(key.array(), key.arrayOffset() + key.position(), key.remaining());
+        }
+
+        boolean bigEndian = key.order() == ByteOrder.BIG_ENDIAN;
+        long h1 = 0;
+        long h2 = 0;
+        int end = key.limit();
+        int position = key.position();
+        for (; position + 16 <= end; position += 16) {
+            long k1 = key.getLong(position);
+            long k2 = key.getLong(position + 8);
+            if (bigEndian) {
+                k1 = Long.reverseBytes(k1);
+                k2 = Long.reverseBytes(k2);
+            }
+            h1 ^= mixK1(k1);
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+            h2 ^= mixK2(k2);
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        if (position < end) {
+            long k1 = 0;
+            long k2 = 0;
+            for (int i = 0; position + i < end; i++) {
+                long value = key.get(position + i) & 0xFFL;
+                if (i < 8) {
+                    k1 |= value << (i * 8);
+                } else {
+                    k2 |= value << ((i - 8) * 8);
+                }
+            }
+            h1 ^= mixK1(k1);
+            h2 ^= mixK2(k2);
+        }
+        return finish(h1, h2, key.remaining());
+    }
+
+    /**
+     * Finalizes a 64-bit value with the MurmurHash3 fmix64 step. Used to derive
+     * independent hashes from an existing one without rehashing the key.
+     *
+     * @param value The value to mix
+     * @return The mixed value
+     */
+    static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    private static long finish(long h1, long h2, long length) {
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = mix(h1);
+        h2 = mix(h2);
+        h1 += h2;
+        return h1;
+    }
+
+    private static long mixK1(long k1) {
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        k1 *= C2;
+        return k1;
+    }
+
+    private static long mixK2(long k2) {
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        k2 *= C1;
+        return k2;
+    }
+}
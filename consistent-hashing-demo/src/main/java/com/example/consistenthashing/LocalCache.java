@@ -0,0 +1,249 @@
+package com.example.consistenthashing;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.OptionalLong;
+
+/**
+ * Bounded in-process cache backed by Caffeine. Eviction uses Caffeine's
+ * W-TinyLFU policy: a small admission window in front of a segmented LRU main
+ * region, with a frequency sketch deciding whether a new entry is worth
+ * evicting an established one. Reads are lock-free; writes are striped
+ * across the underlying concurrent hash table.
+ * <p>
+ * The cache is bounded either by entry count or, when a byte budget is
+ * configured, by the estimated size of keys and values. Every entry carries
+ * its own time-to-live.
+ */
+public class LocalCache {
+
+    /**
+     * Default maximum number of entries.
+     */
+    public static final long DEFAULT_MAXIMUM_SIZE = 100_000;
+
+    /**
+     * Default time-to-live of an entry.
+     */
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(10);
+
+    private final Cache<String, Entry> cache;
+    private final Duration defaultTtl;
+    private final long maximumWeightBytes;
+
+    /**
+     * A cached value with its own time-to-live.
+     */
+    private record Entry(Object value, long ttlNanos) {
+    }
+
+    /**
+     * Creates a new cache.
+     *
+     * @param maximumSize        Maximum number of entries; ignored when a byte budget is set
+     * @param maximumWeightBytes Maximum estimated size of all entries in bytes, or 0 to bound by count
+     * @param defaultTtl         Time-to-live of entries stored without an explicit one
+     */
+    public LocalCache(long maximumSize, long maximumWeightBytes, Duration defaultTtl) {
+        this(maximumSize, maximumWeightBytes, defaultTtl, Ticker.systemTicker());
+    }
+
+    LocalCache(long maximumSize, long maximumWeightBytes, Duration defaultTtl, Ticker ticker) {
+        if (defaultTtl.isNegative() || defaultTtl.isZero()) {
+            throw new IllegalArgumentException("Cache TTL must be positive: " + defaultTtl);
+        }
+        this.defaultTtl = defaultTtl;
+        this.maximumWeightBytes = maximumWeightBytes;
+
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .ticker(ticker)
+                .recordStats();
+        if (maximumWeightBytes > 0) {
+            this.cache = builder.maximumWeight(maximumWeightBytes)
+                    .weigher((String key, Entry entry) -> estimateBytes(key, entry.value()))
+                    .expireAfter(new PerEntryExpiry())
+                    .build();
+        } else {
+            this.cache = builder.maximumSize(maximumSize)
+                    .expireAfter(new PerEntryExpiry())
+                    .build();
+        }
+    }
+
+    /**
+     * Creates a cache with the default entry bound and TTL.
+     */
+    public LocalCache() {
+        this(DEFAULT_MAXIMUM_SIZE, 0, DEFAULT_TTL);
+    }
+
+    /**
+     * Stores a value with the default time-to-live.
+     *
+     * @param key   The cache key
+     * @param value The value to store
+     */
+    public void put(String key, Object value) {
+        put(key, value, defaultTtl);
+    }
+
+    /**
+     * Stores a value with its own time-to-live.
+     *
+     * @param key   The cache key
+     * @param value The value to store
+     * @param ttl   How long the entry stays readable
+     */
+    public void put(String key, Object value, Duration ttl) {
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Cache TTL must be positive: " + ttl);
+        }
+        cache.put(key, new Entry(value, ttl.toNanos()));
+    }
+
+    /**
+     * Retrieves a value.
+     *
+     * @param key The cache key
+     * @return The value, or null if absent or expired
+     */
+    public Object get(String key) {
+        Entry entry = cache.getIfPresent(key);
+        return entry == null ? null : entry.value();
+    }
+
+    /**
+     * Removes a value.
+     *
+     * @param key The cache key
+     * @return The removed value, or null if absent
+     */
+    public Object remove(String key) {
+        Entry entry = cache.asMap().remove(key);
+        return entry == null ? null : entry.value();
+    }
+
+    /**
+     * Removes every entry.
+     *
+     * @return Number of entries removed, approximately
+     */
+    public long clear() {
+        long size = cache.estimatedSize();
+        cache.invalidateAll();
+        return size;
+    }
+
+    /**
+     * Gets the approximate number of entries, after pending maintenance.
+     *
+     * @return Entry count
+     */
+    public long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Gets the estimated size in bytes of all entries, when bounded by weight.
+     *
+     * @return Weighted size, or empty when the cache is bounded by entry count
+     */
+    public OptionalLong weightedSizeBytes() {
+        if (maximumWeightBytes <= 0) {
+            return OptionalLong.empty();
+        }
+        return cache.policy().eviction()
+                .map(Policy.Eviction::weightedSize)
+                .orElse(OptionalLong.empty());
+    }
+
+    /**
+     * Gets hit, miss, load and eviction counters.
+     *
+     * @return A snapshot of the cache statistics
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Flushes pending maintenance work such as evictions. Caffeine performs
+     * it asynchronously and amortized; this is mostly useful in tests.
+     */
+    void cleanUp() {
+        cache.cleanUp();
+    }
+
+    /**
+     * Estimates the retained size of a cache entry. Exact accounting would need
+     * instrumentation; this covers the shapes values arrive in from the REST
+     * API (strings, numbers, byte arrays and JSON maps and lists).
+     */
+    static int estimateBytes(String key, Object value) {
+        long bytes = 64 + estimateValueBytes(key, 0) + estimateValueBytes(value, 0);
+        return (int) Math.min(Integer.MAX_VALUE, bytes);
+    }
+
+    private static long estimateValueBytes(Object value, int depth) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof CharSequence text) {
+            return 40 + 2L * text.length();
+        }
+        if (value instanceof byte[] bytes) {
+            return 16 + bytes.length;
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character) {
+            return 16;
+        }
+        if (depth >= 8) {
+            return 64;
+        }
+        if (value instanceof Map<?, ?> map) {
+            long bytes = 64;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                bytes += 32 + estimateValueBytes(entry.getKey(), depth + 1)
+                        + estimateValueBytes(entry.getValue(), depth + 1);
+            }
+            return bytes;
+        }
+        if (value instanceof Collection<?> collection) {
+            long bytes = 40;
+            for (Object element : collection) {
+                bytes += 8 + estimateValueBytes(element, depth + 1);
+            }
+            return bytes;
+        }
+        return 64;
+    }
+
+    /**
+     * Expires each entry after its own time-to-live since it was last written.
+     */
+    private static final class PerEntryExpiry implements Expiry<String, Entry> {
+        @Override
+        public long expireAfterCreate(String key, Entry entry, long currentTime) {
+            return entry.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+            return entry.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
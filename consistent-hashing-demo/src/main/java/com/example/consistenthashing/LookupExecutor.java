@@ -0,0 +1,210 @@
+package com.example.consistenthashing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs the service's asynchronous lookups.
+ * <p>
+ * Tasks run either on virtual threads, one per task, or on a fixed pool of
+ * platform daemon threads. Virtual threads need Java 21; on an older runtime
+ * the virtual mode falls back to the platform pool with a warning.
+ * <p>
+ * Batch work is split into chunks of consecutive items, and the chunks are
+ * dealt out to at most {@code maxConcurrency} lanes. Each lane is a single
+ * task that works through its chunks in turn, so a batch never occupies more
+ * than that many threads, no task waits on another, and the results are
+ * gathered by completing the lane futures rather than by joining inside the
+ * executor.
+ */
+public class LookupExecutor implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(LookupExecutor.class);
+
+    /**
+     * Default number of items per chunk of a batch.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 256;
+
+    /**
+     * Where lookup tasks run.
+     */
+    public enum Mode {
+        /**
+         * A new virtual thread per task.
+         */
+        VIRTUAL,
+        /**
+         * A fixed pool of platform threads.
+         */
+        PLATFORM;
+
+        /**
+         * Parses a mode name, ignoring case.
+         *
+         * @param name The mode name
+         * @return The mode
+         * @throws IllegalArgumentException if the name is unknown
+         */
+        public static Mode fromName(String name) {
+            for (Mode mode : values()) {
+                if (mode.name().equalsIgnoreCase(name.trim())) {
+                    return mode;
+                }
+            }
+            throw new IllegalArgumentException("Unknown async mode '" + name + "', expected one of "
+                    + Arrays.toString(values()).toLowerCase());
+        }
+    }
+
+    private final ExecutorService executor;
+    private final Mode mode;
+    private final int chunkSize;
+    private final int maxConcurrency;
+
+    /**
+     * Creates an executor on a platform pool with one thread per processor.
+     */
+    public LookupExecutor() {
+        this(Mode.PLATFORM, 0, DEFAULT_CHUNK_SIZE, 0);
+    }
+
+    /**
+     * Creates an executor.
+     *
+     * @param mode            Where tasks run; virtual falls back to platform
+     *                        before Java 21
+     * @param platformThreads Size of the platform pool; 0 for one per processor
+     * @param chunkSize       Items per chunk of a batch
+     * @param maxConcurrency  Most chunks of one batch in flight at once; 0 for
+     *                        one per processor
+     * @throws IllegalArgumentException if a size is negative or the chunk size
+     *                                  is zero
+     */
+    public LookupExecutor(Mode mode, int platformThreads, int chunkSize, int maxConcurrency) {
+        if (platformThreads < 0 || maxConcurrency < 0) {
+            throw new IllegalArgumentException("Thread counts must not be negative");
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        int processors = Runtime.getRuntime().availableProcessors();
+        ExecutorService virtual = mode == Mode.VIRTUAL ? newVirtualThreadExecutor() : null;
+        this.mode = virtual != null ? Mode.VIRTUAL : Mode.PLATFORM;
+        this.executor = virtual != null ? virtual
+                : newPlatformExecutor(platformThreads > 0 ? platformThreads : processors);
+        this.chunkSize = chunkSize;
+        this.maxConcurrency = maxConcurrency > 0 ? maxConcurrency : processors;
+    }
+
+    /**
+     * Gets the mode tasks actually run in, after any fallback.
+     *
+     * @return The effective mode
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Runs a task.
+     *
+     * @param task The task
+     * @param <R>  Result type
+     * @return Future completed with the task's result
+     */
+    public <R> CompletableFuture<R> submit(Supplier<R> task) {
+        return CompletableFuture.supplyAsync(task, executor);
+    }
+
+    /**
+     * Applies a function to every item of a batch with bounded concurrency.
+     *
+     * @param items    The items
+     * @param function Function applied to each item; may return null
+     * @param <T>      Item type
+     * @param <R>      Result type
+     * @return Future completed with the results, in item order
+     */
+    public <T, R> CompletableFuture<List<R>> map(List<T> items, Function<? super T, ? extends R> function) {
+        int size = items.size();
+        if (size == 0) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        int chunks = (size + chunkSize - 1) / chunkSize;
+        int lanes = Math.min(chunks, maxConcurrency);
+        Object[] results = new Object[size];
+
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[lanes];
+        for (int lane = 0; lane < lanes; lane++) {
+            int first = lane;
+            futures[lane] = CompletableFuture.runAsync(() -> {
+                // Lanes write disjoint ranges; allOf publishes them to the caller
+                for (int chunk = first; chunk < chunks; chunk += lanes) {
+                    int end = Math.min(size, (chunk + 1) * chunkSize);
+                    for (int i = chunk * chunkSize; i < end; i++) {
+                        results[i] = function.apply(items.get(i));
+                    }
+                }
+            }, executor);
+        }
+        return CompletableFuture.allOf(futures).thenApply(ignored -> {
+            List<R> list = new ArrayList<>(size);
+            for (Object result : results) {
+                @SuppressWarnings("unchecked")
+                R typed = (R) result;
+                list.add(typed);
+            }
+            return list;
+        });
+    }
+
+    /**
+     * Stops accepting tasks. Tasks already submitted run to completion.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * Creates {@code Executors.newVirtualThreadPerTaskExecutor()} reflectively,
+     * as the module compiles for Java 17.
+     *
+     * @return The executor, or null if the runtime has no virtual threads
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            logger.warn("Virtual threads need Java 21 or later, running lookups on platform threads (Java {})",
+                    Runtime.version().feature());
+            return null;
+        }
+    }
+
+    private static ExecutorService newPlatformExecutor(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), task -> {
+                    Thread thread = new Thread(task, "lookup-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        // Idle pools, such as those of short-lived services, release their threads
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
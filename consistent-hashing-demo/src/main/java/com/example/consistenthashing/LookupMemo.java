@@ -0,0 +1,173 @@
+package com.example.consistenthashing;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded memo of key to ring position for skewed lookup traffic. The table
+ * is open-addressed over a power-of-two array, indexed by
+ * {@link String#hashCode()} (cached inside the string), so a hit costs one
+ * array read and a string comparison: no MurmurHash and no binary search.
+ * <p>
+ * Each entry is stamped with the epoch of the {@link RingSnapshot} it was
+ * computed against. A membership change publishes a snapshot with a new
+ * epoch, which makes every older entry a miss without clearing the table;
+ * stale entries are overwritten as keys are looked up again.
+ * <p>
+ * Entries are immutable and written without locking. A racing reader sees
+ * either the old or the new entry, both of which are complete, and verifies
+ * the key and epoch before using it.
+ * <p>
+ * Hits and misses are published through Micrometer as
+ * {@value #METER} tagged {@code result=hit|miss} once bound to a registry.
+ */
+public final class LookupMemo implements MeterBinder {
+
+    static final String METER = "consistent.hashing.lookup.memo";
+
+    /**
+     * Slots probed from a key's home slot before giving up.
+     */
+    private static final int MAX_PROBES = 4;
+
+    private final Entry[] table;
+    private final int mask;
+    private final LongAdder hits;
+    private final LongAdder misses;
+
+    private record Entry(String key, long epoch, int position) {
+    }
+
+    /**
+     * Creates a memo.
+     *
+     * @param capacity Number of slots, rounded up to a power of two
+     */
+    public LookupMemo(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Lookup memo capacity must be in [1, 2^30]: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.table = new Entry[size];
+        this.mask = size - 1;
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+    }
+
+    /**
+     * Looks up a key's token position for the given epoch.
+     *
+     * @param key   The lookup key
+     * @param epoch Epoch of the snapshot the caller is reading
+     * @return The memoized position, or -1 on a miss
+     */
+    int lookup(String key, long epoch) {
+        int index = spread(key.hashCode());
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            Entry entry = table[(index + probe) & mask];
+            if (entry == null) {
+                break;
+            }
+            if (entry.epoch() == epoch && key.equals(entry.key())) {
+                hits.increment();
+                return entry.position();
+            }
+        }
+        misses.increment();
+        return -1;
+    }
+
+    /**
+     * Memoizes a key's token position. Takes the first probed slot that holds
+     * this key, is empty or is stale; if all are current, evicts the entry in
+     * the key's home slot.
+     *
+     * @param key      The lookup key
+     * @param epoch    Epoch of the snapshot the position belongs to
+     * @param position Token position of the key in that snapshot
+     */
+    void record(String key, long epoch, int position) {
+        int index = spread(key.hashCode());
+        int target = index & mask;
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            int slot = (index + probe) & mask;
+            Entry entry = table[slot];
+            if (entry == null || entry.epoch() != epoch || key.equals(entry.key())) {
+                target = slot;
+                break;
+            }
+        }
+        table[target] = new Entry(key, epoch, position);
+    }
+
+    /**
+     * Gets the number of slots in the table.
+     *
+     * @return Capacity
+     */
+    public int capacity() {
+        return table.length;
+    }
+
+    /**
+     * Gets the number of lookups answered from the memo.
+     *
+     * @return Hit count
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of lookups that had to hash and search the ring.
+     *
+     * @return Miss count
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the fraction of lookups answered from the memo.
+     *
+     * @return Hit rate, or 0 if nothing was looked up
+     */
+    public double hitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * Estimates the heap retained by the table and its entries.
+     *
+     * @return Estimated size in bytes
+     */
+    long estimateMemoryBytes() {
+        // Reference per slot plus a 32-byte entry; the keys are shared with callers
+        return table.length * (8L + 32L);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder(METER, hits, LongAdder::sum)
+                .tag("result", "hit")
+                .description("Ring lookups answered from the memo")
+                .register(registry);
+        FunctionCounter.builder(METER, misses, LongAdder::sum)
+                .tag("result", "miss")
+                .description("Ring lookups that missed the memo")
+                .register(registry);
+    }
+
+    private static int spread(int hashCode) {
+        // Mix the high bits down, as HashMap does, since only the low bits index the table
+        return hashCode ^ (hashCode >>> 16);
+    }
+}
@@ -0,0 +1,474 @@
+package com.example.consistenthashing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serves key lookups over TCP with a small length-prefixed binary protocol,
+ * next to the HTTP API and against the same placement engine.
+ * <p>
+ * Every message is a frame: a 4-byte big-endian payload length followed by
+ * the payload. Request payloads start with a 1-byte opcode and a 4-byte
+ * request ID that is echoed back:
+ * <pre>
+ * LOOKUP (1): u8 replicas, u16 keyCount, keyCount &times; (u16 length, UTF-8 key bytes)
+ * PING   (2): nothing else
+ * </pre>
+ * Response payloads are a 1-byte status, the request ID, and for a LOOKUP the
+ * key count followed, per key in request order, by a u8 node count and that
+ * many (u16 length, node ID, u16 length, node address) entries. An error
+ * response carries a u16-length UTF-8 message instead; the connection stays
+ * usable.
+ * <p>
+ * Clients may pipeline any number of frames without waiting, and a single
+ * LOOKUP may carry many keys. Responses come back in request order. A
+ * connection whose client is not reading its responses stops being served
+ * once they pass a high-water mark, and resumes when they drain. A LOOKUP
+ * may ask for at most the engine's precomputed replica count and
+ * {@value #MAX_LOOKUP_RESULTS} nodes in all; a larger one gets an error
+ * response. Keys are
+ * hashed straight from the receive buffer, and one selector thread serves all
+ * connections, so a lookup costs a frame decode, the engine search and a
+ * buffer append. TCP lookups are not counted in the HTTP traffic telemetry.
+ */
+public class LookupServer implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(LookupServer.class);
+
+    static final byte OP_LOOKUP = 1;
+    static final byte OP_PING = 2;
+    static final byte STATUS_OK = 0;
+    static final byte STATUS_ERROR = 1;
+
+    /**
+     * Largest accepted request payload; a longer frame closes the connection.
+     */
+    static final int MAX_FRAME_BYTES = 1 << 20;
+
+    /**
+     * Most nodes, keys times replicas, a single LOOKUP may ask for.
+     */
+    static final int MAX_LOOKUP_RESULTS = 1 << 16;
+
+    /**
+     * Pending response bytes above which a connection's frames are not served,
+     * nor its socket read, until the client catches up. Pending output never
+     * exceeds this by more than one response.
+     */
+    private static final int OUTPUT_HIGH_WATER_BYTES = 4 << 20;
+
+    private static final int NODE_CACHE_SIZE = 4096;
+
+    private final PlacementEngine placementEngine;
+    private final int maxReplicas;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final Thread eventLoop;
+    private final Map<ConsistentHashRing.Node, byte[]> encodedNodes;
+    private final LongAdder connections;
+    private final LongAdder requests;
+    private final LongAdder keys;
+    private final LongAdder errors;
+    private volatile boolean running;
+
+    /**
+     * A client connection's buffers. Only touched by the event loop.
+     */
+    private static final class Connection {
+        ByteBuffer in = ByteBuffer.allocate(8192);
+        ByteBuffer out = ByteBuffer.allocate(8192);
+        boolean paused;
+    }
+
+    /**
+     * Binds the server socket, serving up to the default replica count.
+     * Connections are accepted once {@link #start()} is called.
+     *
+     * @param placementEngine The engine lookups are served from
+     * @param address         Address to listen on; port 0 picks a free port
+     * @throws UncheckedIOException if the socket cannot be bound
+     */
+    public LookupServer(PlacementEngine placementEngine, InetSocketAddress address) {
+        this(placementEngine, address, ConsistentHashRing.DEFAULT_MAX_REPLICAS);
+    }
+
+    /**
+     * Binds the server socket. Connections are accepted once
+     * {@link #start()} is called.
+     *
+     * @param placementEngine The engine lookups are served from
+     * @param address         Address to listen on; port 0 picks a free port
+     * @param maxReplicas     Most replicas a LOOKUP may ask for; the engine's
+     *                        precomputed preference list length
+     * @throws IllegalArgumentException if maxReplicas is not positive
+     * @throws UncheckedIOException     if the socket cannot be bound
+     */
+    public LookupServer(PlacementEngine placementEngine, InetSocketAddress address, int maxReplicas) {
+        if (maxReplicas < 1) {
+            throw new IllegalArgumentException("Max replicas must be positive: " + maxReplicas);
+        }
+        this.placementEngine = placementEngine;
+        this.maxReplicas = maxReplicas;
+        this.encodedNodes = new IdentityHashMap<>();
+        this.connections = new LongAdder();
+        this.requests = new LongAdder();
+        this.keys = new LongAdder();
+        this.errors = new LongAdder();
+        try {
+            this.selector = Selector.open();
+            this.serverChannel = ServerSocketChannel.open();
+            serverChannel.bind(address);
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to bind lookup server to " + address, e);
+        }
+        this.eventLoop = new Thread(this::run, "lookup-server");
+        this.eventLoop.setDaemon(true);
+    }
+
+    /**
+     * Starts accepting connections.
+     *
+     * @return This server
+     */
+    public synchronized LookupServer start() {
+        if (!running) {
+            running = true;
+            eventLoop.start();
+            logger.info("Lookup server listening on {}", serverChannel.socket().getLocalSocketAddress());
+        }
+        return this;
+    }
+
+    /**
+     * Gets the port the server listens on.
+     *
+     * @return The local port
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Gets counters describing the traffic served.
+     *
+     * @return Map of statistic name to value
+     */
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("connections", connections.sum());
+        stats.put("requests", requests.sum());
+        stats.put("keys", keys.sum());
+        stats.put("errors", errors.sum());
+        return stats;
+    }
+
+    /**
+     * Stops accepting requests and closes every connection.
+     */
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+        try {
+            eventLoop.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closeQuietly();
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select();
+                for (SelectionKey key : selector.selectedKeys()) {
+                    handle(key);
+                }
+                selector.selectedKeys().clear();
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            if (running) {
+                logger.error("Lookup server stopped unexpectedly", e);
+            }
+        } finally {
+            closeQuietly();
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+        try {
+            if (key.isAcceptable()) {
+                accept();
+                return;
+            }
+            Connection connection = (Connection) key.attachment();
+            if (key.isReadable()) {
+                read(key, connection);
+            }
+            if (key.isValid() && key.isWritable()) {
+                write(key, connection);
+            }
+        } catch (IOException e) {
+            logger.debug("Closing lookup connection: {}", e.toString());
+            closeConnection(key);
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        channel.register(selector, SelectionKey.OP_READ, new Connection());
+        connections.increment();
+    }
+
+    private void read(SelectionKey key, Connection connection) throws IOException {
+        SocketChannel channel = (SocketChannel) key.channel();
+        if (channel.read(connection.in) < 0) {
+            closeConnection(key);
+            return;
+        }
+        if (serveFrames(key, connection)) {
+            write(key, connection);
+        }
+    }
+
+    /**
+     * Serves the complete frames received so far, pausing the connection
+     * once its pending output passes the high-water mark.
+     *
+     * @return false if the connection was closed
+     */
+    private boolean serveFrames(SelectionKey key, Connection connection) throws IOException {
+        ByteBuffer in = connection.in.flip();
+        connection.paused = false;
+        while (in.remaining() >= Integer.BYTES) {
+            if (connection.out.position() > OUTPUT_HIGH_WATER_BYTES) {
+                // The rest waits until the client reads what is already queued
+                connection.paused = true;
+                break;
+            }
+            int length = in.getInt(in.position());
+            if (length < 0 || length > MAX_FRAME_BYTES) {
+                logger.warn("Closing lookup connection {}: frame of {} bytes",
+                        ((SocketChannel) key.channel()).getRemoteAddress(), length);
+                closeConnection(key);
+                return false;
+            }
+            if (in.remaining() < Integer.BYTES + length) {
+                break;
+            }
+            int payloadStart = in.position() + Integer.BYTES;
+            serve(in.slice(payloadStart, length), connection);
+            in.position(payloadStart + length);
+        }
+        in.compact();
+        if (!connection.paused && in.remaining() == 0) {
+            // Grow to fit the frame being received; its length was checked above
+            connection.in = ByteBuffer.allocate(Math.max(in.capacity() * 2, Integer.BYTES + in.getInt(0)))
+                    .put(in.flip());
+        }
+        return true;
+    }
+
+    private void write(SelectionKey key, Connection connection) throws IOException {
+        SocketChannel channel = (SocketChannel) key.channel();
+        ByteBuffer out;
+        do {
+            out = connection.out.flip();
+            channel.write(out);
+            out.compact();
+            // A paused connection resumes once its output drains below the mark
+        } while (connection.paused && out.position() <= OUTPUT_HIGH_WATER_BYTES && serveFrames(key, connection));
+        if (!key.isValid()) {
+            return;
+        }
+        int interest = SelectionKey.OP_READ;
+        if (connection.paused) {
+            interest = SelectionKey.OP_WRITE;
+        } else if (out.position() > 0) {
+            interest = SelectionKey.OP_READ | SelectionKey.OP_WRITE;
+        }
+        key.interestOps(interest);
+    }
+
+    /**
+     * Decodes one request payload and appends its response frame.
+     */
+    private void serve(ByteBuffer request, Connection connection) {
+        requests.increment();
+        int requestId = 0;
+        try {
+            byte op = request.get();
+            requestId = request.getInt();
+            switch (op) {
+                case OP_LOOKUP -> lookup(request, requestId, connection);
+                case OP_PING -> {
+                    int start = beginResponse(connection, STATUS_OK, requestId, 0);
+                    endResponse(connection, start);
+                }
+                default -> error(connection, requestId, "Unknown opcode " + op);
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            error(connection, requestId, "Malformed request");
+        }
+    }
+
+    private void lookup(ByteBuffer request, int requestId, Connection connection) {
+        int replicas = Byte.toUnsignedInt(request.get());
+        int keyCount = Short.toUnsignedInt(request.getShort());
+        if (replicas == 0 || replicas > maxReplicas) {
+            error(connection, requestId, "replicas must be between 1 and " + maxReplicas);
+            return;
+        }
+        if (keyCount * replicas > MAX_LOOKUP_RESULTS) {
+            error(connection, requestId, "keys times replicas must be at most " + MAX_LOOKUP_RESULTS);
+            return;
+        }
+
+        // Validate the whole frame before writing, so a bad key cannot leave half a response
+        int keysStart = request.position();
+        for (int i = 0; i < keyCount; i++) {
+            int length = Short.toUnsignedInt(request.getShort());
+            request.position(request.position() + length);
+        }
+        request.position(keysStart);
+
+        int start = beginResponse(connection, STATUS_OK, requestId, Short.BYTES);
+        connection.out.putShort((short) keyCount);
+        byte[] array = request.array();
+        for (int i = 0; i < keyCount; i++) {
+            int length = Short.toUnsignedInt(request.getShort());
+            int offset = request.arrayOffset() + request.position();
+            request.position(request.position() + length);
+            if (length == 0) {
+                ensure(connection, 1).put((byte) 0);
+                continue;
+            }
+
+            long hash = KeyHasher.hash(array, offset, length);
+            if (replicas == 1) {
+                ConsistentHashRing.Node node = placementEngine.getNodeByHash(hash);
+                if (node == null) {
+                    ensure(connection, 1).put((byte) 0);
+                } else {
+                    byte[] encoded = encode(node);
+                    ensure(connection, 1 + encoded.length).put((byte) 1).put(encoded);
+                }
+            } else {
+                List<ConsistentHashRing.Node> nodes = placementEngine.getNodesByHash(hash, replicas);
+                ensure(connection, 1).put((byte) nodes.size());
+                for (ConsistentHashRing.Node node : nodes) {
+                    byte[] encoded = encode(node);
+                    ensure(connection, encoded.length).put(encoded);
+                }
+            }
+        }
+        keys.add(keyCount);
+        endResponse(connection, start);
+    }
+
+    private void error(Connection connection, int requestId, String message) {
+        errors.increment();
+        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        int start = beginResponse(connection, STATUS_ERROR, requestId, Short.BYTES + bytes.length);
+        connection.out.putShort((short) bytes.length).put(bytes);
+        endResponse(connection, start);
+    }
+
+    /**
+     * Writes a response header with room for the frame length, which
+     * {@link #endResponse} fills in.
+     *
+     * @return Position of the frame length
+     */
+    private static int beginResponse(Connection connection, byte status, int requestId, int bodyBytes) {
+        ByteBuffer out = ensure(connection, Integer.BYTES + 1 + Integer.BYTES + bodyBytes);
+        int start = out.position();
+        out.putInt(0).put(status).putInt(requestId);
+        return start;
+    }
+
+    private static void endResponse(Connection connection, int start) {
+        ByteBuffer out = connection.out;
+        out.putInt(start, out.position() - start - Integer.BYTES);
+    }
+
+    private static ByteBuffer ensure(Connection connection, int bytes) {
+        ByteBuffer out = connection.out;
+        if (out.remaining() < bytes) {
+            connection.out = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + bytes)).put(out.flip());
+        }
+        return connection.out;
+    }
+
+    /**
+     * Gets a node's wire encoding. Nodes are immutable and replaced on every
+     * change, so encodings are cached by instance.
+     */
+    private byte[] encode(ConsistentHashRing.Node node) {
+        byte[] encoded = encodedNodes.get(node);
+        if (encoded == null) {
+            if (encodedNodes.size() >= NODE_CACHE_SIZE) {
+                encodedNodes.clear();
+            }
+            byte[] id = node.getId().getBytes(StandardCharsets.UTF_8);
+            byte[] address = node.getAddress().getBytes(StandardCharsets.UTF_8);
+            encoded = ByteBuffer.allocate(Short.BYTES + id.length + Short.BYTES + address.length)
+                    .putShort((short) id.length).put(id)
+                    .putShort((short) address.length).put(address)
+                    .array();
+            encodedNodes.put(node, encoded);
+        }
+        return encoded;
+    }
+
+    private void closeConnection(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            logger.debug("Error closing lookup connection: {}", e.toString());
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            if (selector.isOpen()) {
+                for (SelectionKey key : selector.keys()) {
+                    key.channel().close();
+                }
+                selector.close();
+            }
+            serverChannel.close();
+        } catch (IOException | ClosedSelectorException e) {
+            logger.debug("Error closing lookup server: {}", e.toString());
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.consistenthashing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Placement engine based on Maglev hashing (Eisenbud et al., NSDI 2016).
+ * Each node fills a fixed-size lookup table following its own permutation of
+ * the slots, so a lookup is a single array index and memory is one int per
+ * slot regardless of how many nodes exist. The table is rebuilt on every
+ * membership change and published atomically.
+ */
+public class MaglevHashEngine implements PlacementEngine {
+    private static final Logger logger = LoggerFactory.getLogger(MaglevHashEngine.class);
+
+    /**
+     * Default table size. Must be prime and should be well above 100x the
+     * expected node count to keep the per-node imbalance small.
+     */
+    public static final int DEFAULT_TABLE_SIZE = 65537;
+
+    private final int tableSize;
+    private final Map<String, ConsistentHashRing.Node> physicalNodes;
+    private final Lock writeLock;
+    private volatile Table table;
+
+    /**
+     * Creates a new Maglev engine.
+     *
+     * @param tableSize Lookup table size; must be a prime number
+     */
+    public MaglevHashEngine(int tableSize) {
+        if (tableSize < 2 || !isPrime(tableSize)) {
+            throw new IllegalArgumentException("Maglev table size must be a prime number: " + tableSize);
+        }
+        this.tableSize = tableSize;
+        this.physicalNodes = new TreeMap<>();
+        this.writeLock = new ReentrantLock();
+        this.table = Table.EMPTY;
+
+        logger.info("Initialized Maglev engine with table size {}", tableSize);
+    }
+
+    /**
+     * Creates a new Maglev engine with the default table size.
+     */
+    public MaglevHashEngine() {
+        this(DEFAULT_TABLE_SIZE);
+    }
+
+    @Override
+    public String getName() {
+        return "maglev";
+    }
+
+    @Override
+    public boolean addNode(String nodeId, String nodeAddress) {
+        writeLock.lock();
+        try {
+            if (physicalNodes.containsKey(nodeId)) {
+                logger.warn("Node {} already exists in the Maglev table", nodeId);
+                return false;
+            }
+            physicalNodes.put(nodeId, new ConsistentHashRing.Node(nodeId, nodeAddress));
+            rebuild();
+            logger.info("Added node {} to the Maglev table", nodeId);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean removeNode(String nodeId) {
+        writeLock.lock();
+        try {
+            if (physicalNodes.remove(nodeId) == null) {
+                logger.warn("Node {} does not exist in the Maglev table", nodeId);
+                return false;
+            }
+            rebuild();
+            logger.info("Removed node {} from the Maglev table", nodeId);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public ConsistentHashRing.Node getNode(String key) {
+        if (key == null || key.trim().isEmpty()) {
+            logger.warn("Invalid key provided: {}", key);
+            return null;
+        }
+
+        ConsistentHashRing.Node node = getNodeByHash(KeyHasher.hash(key));
+        if (node == null) {
+            logger.warn("Maglev table is empty, cannot find node for key: {}", key);
+            return null;
+        }
+        logger.debug("Key '{}' mapped to node: {}", key, node.getId());
+        return node;
+    }
+
+    @Override
+    public ConsistentHashRing.Node getNodeByHash(long keyHash) {
+        Table current = table;
+        if (current.nodes.length == 0) {
+            return null;
+        }
+        return current.nodes[current.slots[slotFor(keyHash)]];
+    }
+
+    /**
+     * Gets multiple distinct nodes for a key. The primary comes from the key's
+     * slot; replicas are the next distinct owners found by probing the
+     * following slots, which is stable for a given table.
+     */
+    @Override
+    public List<ConsistentHashRing.Node> getNodes(String key, int count) {
+        if (key == null || key.trim().isEmpty()) {
+            logger.warn("Invalid key provided: {}", key);
+            return Collections.emptyList();
+        }
+
+        if (table.nodes.length == 0) {
+            logger.warn("Maglev table is empty, cannot find nodes for key: {}", key);
+            return Collections.emptyList();
+        }
+        return getNodesByHash(KeyHasher.hash(key), count);
+    }
+
+    @Override
+    public List<ConsistentHashRing.Node> getNodesByHash(long keyHash, int count) {
+        Table current = table;
+        if (current.nodes.length == 0) {
+            return Collections.emptyList();
+        }
+
+        int wanted = Math.min(count, current.nodes.length);
+        List<ConsistentHashRing.Node> nodes = new ArrayList<>(Math.max(wanted, 0));
+        boolean[] seen = new boolean[current.nodes.length];
+        int slot = slotFor(keyHash);
+        for (int step = 0; step < tableSize && nodes.size() < wanted; step++) {
+            int owner = current.slots[(slot + step) % tableSize];
+            if (!seen[owner]) {
+                seen[owner] = true;
+                nodes.add(current.nodes[owner]);
+            }
+        }
+        return nodes;
+    }
+
+    @Override
+    public ConsistentHashRing.HashRingStats getStats() {
+        Table current = table;
+        int[] slotsPerNode = new int[current.nodes.length];
+        for (int owner : current.slots) {
+            slotsPerNode[owner]++;
+        }
+        Map<String, Integer> distribution = new HashMap<>();
+        for (int i = 0; i < current.nodes.length; i++) {
+            distribution.put(current.nodes[i].getId(), slotsPerNode[i]);
+        }
+        return new ConsistentHashRing.HashRingStats(
+                current.nodes.length,
+                current.slots.length,
+                current.nodes.length == 0 ? 0 : tableSize / current.nodes.length,
+                distribution);
+    }
+
+    @Override
+    public Set<ConsistentHashRing.Node> getAllNodes() {
+        return new HashSet<>(Arrays.asList(table.nodes));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return table.nodes.length == 0;
+    }
+
+    @Override
+    public int getNodeCount() {
+        return table.nodes.length;
+    }
+
+    @Override
+    public long estimateMemoryBytes() {
+        return (long) table.slots.length * Integer.BYTES;
+    }
+
+    private int slotFor(long hash) {
+        return (int) Long.remainderUnsigned(hash, tableSize);
+    }
+
+    /**
+     * Populates a new lookup table from the current membership. Must be called
+     * with the write lock held.
+     */
+    private void rebuild() {
+        if (physicalNodes.isEmpty()) {
+            table = Table.EMPTY;
+            return;
+        }
+
+        ConsistentHashRing.Node[] nodes = physicalNodes.values().toArray(new ConsistentHashRing.Node[0]);
+        int n = nodes.length;
+        long[] offsets = new long[n];
+        long[] skips = new long[n];
+        for (int i = 0; i < n; i++) {
+            long h = KeyHasher.hash(nodes[i].getId());
+            offsets[i] = Long.remainderUnsigned(h, tableSize);
+            skips[i] = Long.remainderUnsigned(KeyHasher.mix(h), tableSize - 1) + 1;
+        }
+
+        int[] slots = new int[tableSize];
+        Arrays.fill(slots, -1);
+        long[] next = new long[n];
+        int filled = 0;
+        while (true) {
+            for (int i = 0; i < n; i++) {
+                int candidate = (int) ((offsets[i] + next[i] * skips[i]) % tableSize);
+                while (slots[candidate] >= 0) {
+                    next[i]++;
+                    candidate = (int) ((offsets[i] + next[i] * skips[i]) % tableSize);
+                }
+                slots[candidate] = i;
+                next[i]++;
+                if (++filled == tableSize) {
+                    table = new Table(slots, nodes);
+                    return;
+                }
+            }
+        }
+    }
+
+    private static boolean isPrime(int value) {
+        for (int divisor = 2; (long) divisor * divisor <= value; divisor++) {
+            if (value % divisor == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Immutable lookup table: slot to node index, plus the node array.
+     */
+    private static final class Table {
+        static final Table EMPTY = new Table(new int[0], new ConsistentHashRing.Node[0]);
+
+        final int[] slots;
+        final ConsistentHashRing.Node[] nodes;
+
+        Table(int[] slots, ConsistentHashRing.Node[] nodes) {
+            this.slots = slots;
+            this.nodes = nodes;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.consistenthashing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A set of node additions and removals applied to a placement engine as one
+ * change. Removals take effect before additions, so a node that is both
+ * removed and added is replaced.
+ */
+public final class MembershipBatch {
+
+    /**
+     * A node to add.
+     *
+     * @param nodeId      Unique identifier for the node
+     * @param nodeAddress Network address of the node
+     * @param weight      Relative capacity of the node
+     * @param zone        Failure domain of the node, or null if unlabelled
+     */
+    public record Addition(String nodeId, String nodeAddress, double weight, String zone) {
+    }
+
+    /**
+     * The outcome of a batch, per node.
+     *
+     * @param added   Node ID to whether it was added; false if it already existed
+     * @param removed Node ID to whether it was removed; false if it did not exist
+     */
+    public record Result(Map<String, Boolean> added, Map<String, Boolean> removed) {
+
+        /**
+         * Checks whether any node was added or removed.
+         *
+         * @return true if the batch changed the membership
+         */
+        public boolean changed() {
+            return added.containsValue(true) || removed.containsValue(true);
+        }
+    }
+
+    private final List<Addition> additions = new ArrayList<>();
+    private final List<String> removals = new ArrayList<>();
+
+    /**
+     * Adds a node with the default weight.
+     *
+     * @param nodeId      Unique identifier for the node
+     * @param nodeAddress Network address of the node
+     * @return This batch
+     */
+    public MembershipBatch add(String nodeId, String nodeAddress) {
+        return add(nodeId, nodeAddress, 1.0);
+    }
+
+    /**
+     * Adds a weighted node.
+     *
+     * @param nodeId      Unique identifier for the node
+     * @param nodeAddress Network address of the node
+     * @param weight      Relative capacity of the node
+     * @return This batch
+     */
+    public MembershipBatch add(String nodeId, String nodeAddress, double weight) {
+        return add(nodeId, nodeAddress, weight, null);
+    }
+
+    /**
+     * Adds a weighted node in a zone.
+     *
+     * @param nodeId      Unique identifier for the node
+     * @param nodeAddress Network address of the node
+     * @param weight      Relative capacity of the node
+     * @param zone        Failure domain of the node, or null if unlabelled
+     * @return This batch
+     */
+    public MembershipBatch add(String nodeId, String nodeAddress, double weight, String zone) {
+        additions.add(new Addition(nodeId, nodeAddress, weight, zone));
+        return this;
+    }
+
+    /**
+     * Removes a node.
+     *
+     * @param nodeId Unique identifier of the node
+     * @return This batch
+     */
+    public MembershipBatch remove(String nodeId) {
+        removals.add(nodeId);
+        return this;
+    }
+
+    public List<Addition> additions() {
+        return Collections.unmodifiableList(additions);
+    }
+
+    public List<String> removals() {
+        return Collections.unmodifiableList(removals);
+    }
+
+    public boolean isEmpty() {
+        return additions.isEmpty() && removals.isEmpty();
+    }
+
+    /**
+     * Describes the batch for logging and rebalance plans.
+     *
+     * @return A short description
+     */
+    public String describe() {
+        return "batch +" + additions.size() + " -" + removals.size();
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.consistenthashing;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Strategy for mapping keys onto physical nodes.
+ * The virtual node ring is the default implementation; table-based engines
+ * such as Maglev, Jump and AnchorHash trade some flexibility for O(1) lookups
+ * and a smaller memory footprint, and rendezvous hashing suits small clusters.
+ */
+public interface PlacementEngine {
+
+    /**
+     * Gets the short name of this engine, as used in configuration.
+     *
+     * @return Engine name
+     */
+    String getName();
+
+    /**
+     * Adds a physical node.
+     *
+     * @param nodeId      Unique identifier for the node
+     * @param nodeAddress Network address of the node
+     * @return true if the node was added, false if it already exists
+     */
+    boolean addNode(String nodeId, String nodeAddress);
+
+    /**
+     * Adds a weighted physical node. Engines without weight support accept
+     * only the neutral weight of 1.0.
+     *
+     * @param nodeId      Unique identifier for the node
+     * @param nodeAddress Network address of the node
+     * @param weight      Relative capacity of the node
+     * @return true if the node was added, false if it already exists
+     * @throws UnsupportedOperationException if the engine does not support weights
+     */
+    default boolean addNode(String nodeId, String nodeAddress, double weight) {
+        if (weight != 1.0) {
+            throw new UnsupportedOperationException("The " + getName() + " engine does not support node weights");
+        }
+        return addNode(nodeId, nodeAddress);
+    }
+
+    /**
+     * Adds a weighted physical node labelled with its failure domain. Engines
+     * without zone support accept only unlabelled nodes.
+     *
+     * @param nodeId      Unique identifier for the node
+     * @param nodeAddress Network address of the node
+     * @param weight      Relative capacity of the node
+     * @param zone        Failure domain of the node, such as an availability
+     *                    zone or rack; null if unlabelled
+     * @return true if the node was added, false if it already exists
+     * @throws UnsupportedOperationException if the engine does not support weights or zones
+     */
+    default boolean addNode(String nodeId, String nodeAddress, double weight, String zone) {
+        if (zone != null) {
+            throw new UnsupportedOperationException("The " + getName() + " engine does not support zone labels");
+        }
+        return addNode(nodeId, nodeAddress, weight);
+    }
+
+    /**
+     * Changes the weight of a node.
+     *
+     * @param nodeId Unique identifier of the node
+     * @param weight New relative capacity of the node
+     * @return true if the weight was updated, false if the node doesn't exist
+     * @throws UnsupportedOperationException if the engine does not support weights
+     */
+    default boolean updateWeight(String nodeId, double weight) {
+        throw new UnsupportedOperationException("The " + getName() + " engine does not support node weights");
+    }
+
+    /**
+     * Removes a physical node.
+     *
+     * @param nodeId Unique identifier of the node to remove
+     * @return true if the node was removed, false if it doesn't exist
+     */
+    boolean removeNode(String nodeId);
+
+    /**
+     * Applies a batch of removals and additions, removals first. The default
+     * applies them one at a time; engines that can rebuild their lookup
+     * structures once for the whole batch override it.
+     *
+     * @param batch The changes to apply
+     * @return Per-node outcome
+     * @throws UnsupportedOperationException if the batch has weights the engine does not support
+     */
+    default MembershipBatch.Result applyBatch(MembershipBatch batch) {
+        Map<String, Boolean> removed = new LinkedHashMap<>();
+        for (String nodeId : batch.removals()) {
+            removed.put(nodeId, removeNode(nodeId));
+        }
+        Map<String, Boolean> added = new LinkedHashMap<>();
+        for (MembershipBatch.Addition addition : batch.additions()) {
+            added.put(addition.nodeId(),
+                    addNode(addition.nodeId(), addition.nodeAddress(), addition.weight(), addition.zone()));
+        }
+        return new MembershipBatch.Result(added, removed);
+    }
+
+    /**
+     * Gets the node responsible for a given key.
+     *
+     * @param key The key to place
+     * @return The responsible node, or null if the key is invalid or no nodes exist
+     */
+    ConsistentHashRing.Node getNode(String key);
+
+    /**
+     * Gets multiple distinct nodes responsible for a given key (for replication).
+     *
+     * @param key   The key to place
+     * @param count Number of nodes to return
+     * @return Distinct nodes in preference order
+     */
+    List<ConsistentHashRing.Node> getNodes(String key, int count);
+
+    /**
+     * Gets the same nodes as {@link #getNodes(String, int)}, ordered for a
+     * reader in the given zone: nodes in that zone first, then the rest, each
+     * group keeping its preference order.
+     *
+     * @param key   The key to place
+     * @param count Number of nodes to return
+     * @param zone  The reader's zone; null keeps preference order
+     * @return Distinct nodes, nearest first
+     */
+    default List<ConsistentHashRing.Node> getNodesByLocality(String key, int count, String zone) {
+        List<ConsistentHashRing.Node> nodes = getNodes(key, count);
+        if (zone == null || nodes.size() < 2) {
+            return nodes;
+        }
+        List<ConsistentHashRing.Node> ordered = new ArrayList<>(nodes.size());
+        for (ConsistentHashRing.Node node : nodes) {
+            if (zone.equals(node.getZone())) {
+                ordered.add(node);
+            }
+        }
+        for (ConsistentHashRing.Node node : nodes) {
+            if (!zone.equals(node.getZone())) {
+                ordered.add(node);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Gets the node responsible for a precomputed key hash.
+     *
+     * @param keyHash 64-bit key hash as produced by the engine's key hasher
+     * @return The responsible node, or null if no nodes exist
+     */
+    ConsistentHashRing.Node getNodeByHash(long keyHash);
+
+    /**
+     * Gets multiple distinct nodes responsible for a precomputed key hash.
+     *
+     * @param keyHash 64-bit key hash as produced by the engine's key hasher
+     * @param count   Number of nodes to return
+     * @return Distinct nodes in preference order
+     */
+    List<ConsistentHashRing.Node> getNodesByHash(long keyHash, int count);
+
+    /**
+     * Gets the node responsible for a binary key without building a String.
+     *
+     * @param key The key bytes
+     * @return The responsible node, or null if the key is empty or no nodes exist
+     */
+    default ConsistentHashRing.Node getNode(byte[] key) {
+        if (key == null || key.length == 0) {
+            return null;
+        }
+        return getNodeByHash(KeyHasher.hash(key));
+    }
+
+    /**
+     * Gets the node responsible for the remaining bytes of a buffer. The
+     * buffer's position is not modified.
+     *
+     * @param key The key buffer
+     * @return The responsible node, or null if the key is empty or no nodes exist
+     */
+    default ConsistentHashRing.Node getNode(ByteBuffer key) {
+        if (key == null || !key.hasRemaining()) {
+            return null;
+        }
+        return getNodeByHash(KeyHasher.hash(key));
+    }
+
+    /**
+     * Gets multiple distinct nodes responsible for a binary key.
+     *
+     * @param key   The key bytes
+     * @param count Number of nodes to return
+     * @return Distinct nodes in preference order
+     */
+    default List<ConsistentHashRing.Node> getNodes(byte[] key, int count) {
+        if (key == null || key.length == 0) {
+            return Collections.emptyList();
+        }
+        return getNodesByHash(KeyHasher.hash(key), count);
+    }
+
+    /**
+     * Gets multiple distinct nodes responsible for the remaining bytes of a
+     * buffer. The buffer's position is not modified.
+     *
+     * @param key   The key buffer
+     * @param count Number of nodes to return
+     * @return Distinct nodes in preference order
+     */
+    default List<ConsistentHashRing.Node> getNodes(ByteBuffer key, int count) {
+        if (key == null || !key.hasRemaining()) {
+            return Collections.emptyList();
+        }
+        return getNodesByHash(KeyHasher.hash(key), count);
+    }
+
+    /**
+     * Gets statistics about the placement distribution.
+     *
+     * @return HashRingStats containing distribution information
+     */
+    ConsistentHashRing.HashRingStats getStats();
+
+    /**
+     * Gets all physical nodes.
+     *
+     * @return Set of all physical nodes
+     */
+    Set<ConsistentHashRing.Node> getAllNodes();
+
+    /**
+     * Checks if no nodes exist.
+     *
+     * @return true if no nodes exist, false otherwise
+     */
+    boolean isEmpty();
+
+    /**
+     * Gets the total number of physical nodes.
+     *
+     * @return Number of physical nodes
+     */
+    int getNodeCount();
+
+    /**
+     * Estimates the heap retained by the engine's lookup structures.
+     * The figure is an approximation intended for comparing engines.
+     *
+     * @return Estimated size in bytes
+     */
+    long estimateMemoryBytes();
+}
@@ -0,0 +1,135 @@
+package com.example.consistenthashing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Side-by-side comparison of the placement engines on an identical,
+ * synthetic cluster. Each engine is built fresh, so running a comparison never
+ * touches the engine that is serving traffic.
+ */
+public class PlacementEngineComparison {
+    private static final Logger logger = LoggerFactory.getLogger(PlacementEngineComparison.class);
+
+    /**
+     * Most nodes a comparison may use; the anchor engine's default capacity
+     * has to fit them plus the node added to measure movement.
+     */
+    public static final int MAX_NODES = AnchorHashEngine.DEFAULT_CAPACITY - 1;
+
+    /**
+     * Most sample keys a comparison may use.
+     */
+    public static final int MAX_SAMPLE_KEYS = 1_000_000;
+
+    private final int nodeCount;
+    private final int sampleKeys;
+
+    /**
+     * Result of comparing one engine.
+     *
+     * @param engine             Engine name
+     * @param nodeCount          Number of nodes in the synthetic cluster
+     * @param avgLookupNanos     Average latency of a single-key lookup
+     * @param memoryBytes        Estimated size of the lookup structures
+     * @param movedOnAddFraction Fraction of sample keys that changed owner when a node was added
+     * @param movedOnRemoveFraction Fraction of sample keys that changed owner when a node was removed
+     */
+    public record EngineResult(String engine, int nodeCount, double avgLookupNanos, long memoryBytes,
+            double movedOnAddFraction, double movedOnRemoveFraction) {
+    }
+
+    /**
+     * Creates a comparison over a synthetic cluster.
+     *
+     * @param nodeCount  Number of nodes to place keys on
+     * @param sampleKeys Number of keys used to measure latency and movement
+     * @throws IllegalArgumentException if either count is out of range
+     */
+    public PlacementEngineComparison(int nodeCount, int sampleKeys) {
+        if (nodeCount < 2 || nodeCount > MAX_NODES) {
+            throw new IllegalArgumentException("Comparison needs between 2 and " + MAX_NODES + " nodes: " + nodeCount);
+        }
+        if (sampleKeys < 1 || sampleKeys > MAX_SAMPLE_KEYS) {
+            throw new IllegalArgumentException(
+                    "Comparison needs between 1 and " + MAX_SAMPLE_KEYS + " sample keys: " + sampleKeys);
+        }
+        this.nodeCount = nodeCount;
+        this.sampleKeys = sampleKeys;
+    }
+
+    /**
+     * Runs the comparison for every engine type.
+     *
+     * @return One result per engine
+     */
+    public List<EngineResult> run() {
+        List<EngineResult> results = new ArrayList<>();
+        for (PlacementEngineType type : PlacementEngineType.values()) {
+            results.add(run(type));
+        }
+        return results;
+    }
+
+    /**
+     * Runs the comparison for a single engine type.
+     *
+     * @param type Engine type to measure
+     * @return The measured result
+     */
+    public EngineResult run(PlacementEngineType type) {
+        String[] keys = new String[sampleKeys];
+        for (int i = 0; i < sampleKeys; i++) {
+            keys[i] = "compare-key-" + i;
+        }
+
+        PlacementEngine engine = type.create();
+        for (int i = 0; i < nodeCount; i++) {
+            engine.addNode(nodeId(i), "10.0." + (i / 256) + "." + (i % 256) + ":8080");
+        }
+
+        // Warm up, then measure steady-state lookup latency
+        String[] baseline = owners(engine, keys);
+        long start = System.nanoTime();
+        owners(engine, keys);
+        double avgLookupNanos = (double) (System.nanoTime() - start) / keys.length;
+        long memoryBytes = engine.estimateMemoryBytes();
+
+        engine.addNode("compare-node-extra", "10.1.0.1:8080");
+        double movedOnAdd = movedFraction(baseline, owners(engine, keys));
+        engine.removeNode("compare-node-extra");
+
+        engine.removeNode(nodeId(nodeCount / 2));
+        double movedOnRemove = movedFraction(baseline, owners(engine, keys));
+
+        EngineResult result = new EngineResult(type.name().toLowerCase(), nodeCount, avgLookupNanos,
+                memoryBytes, movedOnAdd, movedOnRemove);
+        logger.info("Engine comparison: {}", result);
+        return result;
+    }
+
+    private static String nodeId(int index) {
+        return "compare-node-" + index;
+    }
+
+    private static String[] owners(PlacementEngine engine, String[] keys) {
+        String[] owners = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            owners[i] = engine.getNode(keys[i]).getId();
+        }
+        return owners;
+    }
+
+    private static double movedFraction(String[] before, String[] after) {
+        int moved = 0;
+        for (int i = 0; i < before.length; i++) {
+            if (!before[i].equals(after[i])) {
+                moved++;
+            }
+        }
+        return (double) moved / before.length;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.consistenthashing;
+
+import java.util.Locale;
+
+/**
+ * Available placement engines, selectable per deployment through the
+ * {@code consistent-hashing.engine} property.
+ */
+public enum PlacementEngineType {
+    RING,
+    MAGLEV,
+    JUMP,
+    ANCHOR,
+    RENDEZVOUS;
+
+    /**
+     * Creates an empty engine of this type.
+     *
+     * @param virtualNodesPerPhysicalNode Virtual nodes per node for the ring engine
+     * @param maxReplicas                 Precomputed replica list length for the ring engine
+     * @param loadBalanceFactor           Bounded-load &epsilon; for the ring engine; negative disables it
+     * @param lookupMemoSize              Lookup memo slots for the ring engine; 0 disables it
+     * @param zoneAwareReplicas           Whether the ring engine spreads replicas over zones
+     * @param maglevTableSize             Lookup table size for the Maglev engine
+     * @param anchorCapacity              Maximum node count for the AnchorHash engine
+     * @return A new, empty engine
+     */
+    public PlacementEngine create(int virtualNodesPerPhysicalNode, int maxReplicas, double loadBalanceFactor,
+            int lookupMemoSize, boolean zoneAwareReplicas, int maglevTableSize, int anchorCapacity) {
+        return switch (this) {
+            case RING -> new ConsistentHashRing(virtualNodesPerPhysicalNode, "#", maxReplicas, loadBalanceFactor,
+                    lookupMemoSize, zoneAwareReplicas);
+            case MAGLEV -> new MaglevHashEngine(maglevTableSize);
+            case JUMP -> new JumpHashEngine();
+            case ANCHOR -> new AnchorHashEngine(anchorCapacity);
+            case RENDEZVOUS -> new RendezvousHashEngine();
+        };
+    }
+
+    /**
+     * Creates an empty engine of this type with default settings.
+     *
+     * @return A new, empty engine
+     */
+    public PlacementEngine create() {
+        return create(150, ConsistentHashRing.DEFAULT_MAX_REPLICAS, ConsistentHashRing.UNBOUNDED, 0, false,
+                MaglevHashEngine.DEFAULT_TABLE_SIZE, AnchorHashEngine.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Resolves an engine type from its configuration name.
+     *
+     * @param name Engine name, case-insensitive
+     * @return The matching engine type
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    public static PlacementEngineType fromName(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.consistenthashing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The hash ranges that change owner between two ring layouts. Each move
+ * covers the keys whose hash lies in (startExclusive, endInclusive] on the
+ * ring; a range with {@code startExclusive >= endInclusive} wraps around
+ * through {@link Long#MIN_VALUE}. Adjacent ranges with the same source and
+ * target are coalesced, so a data mover can stream each range as one scan.
+ *
+ * @param change        Description of the membership change
+ * @param moves         Ranges that change owner, in ring order
+ * @param movedFraction Fraction of the hash space that changes owner
+ */
+public record RebalancePlan(String change, List<RangeMove> moves, double movedFraction) {
+
+    /**
+     * A hash range moving from one node to another.
+     *
+     * @param startExclusive Hash just before the range
+     * @param endInclusive   Last hash in the range
+     * @param fromNodeId     Current owner, or null if the ring was empty
+     * @param toNodeId       Owner after the change, or null if the ring becomes empty
+     * @param fraction       Fraction of the hash space covered by the range
+     */
+    public record RangeMove(long startExclusive, long endInclusive, String fromNodeId, String toNodeId,
+            double fraction) {
+
+        /**
+         * Checks whether a key hash falls inside this range.
+         *
+         * @param hash The key hash
+         * @return true if the key moves with this range
+         */
+        public boolean contains(long hash) {
+            if (startExclusive < endInclusive) {
+                return hash > startExclusive && hash <= endInclusive;
+            }
+            return hash > startExclusive || hash <= endInclusive;
+        }
+    }
+
+    /**
+     * Diffs two ring layouts. Every token of either layout is an arc boundary;
+     * each arc between consecutive boundaries has a single owner in both
+     * layouts, so comparing those owners yields the exact moved ranges.
+     *
+     * @param change Description of the membership change
+     * @param before Current layout
+     * @param after  Proposed layout
+     * @return The plan
+     */
+    static RebalancePlan diff(String change, RingSnapshot before, RingSnapshot after) {
+        long[] boundaries = boundaries(before, after);
+        List<RangeMove> moves = new ArrayList<>();
+        if (boundaries.length == 0) {
+            return new RebalancePlan(change, moves, 0);
+        }
+
+        double movedFraction = 0;
+        long previous = boundaries[boundaries.length - 1];
+        for (long boundary : boundaries) {
+            String from = ownerId(before, boundary);
+            String to = ownerId(after, boundary);
+            if (!Objects.equals(from, to)) {
+                double fraction = boundaries.length == 1 ? 1.0 : arcFraction(previous, boundary);
+                movedFraction += fraction;
+                RangeMove last = moves.isEmpty() ? null : moves.get(moves.size() - 1);
+                if (last != null && last.endInclusive() == previous
+                        && Objects.equals(last.fromNodeId(), from)
+                        && Objects.equals(last.toNodeId(), to)) {
+                    moves.set(moves.size() - 1, new RangeMove(last.startExclusive(), boundary, from, to,
+                            last.fraction() + fraction));
+                } else {
+                    moves.add(new RangeMove(previous, boundary, from, to, fraction));
+                }
+            }
+            previous = boundary;
+        }
+
+        // The first and last ranges meet across the wrap point
+        if (moves.size() > 1) {
+            RangeMove first = moves.get(0);
+            RangeMove last = moves.get(moves.size() - 1);
+            if (last.endInclusive() == first.startExclusive()
+                    && Objects.equals(last.fromNodeId(), first.fromNodeId())
+                    && Objects.equals(last.toNodeId(), first.toNodeId())) {
+                moves.set(0, new RangeMove(last.startExclusive(), first.endInclusive(), first.fromNodeId(),
+                        first.toNodeId(), first.fraction() + last.fraction()));
+                moves.remove(moves.size() - 1);
+            }
+        }
+        return new RebalancePlan(change, List.copyOf(moves), movedFraction);
+    }
+
+    private static long[] boundaries(RingSnapshot before, RingSnapshot after) {
+        long[] all = new long[before.tokenCount() + after.tokenCount()];
+        for (int i = 0; i < before.tokenCount(); i++) {
+            all[i] = before.tokenAt(i);
+        }
+        for (int i = 0; i < after.tokenCount(); i++) {
+            all[before.tokenCount() + i] = after.tokenAt(i);
+        }
+        Arrays.sort(all);
+        return Arrays.stream(all).distinct().toArray();
+    }
+
+    private static String ownerId(RingSnapshot snapshot, long hash) {
+        if (snapshot.isEmpty()) {
+            return null;
+        }
+        return snapshot.ownerAt(snapshot.positionFor(hash)).getId();
+    }
+
+    private static double arcFraction(long startExclusive, long endInclusive) {
+        long length = endInclusive - startExclusive;
+        double unsigned = length >= 0 ? length : (double) (length >>> 1) * 2.0;
+        return unsigned / 0x1p64;
+    }
+}
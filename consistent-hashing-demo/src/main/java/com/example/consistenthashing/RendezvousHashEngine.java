@@ -0,0 +1,321 @@
+package com.example.consistenthashing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Placement engine based on rendezvous, or highest random weight, hashing
+ * (Thaler and Ravishankar, 1998). Every node scores every key and the key
+ * goes to the highest score; replicas are the next highest. There are no
+ * virtual nodes, so memory is a few words per node and removing a node only
+ * moves the keys it owned.
+ * <p>
+ * A lookup costs one hash mix per node, which makes the engine a good fit
+ * for small clusters: {@code RendezvousVsRingBenchmark} has it ahead of the
+ * ring up to a few dozen nodes. The scoring loop reads only flat primitive
+ * arrays of node seeds and weights. Weighted nodes use the logarithmic
+ * method, scoring {@code -weight / ln(u)} for a uniform {@code u} drawn from
+ * the mixed hash, so each node owns its weight's share of the key space.
+ */
+public class RendezvousHashEngine implements PlacementEngine {
+    private static final Logger logger = LoggerFactory.getLogger(RendezvousHashEngine.class);
+
+    /**
+     * Node count above which the per-key scan is typically slower than a ring
+     * lookup.
+     */
+    public static final int RECOMMENDED_MAX_NODES = 32;
+
+    private final Map<String, ConsistentHashRing.Node> physicalNodes;
+    private final Lock writeLock;
+    private volatile Members members;
+
+    public RendezvousHashEngine() {
+        this.physicalNodes = new LinkedHashMap<>();
+        this.writeLock = new ReentrantLock();
+        this.members = Members.EMPTY;
+    }
+
+    @Override
+    public String getName() {
+        return "rendezvous";
+    }
+
+    @Override
+    public boolean addNode(String nodeId, String nodeAddress) {
+        return addNode(nodeId, nodeAddress, 1.0);
+    }
+
+    @Override
+    public boolean addNode(String nodeId, String nodeAddress, double weight) {
+        return addNode(nodeId, nodeAddress, weight, null);
+    }
+
+    @Override
+    public boolean addNode(String nodeId, String nodeAddress, double weight, String zone) {
+        validateWeight(weight);
+        writeLock.lock();
+        try {
+            if (physicalNodes.containsKey(nodeId)) {
+                logger.warn("Node {} already exists in the rendezvous engine", nodeId);
+                return false;
+            }
+            physicalNodes.put(nodeId, new ConsistentHashRing.Node(nodeId, nodeAddress, weight, zone));
+            publish();
+            logger.info("Added node {} with weight {} to the rendezvous engine", nodeId, weight);
+            if (physicalNodes.size() == RECOMMENDED_MAX_NODES + 1) {
+                logger.warn("Rendezvous engine has more than {} nodes; the ring engine looks keys up faster",
+                        RECOMMENDED_MAX_NODES);
+            }
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean updateWeight(String nodeId, double weight) {
+        validateWeight(weight);
+        writeLock.lock();
+        try {
+            ConsistentHashRing.Node node = physicalNodes.get(nodeId);
+            if (node == null) {
+                logger.warn("Node {} does not exist in the rendezvous engine", nodeId);
+                return false;
+            }
+            physicalNodes.put(nodeId, node.withWeight(weight));
+            publish();
+            logger.info("Updated weight of node {} to {}", nodeId, weight);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean removeNode(String nodeId) {
+        writeLock.lock();
+        try {
+            if (physicalNodes.remove(nodeId) == null) {
+                logger.warn("Node {} does not exist in the rendezvous engine", nodeId);
+                return false;
+            }
+            publish();
+            logger.info("Removed node {} from the rendezvous engine", nodeId);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public ConsistentHashRing.Node getNode(String key) {
+        if (key == null || key.trim().isEmpty()) {
+            logger.warn("Invalid key provided: {}", key);
+            return null;
+        }
+
+        ConsistentHashRing.Node node = getNodeByHash(KeyHasher.hash(key));
+        if (node == null) {
+            logger.warn("Rendezvous engine has no nodes, cannot find node for key: {}", key);
+            return null;
+        }
+        logger.debug("Key '{}' mapped to node: {}", key, node.getId());
+        return node;
+    }
+
+    @Override
+    public ConsistentHashRing.Node getNodeByHash(long keyHash) {
+        Members current = members;
+        if (current.nodes.length == 0) {
+            return null;
+        }
+        return current.nodes[current.weighted ? bestWeighted(current, keyHash) : best(current, keyHash)];
+    }
+
+    /**
+     * Gets multiple distinct nodes for a key, in descending score order, so the
+     * first is the key's primary node.
+     */
+    @Override
+    public List<ConsistentHashRing.Node> getNodes(String key, int count) {
+        if (key == null || key.trim().isEmpty()) {
+            logger.warn("Invalid key provided: {}", key);
+            return Collections.emptyList();
+        }
+
+        if (members.nodes.length == 0) {
+            logger.warn("Rendezvous engine has no nodes, cannot find nodes for key: {}", key);
+            return Collections.emptyList();
+        }
+        return getNodesByHash(KeyHasher.hash(key), count);
+    }
+
+    @Override
+    public List<ConsistentHashRing.Node> getNodesByHash(long keyHash, int count) {
+        Members current = members;
+        int n = current.nodes.length;
+        int wanted = Math.min(count, n);
+        if (wanted <= 0) {
+            return Collections.emptyList();
+        }
+        if (wanted == 1) {
+            return List.of(current.nodes[current.weighted ? bestWeighted(current, keyHash) : best(current, keyHash)]);
+        }
+
+        // Score once, then select the top entries; n is small so a partial
+        // selection beats sorting
+        double[] scores = new double[n];
+        if (current.weighted) {
+            for (int i = 0; i < n; i++) {
+                scores[i] = weightedScore(current.weights[i], KeyHasher.mix(keyHash ^ current.seeds[i]));
+            }
+        } else {
+            for (int i = 0; i < n; i++) {
+                scores[i] = KeyHasher.mix(keyHash ^ current.seeds[i]) >>> 11;
+            }
+        }
+
+        List<ConsistentHashRing.Node> nodes = new ArrayList<>(wanted);
+        for (int picked = 0; picked < wanted; picked++) {
+            int best = 0;
+            for (int i = 1; i < n; i++) {
+                if (scores[i] > scores[best]) {
+                    best = i;
+                }
+            }
+            nodes.add(current.nodes[best]);
+            scores[best] = Double.NEGATIVE_INFINITY;
+        }
+        return nodes;
+    }
+
+    @Override
+    public ConsistentHashRing.HashRingStats getStats() {
+        Members current = members;
+        Map<String, Integer> distribution = new HashMap<>();
+        Map<String, Double> expectedOwnership = new HashMap<>();
+        double totalWeight = 0;
+        for (double weight : current.weights) {
+            totalWeight += weight;
+        }
+        for (int i = 0; i < current.nodes.length; i++) {
+            distribution.put(current.nodes[i].getId(), 1);
+            expectedOwnership.put(current.nodes[i].getId(), current.weights[i] / totalWeight);
+        }
+        return new ConsistentHashRing.HashRingStats(current.nodes.length, current.nodes.length, 1, distribution,
+                expectedOwnership, Collections.emptyMap());
+    }
+
+    @Override
+    public Set<ConsistentHashRing.Node> getAllNodes() {
+        return new HashSet<>(Arrays.asList(members.nodes));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return members.nodes.length == 0;
+    }
+
+    @Override
+    public int getNodeCount() {
+        return members.nodes.length;
+    }
+
+    @Override
+    public long estimateMemoryBytes() {
+        // Node reference, seed and weight per node
+        return (long) members.nodes.length * (8 + Long.BYTES + Double.BYTES);
+    }
+
+    /**
+     * Finds the highest scoring node when all weights are equal. Scores are
+     * the top 53 bits of the mixed hash, which orders nodes exactly like the
+     * weighted score does for equal weights.
+     */
+    private static int best(Members current, long keyHash) {
+        long[] seeds = current.seeds;
+        int best = 0;
+        long bestScore = KeyHasher.mix(keyHash ^ seeds[0]) >>> 11;
+        for (int i = 1; i < seeds.length; i++) {
+            long score = KeyHasher.mix(keyHash ^ seeds[i]) >>> 11;
+            if (score > bestScore) {
+                best = i;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    private static int bestWeighted(Members current, long keyHash) {
+        long[] seeds = current.seeds;
+        double[] weights = current.weights;
+        int best = 0;
+        double bestScore = weightedScore(weights[0], KeyHasher.mix(keyHash ^ seeds[0]));
+        for (int i = 1; i < seeds.length; i++) {
+            double score = weightedScore(weights[i], KeyHasher.mix(keyHash ^ seeds[i]));
+            if (score > bestScore) {
+                best = i;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Scores a node by weight and mixed hash. The hash's top 53 bits map to a
+     * uniform value in (0, 1); {@code -weight / ln(u)} grows with both.
+     */
+    private static double weightedScore(double weight, long mixed) {
+        double uniform = ((mixed >>> 11) + 0.5) * 0x1.0p-53;
+        return -weight / Math.log(uniform);
+    }
+
+    private static void validateWeight(double weight) {
+        if (!(weight > 0) || Double.isInfinite(weight)) {
+            throw new IllegalArgumentException("Node weight must be positive and finite: " + weight);
+        }
+    }
+
+    /**
+     * Publishes the current membership as flat arrays. Must be called with the
+     * write lock held.
+     */
+    private void publish() {
+        ConsistentHashRing.Node[] nodes = physicalNodes.values().toArray(new ConsistentHashRing.Node[0]);
+        long[] seeds = new long[nodes.length];
+        double[] weights = new double[nodes.length];
+        boolean weighted = false;
+        for (int i = 0; i < nodes.length; i++) {
+            seeds[i] = KeyHasher.hash(nodes[i].getId());
+            weights[i] = nodes[i].getWeight();
+            weighted |= weights[i] != weights[0];
+        }
+        members = new Members(nodes, seeds, weights, weighted);
+    }
+
+    /**
+     * Immutable membership: nodes with their hash seeds and weights, index
+     * aligned. {@code weighted} is false when all weights are equal, which
+     * lets lookups skip the logarithm.
+     */
+    private static final class Members {
+        static final Members EMPTY = new Members(new ConsistentHashRing.Node[0], new long[0], new double[0], false);
+
+        final ConsistentHashRing.Node[] nodes;
+        final long[] seeds;
+        final double[] weights;
+        final boolean weighted;
+
+        Members(ConsistentHashRing.Node[] nodes, long[] seeds, double[] weights, boolean weighted) {
+            this.nodes = nodes;
+            this.seeds = seeds;
+            this.weights = weights;
+            this.weighted = weighted;
+        }
+    }
+}
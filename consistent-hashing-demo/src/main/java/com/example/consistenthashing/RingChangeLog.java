@@ -0,0 +1,137 @@
+package com.example.consistenthashing;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Bounded log of the node changes behind each ring version, so replicas can
+ * catch up with a delta instead of reloading the whole membership. Only the
+ * most recent versions are retained; older requests are told to reset.
+ * <p>
+ * Callers can also wait for the next version. Waiters are completed off the
+ * appending thread, which holds the ring's write lock.
+ */
+final class RingChangeLog {
+
+    /**
+     * Default number of versions retained.
+     */
+    static final int DEFAULT_CAPACITY = 1024;
+
+    private final int capacity;
+    private final Deque<RingChanges.Version> versions;
+    private final List<CompletableFuture<Void>> waiters;
+    private long baseVersion;
+    private long latestVersion;
+
+    RingChangeLog(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Change log capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.versions = new ArrayDeque<>();
+        this.waiters = new ArrayList<>();
+    }
+
+    /**
+     * Records the changes published under the next version.
+     *
+     * @param version The version, one above the latest
+     * @param changes The node changes
+     */
+    void append(long version, List<RingChanges.NodeChange> changes) {
+        List<CompletableFuture<Void>> woken;
+        synchronized (this) {
+            if (version != latestVersion + 1) {
+                throw new IllegalStateException("Ring version " + version + " does not follow " + latestVersion);
+            }
+            versions.addLast(new RingChanges.Version(version, List.copyOf(changes)));
+            if (versions.size() > capacity) {
+                baseVersion = versions.removeFirst().version();
+            }
+            latestVersion = version;
+            woken = drainWaiters();
+        }
+        wake(woken);
+    }
+
+    /**
+     * Discards the log and continues from a version whose history is unknown,
+     * such as one restored from a snapshot file.
+     *
+     * @param version The current version
+     */
+    void reset(long version) {
+        List<CompletableFuture<Void>> woken;
+        synchronized (this) {
+            versions.clear();
+            baseVersion = version;
+            latestVersion = version;
+            woken = drainWaiters();
+        }
+        wake(woken);
+    }
+
+    /**
+     * Gets the changes after a version.
+     *
+     * @param since Version the caller has
+     * @return The changes, or a reset if they are no longer retained
+     */
+    synchronized RingChanges since(long since) {
+        if (since < baseVersion || since > latestVersion) {
+            return new RingChanges(since, latestVersion, true, List.of());
+        }
+        List<RingChanges.Version> newer = new ArrayList<>();
+        for (RingChanges.Version version : versions) {
+            if (version.version() > since) {
+                newer.add(version);
+            }
+        }
+        return new RingChanges(since, latestVersion, false, newer);
+    }
+
+    /**
+     * Returns a future completed once the ring moves past a version. Each
+     * call gets its own future, so a caller may time it out independently.
+     *
+     * @param version Version the caller has
+     * @return The future, already complete if the ring is past the version
+     */
+    synchronized CompletableFuture<Void> awaitAfter(long version) {
+        if (version != latestVersion) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> waiter = new CompletableFuture<>();
+        waiters.add(waiter);
+        // A waiter that timed out leaves the list right away
+        waiter.whenComplete((ignored, error) -> {
+            synchronized (this) {
+                waiters.remove(waiter);
+            }
+        });
+        return waiter;
+    }
+
+    synchronized long latestVersion() {
+        return latestVersion;
+    }
+
+    private List<CompletableFuture<Void>> drainWaiters() {
+        if (waiters.isEmpty()) {
+            return List.of();
+        }
+        List<CompletableFuture<Void>> drained = new ArrayList<>(waiters);
+        waiters.clear();
+        return drained;
+    }
+
+    private static void wake(List<CompletableFuture<Void>> woken) {
+        if (!woken.isEmpty()) {
+            CompletableFuture.runAsync(() -> woken.forEach(waiter -> waiter.complete(null)));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.consistenthashing;
+
+import java.util.List;
+
+/**
+ * The membership changes a ring went through after a given version. A
+ * version is the ring epoch: it increases by one with every published
+ * layout, and a layout published for a batch carries all of the batch's
+ * node changes under a single version.
+ *
+ * @param fromVersion   Version the changes were requested after
+ * @param toVersion     Current version of the ring
+ * @param resetRequired True if the changes after {@code fromVersion} are no
+ *                      longer retained, or the version is unknown; the caller
+ *                      must reload the full {@link RingMembership}
+ * @param versions      Versions after {@code fromVersion}, oldest first
+ */
+public record RingChanges(long fromVersion, long toVersion, boolean resetRequired, List<Version> versions) {
+
+    /**
+     * The node changes published under one version. Removals come before
+     * additions, in the order they were applied.
+     *
+     * @param version The version
+     * @param changes Node changes
+     */
+    public record Version(long version, List<NodeChange> changes) {
+    }
+
+    /**
+     * A single node change.
+     *
+     * @param type        Kind of change
+     * @param nodeId      Unique identifier of the node
+     * @param nodeAddress Network address of the node; null for a removal
+     * @param weight      Node weight after the change; 0 for a removal
+     * @param zone        Failure domain of the node; null for a removal or an
+     *                    unlabelled node
+     */
+    public record NodeChange(Type type, String nodeId, String nodeAddress, double weight, String zone) {
+
+        public enum Type {
+            ADD, REMOVE, REWEIGHT
+        }
+
+        static NodeChange added(ConsistentHashRing.Node node) {
+            return new NodeChange(Type.ADD, node.getId(), node.getAddress(), node.getWeight(), node.getZone());
+        }
+
+        static NodeChange removed(String nodeId) {
+            return new NodeChange(Type.REMOVE, nodeId, null, 0, null);
+        }
+
+        static NodeChange reweighted(ConsistentHashRing.Node node) {
+            return new NodeChange(Type.REWEIGHT, node.getId(), node.getAddress(), node.getWeight(),
+                    node.getZone());
+        }
+    }
+
+    /**
+     * Checks whether there is nothing to apply.
+     *
+     * @return true if the caller is up to date
+     */
+    public boolean isEmpty() {
+        return !resetRequired && versions.isEmpty();
+    }
+}
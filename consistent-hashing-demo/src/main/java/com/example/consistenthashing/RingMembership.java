@@ -0,0 +1,46 @@
+package com.example.consistenthashing;
+
+import java.util.List;
+
+/**
+ * A full description of a ring layout at one version. Virtual node tokens
+ * are a pure function of the node IDs, weights and these settings, so a
+ * client can rebuild the exact layout from it and route keys locally.
+ *
+ * @param version                     Ring epoch of the layout
+ * @param virtualNodesPerPhysicalNode Virtual nodes of a node with weight 1.0
+ * @param virtualNodeSuffix           Separator between node ID and virtual node index
+ * @param maxReplicas                 Length of the precomputed preference lists
+ * @param zoneAwareReplicas           Whether replica lists spread over zones
+ * @param members                     Nodes on the ring
+ */
+public record RingMembership(long version, int virtualNodesPerPhysicalNode, String virtualNodeSuffix,
+        int maxReplicas, boolean zoneAwareReplicas, List<Member> members) {
+
+    /**
+     * A node on the ring.
+     *
+     * @param nodeId      Unique identifier of the node
+     * @param nodeAddress Network address of the node
+     * @param weight      Relative capacity of the node
+     * @param zone        Failure domain of the node, or null if unlabelled
+     */
+    public record Member(String nodeId, String nodeAddress, double weight, String zone) {
+    }
+
+    /**
+     * Builds a local ring with this layout.
+     *
+     * @return A new ring; its own epoch is unrelated to {@link #version}
+     */
+    public ConsistentHashRing toRing() {
+        ConsistentHashRing ring = new ConsistentHashRing(virtualNodesPerPhysicalNode, virtualNodeSuffix, maxReplicas,
+                ConsistentHashRing.UNBOUNDED, 0, zoneAwareReplicas);
+        MembershipBatch batch = new MembershipBatch();
+        for (Member member : members) {
+            batch.add(member.nodeId(), member.nodeAddress(), member.weight(), member.zone());
+        }
+        ring.applyBatch(batch);
+        return ring;
+    }
+}
@@ -0,0 +1,636 @@
+package com.example.consistenthashing;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable, array-backed view of the hash ring used by the lookup path.
+ * Tokens are kept sorted in a primitive array with a parallel array of owner
+ * slots into {@link #nodes}, so a lookup is a single binary search with no
+ * locking and no pointer chasing. A new snapshot is derived on every
+ * membership change and published atomically by {@link ConsistentHashRing}.
+ * <p>
+ * Node slots are stable: removing a node leaves a hole that the next added
+ * node reuses, so owner values never need to be renumbered and a membership
+ * change only has to splice the affected node's tokens in or out.
+ * <p>
+ * Each token also carries a precomputed preference list: the first
+ * {@code maxReplicas} distinct owners found walking clockwise from it. A
+ * replica lookup is then one binary search plus an array slice.
+ * <p>
+ * In zone-aware mode the lists spread replicas over failure domains: walking
+ * clockwise, a node whose zone is already on the list is passed over until
+ * every zone is represented, and the passed-over nodes then fill the
+ * remaining places in walk order. The primary is always the token's owner.
+ * <p>
+ * Every derived snapshot carries the next epoch, so a token position cached
+ * together with its epoch is valid exactly as long as the epoch is current.
+ */
+final class RingSnapshot {
+
+    private final long[] tokens;
+    private final int[] owners;
+    private final ConsistentHashRing.Node[] nodes;
+    private final int nodeCount;
+    private final int maxReplicas;
+    private final boolean zoneAware;
+    private final int[] zoneIds;
+    private final int zoneCount;
+    private final int listLength;
+    private final int[] preferences;
+    private final long epoch;
+
+    private RingSnapshot(long[] tokens, int[] owners, ConsistentHashRing.Node[] nodes, int nodeCount,
+            int maxReplicas, boolean zoneAware, long epoch) {
+        this.tokens = tokens;
+        this.owners = owners;
+        this.nodes = nodes;
+        this.nodeCount = nodeCount;
+        this.maxReplicas = maxReplicas;
+        this.zoneAware = zoneAware;
+        this.zoneIds = new int[nodes.length];
+        this.zoneCount = numberZones(nodes, zoneIds);
+        this.listLength = Math.min(maxReplicas, distinctOwners(owners, nodes.length));
+        this.preferences = buildPreferences();
+        this.epoch = epoch;
+    }
+
+    /**
+     * Numbers the distinct zones of the live nodes, unlabelled nodes sharing
+     * one, and records each slot's zone number.
+     *
+     * @return Number of distinct zones
+     */
+    private static int numberZones(ConsistentHashRing.Node[] nodes, int[] zoneIds) {
+        Map<String, Integer> numbers = new HashMap<>();
+        for (int slot = 0; slot < nodes.length; slot++) {
+            zoneIds[slot] = nodes[slot] == null ? -1 : numbers.computeIfAbsent(nodes[slot].getZone(),
+                    zone -> numbers.size());
+        }
+        return numbers.size();
+    }
+
+    private static int distinctOwners(int[] owners, int slotCount) {
+        boolean[] seen = new boolean[slotCount];
+        int distinct = 0;
+        for (int owner : owners) {
+            if (!seen[owner]) {
+                seen[owner] = true;
+                distinct++;
+            }
+        }
+        return distinct;
+    }
+
+    /**
+     * Creates an empty snapshot.
+     *
+     * @param maxReplicas Length of the precomputed preference lists
+     * @param zoneAware   Whether preference lists spread over zones
+     * @return An empty snapshot
+     */
+    static RingSnapshot empty(int maxReplicas, boolean zoneAware) {
+        return new RingSnapshot(new long[0], new int[0], new ConsistentHashRing.Node[0], 0, maxReplicas, zoneAware,
+                0);
+    }
+
+    /**
+     * Recreates a snapshot from its persisted parts. Preference lists are
+     * rebuilt; no token is rehashed.
+     *
+     * @param tokens      Sorted tokens
+     * @param owners      Owner slot of each token
+     * @param nodes       Node per slot, with null for free slots
+     * @param maxReplicas Length of the precomputed preference lists
+     * @param zoneAware   Whether preference lists spread over zones
+     * @param epoch       Epoch the snapshot was published with
+     * @return The snapshot
+     * @throws IllegalArgumentException if the parts are inconsistent
+     */
+    static RingSnapshot restore(long[] tokens, int[] owners, ConsistentHashRing.Node[] nodes, int maxReplicas,
+            boolean zoneAware, long epoch) {
+        if (tokens.length != owners.length) {
+            throw new IllegalArgumentException("Token and owner counts differ");
+        }
+        for (int position = 0; position < tokens.length; position++) {
+            if (position > 0 && tokens[position] <= tokens[position - 1]) {
+                throw new IllegalArgumentException("Tokens are not strictly ascending at position " + position);
+            }
+            int owner = owners[position];
+            if (owner < 0 || owner >= nodes.length || nodes[owner] == null) {
+                throw new IllegalArgumentException("Token at position " + position + " has no owner");
+            }
+        }
+        int nodeCount = 0;
+        for (ConsistentHashRing.Node node : nodes) {
+            if (node != null) {
+                nodeCount++;
+            }
+        }
+        return new RingSnapshot(tokens, owners, nodes, nodeCount, maxReplicas, zoneAware, epoch);
+    }
+
+    /**
+     * Builds the flattened preference lists back to front. The list at a token
+     * is its own owner followed by the next token's list minus that owner, so
+     * every list is derived in O(maxReplicas).
+     */
+    private int[] buildPreferences() {
+        int length = listLength;
+        int count = tokens.length;
+        int[] lists = new int[count * length];
+        if (count == 0 || length == 0) {
+            return lists;
+        }
+
+        // Seed the last token's list by walking clockwise, wrapping once
+        boolean[] seen = new boolean[nodes.length];
+        int filled = 0;
+        int base = (count - 1) * length;
+        for (int step = 0; step < count && filled < length; step++) {
+            int owner = owners[(count - 1 + step) % count];
+            if (!seen[owner]) {
+                seen[owner] = true;
+                lists[base + filled++] = owner;
+            }
+        }
+
+        for (int position = count - 2; position >= 0; position--) {
+            int target = position * length;
+            int source = target + length;
+            int owner = owners[position];
+            lists[target] = owner;
+            int out = 1;
+            for (int k = 0; k < length && out < length; k++) {
+                int candidate = lists[source + k];
+                if (candidate != owner) {
+                    lists[target + out++] = candidate;
+                }
+            }
+        }
+        return zoneAware && zoneCount > 1 ? spreadOverZones(lists) : lists;
+    }
+
+    /**
+     * Derives the zone-aware lists from the plain ones. Walking clockwise, the
+     * first node met in each zone is the one that brings the zone onto the
+     * list, and every other node keeps its plain walk order behind them. A
+     * second backward pass keeps the zones ordered by how soon they come up
+     * clockwise, so each list costs O(maxReplicas) plus moving one zone to the
+     * front, rather than a walk until every zone has been seen.
+     */
+    private int[] spreadOverZones(int[] plain) {
+        int length = listLength;
+        int count = tokens.length;
+        int[] lists = new int[count * length];
+        int[] zoneOrder = new int[zoneCount];
+        int[] nearestInZone = new int[zoneCount];
+        int[] slotStamps = new int[nodes.length];
+        int zonesOrdered = 0;
+
+        // The first lap only sees what lies clockwise past the last token
+        for (int step = 2 * count - 1; step >= 0; step--) {
+            int position = step % count;
+            int slot = owners[position];
+            int zone = zoneIds[slot];
+            nearestInZone[zone] = slot;
+            int index = 0;
+            while (index < zonesOrdered && zoneOrder[index] != zone) {
+                index++;
+            }
+            if (index == zonesOrdered) {
+                zonesOrdered++;
+            }
+            System.arraycopy(zoneOrder, 0, zoneOrder, 1, index);
+            zoneOrder[0] = zone;
+            if (step >= count) {
+                continue;
+            }
+
+            int target = position * length;
+            int stamp = position + 1;
+            int filled = 0;
+            for (int k = 0; k < zonesOrdered && filled < length; k++) {
+                int nearest = nearestInZone[zoneOrder[k]];
+                slotStamps[nearest] = stamp;
+                lists[target + filled++] = nearest;
+            }
+            // Each node listed above skips at most one plain node, so the plain list is long enough
+            for (int k = 0; k < length && filled < length; k++) {
+                int candidate = plain[target + k];
+                if (slotStamps[candidate] != stamp) {
+                    lists[target + filled++] = candidate;
+                }
+            }
+        }
+        return lists;
+    }
+
+    /**
+     * Finds the slot a newly added node should occupy: the first hole left by a
+     * removed node, or a new slot at the end.
+     *
+     * @return Slot index
+     */
+    int freeSlot() {
+        for (int i = 0; i < nodes.length; i++) {
+            if (nodes[i] == null) {
+                return i;
+            }
+        }
+        return nodes.length;
+    }
+
+    /**
+     * Derives a snapshot with a node's tokens merged in. On a token collision
+     * the new node takes the position over.
+     *
+     * @param slot       Slot for the node, as returned by {@link #freeSlot()}
+     * @param node       The node to add
+     * @param nodeTokens The node's tokens, sorted and without duplicates
+     * @return A new snapshot
+     */
+    RingSnapshot withNode(int slot, ConsistentHashRing.Node node, long[] nodeTokens) {
+        ConsistentHashRing.Node[] newNodes = Arrays.copyOf(nodes, Math.max(nodes.length, slot + 1));
+        newNodes[slot] = node;
+        return merge(slot, nodeTokens, newNodes, nodeCount + 1);
+    }
+
+    /**
+     * Derives a snapshot with extra tokens merged in for a node already on the
+     * ring, replacing its node instance.
+     *
+     * @param slot        Slot of the node
+     * @param node        The node's updated instance
+     * @param addedTokens Tokens to add, sorted and without duplicates
+     * @return A new snapshot
+     */
+    RingSnapshot withTokens(int slot, ConsistentHashRing.Node node, long[] addedTokens) {
+        ConsistentHashRing.Node[] newNodes = nodes.clone();
+        newNodes[slot] = node;
+        return merge(slot, addedTokens, newNodes, nodeCount);
+    }
+
+    /**
+     * Derives a snapshot with a node's tokens spliced out. Only the node's own
+     * token positions are searched; the rest of the ring is bulk-copied.
+     *
+     * @param slot       Slot of the node to remove
+     * @param nodeTokens The node's tokens, sorted
+     * @return A new snapshot
+     */
+    RingSnapshot withoutNode(int slot, long[] nodeTokens) {
+        ConsistentHashRing.Node[] newNodes = nodes.clone();
+        newNodes[slot] = null;
+        return splice(slot, nodeTokens, newNodes, nodeCount - 1);
+    }
+
+    /**
+     * Derives a snapshot with some of a node's tokens spliced out while the
+     * node stays on the ring, replacing its node instance.
+     *
+     * @param slot          Slot of the node
+     * @param node          The node's updated instance
+     * @param removedTokens Tokens to remove, sorted
+     * @return A new snapshot
+     */
+    RingSnapshot withoutTokens(int slot, ConsistentHashRing.Node node, long[] removedTokens) {
+        ConsistentHashRing.Node[] newNodes = nodes.clone();
+        newNodes[slot] = node;
+        return splice(slot, removedTokens, newNodes, nodeCount);
+    }
+
+    /**
+     * Derives a snapshot for a whole batch of membership changes in a single
+     * pass: the tokens of vacated slots are dropped and the added nodes'
+     * tokens merged in, under one new epoch. On a token collision an added
+     * node takes the position over, the later of two added nodes winning.
+     *
+     * @param newNodes     Node per slot after the batch, with null for free slots
+     * @param vacatedSlots Current slots whose tokens are dropped, including
+     *                     slots reused by an added node
+     * @param addedSlots   Slot of each added node
+     * @param addedTokens  Tokens of each added node, sorted and without duplicates
+     * @return A new snapshot
+     */
+    RingSnapshot withMembership(ConsistentHashRing.Node[] newNodes, boolean[] vacatedSlots, int[] addedSlots,
+            long[][] addedTokens) {
+        int addedCount = 0;
+        for (long[] nodeTokens : addedTokens) {
+            addedCount += nodeTokens.length;
+        }
+        long[] added = new long[addedCount];
+        int[] addedOwners = new int[addedCount];
+        Integer[] order = new Integer[addedCount];
+        int next = 0;
+        for (int node = 0; node < addedTokens.length; node++) {
+            for (long token : addedTokens[node]) {
+                added[next] = token;
+                addedOwners[next] = addedSlots[node];
+                order[next] = next;
+                next++;
+            }
+        }
+        // Ties keep batch order, so the last of a run of equal tokens is the later node
+        Arrays.sort(order, (a, b) -> Long.compare(added[a], added[b]));
+
+        long[] merged = new long[tokens.length + addedCount];
+        int[] mergedOwners = new int[merged.length];
+        int i = 0;
+        int j = 0;
+        int out = 0;
+        while (i < tokens.length || j < addedCount) {
+            if (i < tokens.length && vacatedSlots[owners[i]]) {
+                i++;
+            } else if (j == addedCount || (i < tokens.length && tokens[i] < added[order[j]])) {
+                merged[out] = tokens[i];
+                mergedOwners[out++] = owners[i++];
+            } else {
+                long token = added[order[j]];
+                while (j + 1 < addedCount && added[order[j + 1]] == token) {
+                    j++;
+                }
+                if (i < tokens.length && tokens[i] == token) {
+                    i++;
+                }
+                merged[out] = token;
+                mergedOwners[out++] = addedOwners[order[j++]];
+            }
+        }
+
+        int newNodeCount = 0;
+        for (ConsistentHashRing.Node node : newNodes) {
+            if (node != null) {
+                newNodeCount++;
+            }
+        }
+        return new RingSnapshot(Arrays.copyOf(merged, out), Arrays.copyOf(mergedOwners, out), newNodes,
+                newNodeCount, maxReplicas, zoneAware, epoch + 1);
+    }
+
+    private RingSnapshot merge(int slot, long[] addedTokens, ConsistentHashRing.Node[] newNodes, int newNodeCount) {
+        long[] merged = new long[tokens.length + addedTokens.length];
+        int[] mergedOwners = new int[merged.length];
+        int i = 0;
+        int j = 0;
+        int out = 0;
+        while (i < tokens.length || j < addedTokens.length) {
+            if (j == addedTokens.length || (i < tokens.length && tokens[i] < addedTokens[j])) {
+                merged[out] = tokens[i];
+                mergedOwners[out++] = owners[i++];
+            } else {
+                if (i < tokens.length && tokens[i] == addedTokens[j]) {
+                    i++;
+                }
+                merged[out] = addedTokens[j++];
+                mergedOwners[out++] = slot;
+            }
+        }
+
+        if (out < merged.length) {
+            merged = Arrays.copyOf(merged, out);
+            mergedOwners = Arrays.copyOf(mergedOwners, out);
+        }
+        return new RingSnapshot(merged, mergedOwners, newNodes, newNodeCount, maxReplicas, zoneAware, epoch + 1);
+    }
+
+    private RingSnapshot splice(int slot, long[] removedTokens, ConsistentHashRing.Node[] newNodes,
+            int newNodeCount) {
+        int[] positions = new int[removedTokens.length];
+        int found = 0;
+        for (long token : removedTokens) {
+            int position = Arrays.binarySearch(tokens, token);
+            // Skip tokens another node took over on a collision
+            if (position >= 0 && owners[position] == slot) {
+                positions[found++] = position;
+            }
+        }
+
+        long[] remaining = new long[tokens.length - found];
+        int[] remainingOwners = new int[remaining.length];
+        int from = 0;
+        int out = 0;
+        for (int p = 0; p < found; p++) {
+            int length = positions[p] - from;
+            System.arraycopy(tokens, from, remaining, out, length);
+            System.arraycopy(owners, from, remainingOwners, out, length);
+            out += length;
+            from = positions[p] + 1;
+        }
+        System.arraycopy(tokens, from, remaining, out, tokens.length - from);
+        System.arraycopy(owners, from, remainingOwners, out, tokens.length - from);
+        return new RingSnapshot(remaining, remainingOwners, newNodes, newNodeCount, maxReplicas, zoneAware,
+                epoch + 1);
+    }
+
+    /**
+     * Computes the fraction of the 64-bit hash space each slot owns: every
+     * token owns the arc from the previous token up to itself.
+     *
+     * @return Ownership fraction per slot
+     */
+    double[] ownershipBySlot() {
+        double[] ownership = new double[nodes.length];
+        if (tokens.length == 1) {
+            ownership[owners[0]] = 1.0;
+            return ownership;
+        }
+        for (int position = 0; position < tokens.length; position++) {
+            long previous = tokens[position == 0 ? tokens.length - 1 : position - 1];
+            ownership[owners[position]] += unsignedToDouble(tokens[position] - previous) / 0x1p64;
+        }
+        return ownership;
+    }
+
+    private static double unsignedToDouble(long value) {
+        return value >= 0 ? value : (double) (value >>> 1) * 2.0;
+    }
+
+    /**
+     * Finds the position of the first token at or after the given hash, wrapping
+     * around to the start of the ring.
+     *
+     * @param hash The key hash
+     * @return Token position, or -1 if the ring has no tokens
+     */
+    int positionFor(long hash) {
+        if (tokens.length == 0) {
+            return -1;
+        }
+        int position = Arrays.binarySearch(tokens, hash);
+        if (position < 0) {
+            position = -position - 1;
+        }
+        return position == tokens.length ? 0 : position;
+    }
+
+    /**
+     * Gets the precomputed preference list at a token position, truncated to
+     * the requested size.
+     *
+     * @param position Token position
+     * @param count    Number of nodes wanted; must not exceed {@link #preferenceListLength()}
+     * @return Distinct nodes in clockwise order
+     */
+    ConsistentHashRing.Node[] preferenceList(int position, int count) {
+        ConsistentHashRing.Node[] list = new ConsistentHashRing.Node[count];
+        int base = position * listLength;
+        for (int k = 0; k < count; k++) {
+            list[k] = nodes[preferences[base + k]];
+        }
+        return list;
+    }
+
+    /**
+     * Walks the ring for a replica list longer than the precomputed ones,
+     * following the same zone rules.
+     *
+     * @param position Token position
+     * @param count    Number of nodes wanted
+     * @return Distinct nodes, at most the number of nodes owning tokens
+     */
+    ConsistentHashRing.Node[] walk(int position, int count) {
+        int[] slots = new int[Math.min(count, nodeCount)];
+        int filled = new Walker().walk(position, slots.length, slots, 0);
+        ConsistentHashRing.Node[] list = new ConsistentHashRing.Node[filled];
+        for (int k = 0; k < filled; k++) {
+            list[k] = nodes[slots[k]];
+        }
+        return list;
+    }
+
+    /**
+     * Gets the length of the precomputed preference lists: the configured
+     * maximum replication factor, capped at the number of nodes owning tokens.
+     *
+     * @return Preference list length
+     */
+    int preferenceListLength() {
+        return listLength;
+    }
+
+    /**
+     * Gets the epoch of this snapshot: 0 for an empty ring, incremented by
+     * every derivation.
+     *
+     * @return Epoch
+     */
+    long epoch() {
+        return epoch;
+    }
+
+    int maxReplicas() {
+        return maxReplicas;
+    }
+
+    boolean zoneAware() {
+        return zoneAware;
+    }
+
+    ConsistentHashRing.Node ownerAt(int position) {
+        return nodes[owners[position]];
+    }
+
+    int ownerSlotAt(int position) {
+        return owners[position];
+    }
+
+    long tokenAt(int position) {
+        return tokens[position];
+    }
+
+    int tokenCount() {
+        return tokens.length;
+    }
+
+    /**
+     * Gets the number of live nodes.
+     *
+     * @return Node count
+     */
+    int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Gets the number of node slots, including holes left by removed nodes.
+     *
+     * @return Slot count
+     */
+    int slotCount() {
+        return nodes.length;
+    }
+
+    /**
+     * Gets the node in a slot.
+     *
+     * @param slot Slot index
+     * @return The node, or null if the slot is free
+     */
+    ConsistentHashRing.Node nodeAt(int slot) {
+        return nodes[slot];
+    }
+
+    boolean isEmpty() {
+        return tokens.length == 0;
+    }
+
+    /**
+     * Collects replica lists by walking clockwise, reusing its scratch arrays
+     * across walks by stamping them with a per-walk number.
+     */
+    private final class Walker {
+        private final int zonesWanted = zoneAware ? Math.max(zoneCount, 1) : 1;
+        private final int[] slotStamps = new int[nodes.length];
+        private final int[] zoneStamps = new int[Math.max(zoneCount, 1)];
+        private int[] passedOver = new int[0];
+        private int stamp;
+
+        /**
+         * Writes up to {@code length} distinct owner slots, starting at a token,
+         * into {@code out}.
+         *
+         * @return Number of slots written
+         */
+        int walk(int position, int length, int[] out, int offset) {
+            stamp++;
+            if (passedOver.length < length) {
+                passedOver = new int[length];
+            }
+            int filled = 0;
+            int held = 0;
+            int zonesSeen = 0;
+            int count = tokens.length;
+            for (int step = 0; step < count && filled < length; step++) {
+                int slot = owners[(position + step) % count];
+                if (slotStamps[slot] == stamp) {
+                    continue;
+                }
+                slotStamps[slot] = stamp;
+                if (zonesSeen == zonesWanted) {
+                    out[offset + filled++] = slot;
+                } else if (zoneStamps[zoneIds[slot]] == stamp) {
+                    if (held < length) {
+                        passedOver[held++] = slot;
+                    }
+                } else {
+                    zoneStamps[zoneIds[slot]] = stamp;
+                    out[offset + filled++] = slot;
+                    if (++zonesSeen == zonesWanted) {
+                        for (int k = 0; k < held && filled < length; k++) {
+                            out[offset + filled++] = passedOver[k];
+                        }
+                    }
+                }
+            }
+            // A zone whose nodes lost every token to collisions is never seen
+            if (zonesSeen < zonesWanted) {
+                for (int k = 0; k < held && filled < length; k++) {
+                    out[offset + filled++] = passedOver[k];
+                }
+            }
+            return filled;
+        }
+    }
+}
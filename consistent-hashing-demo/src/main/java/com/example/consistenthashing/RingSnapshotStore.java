@@ -0,0 +1,299 @@
+package com.example.consistenthashing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Persists the ring layout to a compact binary file so a restart can serve
+ * lookups without rehashing every virtual node.
+ * <p>
+ * The file holds a header with the ring settings and epoch, the node table
+ * by slot, then the sorted tokens and their owner slots as raw big-endian
+ * arrays. Loading maps the file read-only and bulk-copies the arrays, so
+ * startup cost is a sequential read of the file, independent of how many
+ * tokens would otherwise have to be hashed.
+ * <p>
+ * Once {@link #attach attached}, every snapshot the ring publishes is
+ * written on a background thread. Writes coalesce: a burst of membership
+ * changes produces one write of the latest layout. Each write goes to a
+ * temporary file in the same directory, is forced to disk and then atomically
+ * renamed over the previous snapshot, so a crash never leaves a torn file.
+ */
+public class RingSnapshotStore implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(RingSnapshotStore.class);
+
+    private static final int MAGIC = 0x43485253; // "CHRS"
+    private static final int FORMAT_VERSION = 2;
+
+    private final Path path;
+    private final ExecutorService writer;
+    private final AtomicReference<RingSnapshot> pending;
+    private ConsistentHashRing attachedRing;
+    private Consumer<RingSnapshot> listener;
+
+    /**
+     * Creates a store for the given file.
+     *
+     * @param path Snapshot file; its directory is created on the first write
+     */
+    public RingSnapshotStore(Path path) {
+        this.path = path;
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ring-snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.pending = new AtomicReference<>();
+    }
+
+    /**
+     * Restores the ring from the snapshot file if it is empty and a usable
+     * file exists, then persists every layout the ring publishes from now on.
+     *
+     * @param ring The ring to restore and track
+     * @return true if the ring was restored from the file
+     */
+    public synchronized boolean attach(ConsistentHashRing ring) {
+        if (attachedRing != null) {
+            throw new IllegalStateException("Snapshot store " + path + " is already attached to a ring");
+        }
+        boolean restored = ring.isEmpty() && load(ring);
+        attachedRing = ring;
+        listener = snapshot -> schedule(snapshot, ring);
+        ring.addSnapshotListener(listener);
+        if (!restored && !ring.isEmpty()) {
+            schedule(ring.snapshot(), ring);
+        }
+        return restored;
+    }
+
+    /**
+     * Loads the snapshot file into an empty ring.
+     *
+     * @param ring The ring to restore
+     * @return true if the ring was restored; false if there is no file, it
+     *         does not match the ring's settings or it is unreadable
+     */
+    boolean load(ConsistentHashRing ring) {
+        if (!Files.isRegularFile(path)) {
+            logger.info("No ring snapshot at {}, starting with an empty ring", path);
+            return false;
+        }
+        long started = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            RingSnapshot snapshot = read(buffer, ring);
+            if (snapshot == null || !ring.restore(snapshot)) {
+                return false;
+            }
+            logger.info("Loaded ring snapshot {} ({} bytes) in {} ms", path, channel.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            return true;
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            logger.warn("Ignoring unreadable ring snapshot {}: {}", path, e.toString());
+            return false;
+        }
+    }
+
+    /**
+     * Writes a snapshot to the file immediately.
+     *
+     * @param snapshot The layout to persist
+     * @param ring     The ring whose settings are recorded with it
+     * @throws IOException if the file cannot be written
+     */
+    void write(RingSnapshot snapshot, ConsistentHashRing ring) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = encode(snapshot, ring);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Stops tracking the ring, waits for scheduled writes to finish and stops
+     * the writer thread.
+     */
+    @Override
+    public synchronized void close() {
+        if (attachedRing != null) {
+            attachedRing.removeSnapshotListener(listener);
+        }
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("Timed out flushing ring snapshot to {}", path);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gets the snapshot file.
+     *
+     * @return The path
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    private void schedule(RingSnapshot snapshot, ConsistentHashRing ring) {
+        // Only the first snapshot of a burst submits a task; it writes whatever is latest when it runs
+        if (pending.getAndSet(snapshot) == null) {
+            writer.execute(() -> flush(ring));
+        }
+    }
+
+    private void flush(ConsistentHashRing ring) {
+        RingSnapshot latest = pending.getAndSet(null);
+        if (latest == null) {
+            return;
+        }
+        try {
+            write(latest, ring);
+            logger.debug("Wrote ring snapshot at epoch {} to {}", latest.epoch(), path);
+        } catch (IOException e) {
+            logger.error("Failed to write ring snapshot to {}", path, e);
+        }
+    }
+
+    private static ByteBuffer encode(RingSnapshot snapshot, ConsistentHashRing ring) {
+        byte[] suffix = ring.getVirtualNodeSuffix().getBytes(StandardCharsets.UTF_8);
+        byte[][] ids = new byte[snapshot.slotCount()][];
+        byte[][] addresses = new byte[snapshot.slotCount()][];
+        byte[][] zones = new byte[snapshot.slotCount()][];
+        int size = 4 + 4 + 8 + 4 + 4 + suffix.length + 4;
+        for (int slot = 0; slot < snapshot.slotCount(); slot++) {
+            ConsistentHashRing.Node node = snapshot.nodeAt(slot);
+            size += 1;
+            if (node != null) {
+                ids[slot] = node.getId().getBytes(StandardCharsets.UTF_8);
+                addresses[slot] = node.getAddress().getBytes(StandardCharsets.UTF_8);
+                zones[slot] = node.getZone() == null ? new byte[0] : node.getZone().getBytes(StandardCharsets.UTF_8);
+                size += 4 + ids[slot].length + 4 + addresses[slot].length + 8 + 8 + 4 + zones[slot].length;
+            }
+        }
+        size += 4 + snapshot.tokenCount() * (Long.BYTES + Integer.BYTES);
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(snapshot.epoch());
+        buffer.putInt(ring.getVirtualNodesPerPhysicalNode());
+        buffer.putInt(suffix.length).put(suffix);
+        buffer.putInt(snapshot.slotCount());
+        for (int slot = 0; slot < snapshot.slotCount(); slot++) {
+            ConsistentHashRing.Node node = snapshot.nodeAt(slot);
+            if (node == null) {
+                buffer.put((byte) 0);
+                continue;
+            }
+            buffer.put((byte) 1);
+            buffer.putInt(ids[slot].length).put(ids[slot]);
+            buffer.putInt(addresses[slot].length).put(addresses[slot]);
+            buffer.putDouble(node.getWeight()).putLong(node.getCreatedAt());
+            // Unlabelled nodes store a length of -1
+            if (node.getZone() == null) {
+                buffer.putInt(-1);
+            } else {
+                buffer.putInt(zones[slot].length).put(zones[slot]);
+            }
+        }
+        buffer.putInt(snapshot.tokenCount());
+        for (int position = 0; position < snapshot.tokenCount(); position++) {
+            buffer.putLong(snapshot.tokenAt(position));
+        }
+        for (int position = 0; position < snapshot.tokenCount(); position++) {
+            buffer.putInt(snapshot.ownerSlotAt(position));
+        }
+        return buffer.flip();
+    }
+
+    private RingSnapshot read(ByteBuffer buffer, ConsistentHashRing ring) {
+        if (buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("not a ring snapshot file");
+        }
+        int version = buffer.getInt();
+        // Version 1 files predate zone labels and read as unlabelled nodes
+        if (version != FORMAT_VERSION && version != 1) {
+            throw new IllegalArgumentException("unsupported format version " + version);
+        }
+        long epoch = buffer.getLong();
+        int virtualNodes = buffer.getInt();
+        String suffix = readString(buffer);
+        if (virtualNodes != ring.getVirtualNodesPerPhysicalNode() || !suffix.equals(ring.getVirtualNodeSuffix())) {
+            // Tokens derive from these settings; a mismatched file would break later weight changes
+            logger.warn("Ring snapshot {} was written with {} virtual nodes and suffix '{}', ring uses {} and '{}'; "
+                    + "not restoring", path, virtualNodes, suffix, ring.getVirtualNodesPerPhysicalNode(),
+                    ring.getVirtualNodeSuffix());
+            return null;
+        }
+
+        ConsistentHashRing.Node[] nodes = new ConsistentHashRing.Node[buffer.getInt()];
+        for (int slot = 0; slot < nodes.length; slot++) {
+            if (buffer.get() != 0) {
+                String id = readString(buffer);
+                String address = readString(buffer);
+                double weight = buffer.getDouble();
+                long createdAt = buffer.getLong();
+                String zone = version == 1 ? null : readZone(buffer);
+                nodes[slot] = new ConsistentHashRing.Node(id, address, createdAt, weight, zone);
+            }
+        }
+
+        int tokenCount = buffer.getInt();
+        if (tokenCount < 0 || (long) tokenCount * (Long.BYTES + Integer.BYTES) > buffer.remaining()) {
+            throw new IllegalArgumentException("truncated token table");
+        }
+        long[] tokens = new long[tokenCount];
+        buffer.asLongBuffer().get(tokens);
+        buffer.position(buffer.position() + tokenCount * Long.BYTES);
+        int[] owners = new int[tokenCount];
+        buffer.asIntBuffer().get(owners);
+        RingSnapshot current = ring.snapshot();
+        return RingSnapshot.restore(tokens, owners, nodes, current.maxReplicas(), current.zoneAware(), epoch);
+    }
+
+    private static String readZone(ByteBuffer buffer) {
+        if (buffer.getInt(buffer.position()) == -1) {
+            buffer.getInt();
+            return null;
+        }
+        return readString(buffer);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("invalid string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,643 @@
+package com.example.consistenthashing;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * In-process key/value store partitioned by the hash ring. Every ring node
+ * owns a shard with its own lock, and each key lives in the shard of the node
+ * the ring maps it to.
+ * <p>
+ * Membership changes go through {@link #applyChange}, which diffs the ring
+ * before and after the change into a {@link RebalancePlan} and hands it to a
+ * single background migrator. Only keys inside the moved ranges are copied,
+ * a bounded batch at a time. Until a plan is done, reads that miss on the new
+ * owner fall back to the old one, so no key disappears during a rebalance.
+ * <p>
+ * Each shard is a bounded Caffeine cache. The configured entry count or byte
+ * budget is split between shards by the share of the hash space their node
+ * owns, and is split again once a rebalance has finished. Expired entries are
+ * swept in the background.
+ */
+public class ShardedStore implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ShardedStore.class);
+
+    /**
+     * Default number of keys moved per batch.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private final ConsistentHashRing ring;
+    private final int batchSize;
+    private final Duration defaultTtl;
+    private final long maximumSize;
+    private final long maximumWeightBytes;
+    private final Ticker ticker;
+    private final Executor migrator;
+    private final ExecutorService ownedMigrator;
+    private final Map<String, Shard> shards;
+    private final Object membershipLock;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder fallbackHits;
+    private final LongAdder migratedKeys;
+    private final LongAdder completedMigrations;
+    private volatile State state;
+
+    /**
+     * A stored value with its absolute expiry time.
+     */
+    private record Entry(Object value, long expiresAtNanos) {
+
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+
+    /**
+     * One node's partition of the store. The lock orders writes against
+     * migration batches; the cache itself is thread-safe.
+     */
+    private static final class Shard {
+        final Cache<String, Entry> cache;
+        final Map<String, Entry> entries;
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        Shard(long maximum, boolean weighted, Ticker ticker) {
+            Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                    .ticker(ticker)
+                    .scheduler(Scheduler.systemScheduler())
+                    .recordStats();
+            if (weighted) {
+                this.cache = builder.maximumWeight(maximum)
+                        .weigher((String key, Entry entry) -> LocalCache.estimateBytes(key, entry.value()))
+                        .expireAfter(new AbsoluteExpiry())
+                        .build();
+            } else {
+                this.cache = builder.maximumSize(maximum)
+                        .expireAfter(new AbsoluteExpiry())
+                        .build();
+            }
+            this.entries = cache.asMap();
+        }
+
+        void resize(long maximum) {
+            cache.policy().eviction().ifPresent(eviction -> eviction.setMaximum(maximum));
+        }
+    }
+
+    /**
+     * Expires each entry at its own absolute expiry time, which a migration
+     * carries over to the new owner unchanged.
+     */
+    private static final class AbsoluteExpiry implements Expiry<String, Entry> {
+        @Override
+        public long expireAfterCreate(String key, Entry entry, long currentTime) {
+            return Math.max(0, entry.expiresAtNanos() - currentTime);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+            return Math.max(0, entry.expiresAtNanos() - currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    /**
+     * The ring layout the store routes by and the migrations still running,
+     * newest last. Published together so a reader always knows which old
+     * owners to fall back to for the layout it routed with.
+     */
+    private record State(RingSnapshot routing, List<Migration> pending) {
+    }
+
+    /**
+     * A rebalance plan being applied by the migrator.
+     */
+    private record Migration(RebalancePlan plan, CountDownLatch done) {
+    }
+
+    /**
+     * Creates a store with its own migrator thread, bounded by the default
+     * entry count.
+     *
+     * @param ring       The ring that partitions the store
+     * @param batchSize  Maximum keys moved while holding the shard locks
+     * @param defaultTtl Time-to-live of entries stored without an explicit one
+     */
+    public ShardedStore(ConsistentHashRing ring, int batchSize, Duration defaultTtl) {
+        this(ring, batchSize, defaultTtl, LocalCache.DEFAULT_MAXIMUM_SIZE, 0);
+    }
+
+    /**
+     * Creates a store with its own migrator thread.
+     *
+     * @param ring               The ring that partitions the store
+     * @param batchSize          Maximum keys moved while holding the shard locks
+     * @param defaultTtl         Time-to-live of entries stored without an explicit one
+     * @param maximumSize        Maximum number of entries over all shards; ignored when a byte budget is set
+     * @param maximumWeightBytes Maximum estimated size of all entries in bytes, or 0 to bound by count
+     */
+    public ShardedStore(ConsistentHashRing ring, int batchSize, Duration defaultTtl, long maximumSize,
+            long maximumWeightBytes) {
+        this(ring, batchSize, defaultTtl, maximumSize, maximumWeightBytes, Ticker.systemTicker(),
+                Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "shard-migrator");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+
+    /**
+     * Creates a store whose entries expire by the given ticker and whose
+     * migrations run on the given executor. The executor must run tasks one at
+     * a time and in submission order.
+     */
+    ShardedStore(ConsistentHashRing ring, int batchSize, Duration defaultTtl, long maximumSize,
+            long maximumWeightBytes, Ticker ticker, Executor migrator) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Migration batch size must be positive: " + batchSize);
+        }
+        if (defaultTtl.isNegative() || defaultTtl.isZero()) {
+            throw new IllegalArgumentException("Cache TTL must be positive: " + defaultTtl);
+        }
+        if (maximumWeightBytes <= 0 && maximumSize <= 0) {
+            throw new IllegalArgumentException("Cache maximum size must be positive: " + maximumSize);
+        }
+        this.ring = ring;
+        this.batchSize = batchSize;
+        this.defaultTtl = defaultTtl;
+        this.maximumSize = maximumSize;
+        this.maximumWeightBytes = maximumWeightBytes;
+        this.ticker = ticker;
+        this.migrator = migrator;
+        this.ownedMigrator = migrator instanceof ExecutorService service ? service : null;
+        this.shards = new ConcurrentHashMap<>();
+        this.membershipLock = new Object();
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.fallbackHits = new LongAdder();
+        this.migratedKeys = new LongAdder();
+        this.completedMigrations = new LongAdder();
+        this.state = new State(ring.snapshot(), List.of());
+    }
+
+    /**
+     * Applies a ring membership change and schedules migration of the ranges
+     * it moves. Changes are serialized, so each plan is the exact difference
+     * between two consecutive layouts.
+     *
+     * @param change   Description of the change, for logging
+     * @param mutation The ring mutation; returns false if nothing changed
+     * @return The mutation's result
+     */
+    public boolean applyChange(String change, BooleanSupplier mutation) {
+        synchronized (membershipLock) {
+            RingSnapshot before = ring.snapshot();
+            if (!mutation.getAsBoolean()) {
+                return false;
+            }
+            RingSnapshot after = ring.snapshot();
+            RebalancePlan plan = RebalancePlan.diff(change, before, after);
+            Migration migration = new Migration(plan, new CountDownLatch(1));
+            synchronized (this) {
+                List<Migration> pending = new ArrayList<>(state.pending());
+                pending.add(migration);
+                state = new State(after, List.copyOf(pending));
+            }
+            logger.info("Scheduled migration for '{}': {} ranges covering {}% of the hash space",
+                    change, plan.moves().size(), String.format("%.2f", plan.movedFraction() * 100));
+            migrator.execute(() -> migrate(migration));
+            return true;
+        }
+    }
+
+    /**
+     * Stores a value in its owner's shard with the default time-to-live.
+     *
+     * @param key   The key
+     * @param value The value
+     * @throws IllegalStateException if the ring has no nodes
+     */
+    public void put(String key, Object value) {
+        put(key, value, defaultTtl);
+    }
+
+    /**
+     * Stores a value in its owner's shard.
+     *
+     * @param key   The key
+     * @param value The value
+     * @param ttl   How long the entry stays readable
+     * @throws IllegalStateException if the ring has no nodes
+     */
+    public void put(String key, Object value, Duration ttl) {
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Cache TTL must be positive: " + ttl);
+        }
+        Entry entry = new Entry(value, ticker.read() + ttl.toNanos());
+        long hash = KeyHasher.hash(key);
+        while (true) {
+            State current = state;
+            Shard shard = ownerShard(current, hash, true);
+            shard.lock.writeLock().lock();
+            try {
+                // A migration that started after routing may already have scanned this shard
+                if (state == current) {
+                    shard.entries.put(key, entry);
+                    return;
+                }
+            } finally {
+                shard.lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Reads a value from its owner's shard, falling back to the previous
+     * owners while the key's range is still being migrated.
+     *
+     * @param key The key
+     * @return The value, or null if absent or expired
+     */
+    public Object get(String key) {
+        long hash = KeyHasher.hash(key);
+        State current = state;
+        long now = ticker.read();
+        Entry entry = read(ownerShard(current, hash, false), key, now);
+        if (entry == null) {
+            List<Migration> pending = current.pending();
+            for (int i = pending.size() - 1; i >= 0 && entry == null; i--) {
+                RebalancePlan.RangeMove move = moveContaining(pending.get(i).plan(), hash);
+                if (move != null && move.fromNodeId() != null) {
+                    entry = read(shards.get(move.fromNodeId()), key, now);
+                }
+            }
+            if (entry != null) {
+                fallbackHits.increment();
+            }
+        }
+
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value();
+    }
+
+    /**
+     * Removes a key from its owner's shard and from any shard it is still
+     * being migrated out of.
+     *
+     * @param key The key
+     * @return The removed value, or null if absent
+     */
+    public Object remove(String key) {
+        long hash = KeyHasher.hash(key);
+        long now = ticker.read();
+        while (true) {
+            State current = state;
+            // Old owners first: a batch moving the key onward then finds nothing to move
+            Entry removed = null;
+            for (Migration migration : current.pending()) {
+                RebalancePlan.RangeMove move = moveContaining(migration.plan(), hash);
+                if (move != null && move.fromNodeId() != null) {
+                    removed = newer(removed, removeFrom(shards.get(move.fromNodeId()), key));
+                }
+            }
+            Shard shard = ownerShard(current, hash, false);
+            if (shard != null) {
+                shard.lock.writeLock().lock();
+                try {
+                    if (state != current) {
+                        continue;
+                    }
+                    removed = newer(removed, shard.entries.remove(key));
+                } finally {
+                    shard.lock.writeLock().unlock();
+                }
+            }
+            return removed == null || removed.isExpired(now) ? null : removed.value();
+        }
+    }
+
+    /**
+     * Removes every entry from every shard.
+     *
+     * @return Number of entries removed
+     */
+    public long clear() {
+        long removed = 0;
+        for (Shard shard : shards.values()) {
+            shard.lock.writeLock().lock();
+            try {
+                removed += shard.entries.size();
+                shard.entries.clear();
+            } finally {
+                shard.lock.writeLock().unlock();
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Gets the number of entries held by each shard, after pending evictions
+     * and expiries.
+     *
+     * @return Map of node ID to entry count
+     */
+    public Map<String, Integer> shardSizes() {
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        shards.forEach((nodeId, shard) -> {
+            shard.lock.readLock().lock();
+            try {
+                shard.cache.cleanUp();
+                sizes.put(nodeId, shard.entries.size());
+            } finally {
+                shard.lock.readLock().unlock();
+            }
+        });
+        return sizes;
+    }
+
+    /**
+     * Gets the total number of entries across all shards.
+     *
+     * @return Entry count
+     */
+    public long size() {
+        return shardSizes().values().stream().mapToLong(Integer::longValue).sum();
+    }
+
+    /**
+     * Gets counters describing reads and migrations.
+     *
+     * @return Map of statistic name to value
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        stats.put("hitCount", hitCount);
+        stats.put("missCount", missCount);
+        stats.put("hitRate", hitCount + missCount == 0 ? 1.0 : (double) hitCount / (hitCount + missCount));
+        stats.put("fallbackHits", fallbackHits.sum());
+        stats.put("pendingMigrations", state.pending().size());
+        stats.put("completedMigrations", completedMigrations.sum());
+        stats.put("migratedKeys", migratedKeys.sum());
+        stats.put("evictionCount", shards.values().stream().mapToLong(shard -> shard.cache.stats().evictionCount())
+                .sum());
+        stats.put("shardSizes", shardSizes());
+        return stats;
+    }
+
+    /**
+     * Waits until every scheduled migration has finished.
+     *
+     * @param timeout Maximum time to wait
+     * @return true if no migrations are pending
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitMigrations(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        for (Migration migration : state.pending()) {
+            long remaining = deadline - System.nanoTime();
+            if (!migration.done().await(remaining, TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stops the migrator thread if this store created it. Pending migrations
+     * are abandoned.
+     */
+    @Override
+    public void close() {
+        if (ownedMigrator != null) {
+            ownedMigrator.shutdownNow();
+        }
+    }
+
+    /**
+     * Applies one plan: for each source shard, collects the keys inside its
+     * moved ranges, then moves them in batches. Each batch holds the source and
+     * target locks only for its own keys, so foreground traffic on both shards
+     * proceeds between batches.
+     */
+    private void migrate(Migration migration) {
+        long started = System.nanoTime();
+        long moved = 0;
+        try {
+            Map<String, List<RebalancePlan.RangeMove>> movesBySource = new HashMap<>();
+            for (RebalancePlan.RangeMove move : migration.plan().moves()) {
+                if (move.fromNodeId() != null && move.toNodeId() != null) {
+                    movesBySource.computeIfAbsent(move.fromNodeId(), id -> new ArrayList<>()).add(move);
+                }
+            }
+            for (Map.Entry<String, List<RebalancePlan.RangeMove>> source : movesBySource.entrySet()) {
+                Shard from = shards.get(source.getKey());
+                if (from != null) {
+                    moved += drain(from, source.getValue());
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("Migration for '{}' failed", migration.plan().change(), e);
+        } finally {
+            completedMigrations.increment();
+            finish(migration);
+        }
+        logger.info("Migrated {} keys for '{}' in {} ms", moved, migration.plan().change(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    private long drain(Shard from, List<RebalancePlan.RangeMove> moves) {
+        Map<String, List<String>> keysByTarget = new HashMap<>();
+        from.lock.readLock().lock();
+        try {
+            for (String key : from.entries.keySet()) {
+                RebalancePlan.RangeMove move = moveContaining(moves, KeyHasher.hash(key));
+                if (move != null) {
+                    keysByTarget.computeIfAbsent(move.toNodeId(), id -> new ArrayList<>()).add(key);
+                }
+            }
+        } finally {
+            from.lock.readLock().unlock();
+        }
+
+        long moved = 0;
+        for (Map.Entry<String, List<String>> target : keysByTarget.entrySet()) {
+            Shard to = shards.computeIfAbsent(target.getKey(), this::newShard);
+            List<String> keys = target.getValue();
+            for (int start = 0; start < keys.size(); start += batchSize) {
+                moved += moveBatch(from, to, keys.subList(start, Math.min(keys.size(), start + batchSize)));
+            }
+        }
+        return moved;
+    }
+
+    private long moveBatch(Shard from, Shard to, List<String> keys) {
+        long now = ticker.read();
+        long moved = 0;
+        // Only the migrator holds two shard locks at once, so the order cannot deadlock
+        from.lock.writeLock().lock();
+        to.lock.writeLock().lock();
+        try {
+            for (String key : keys) {
+                Entry entry = from.entries.remove(key);
+                // Keep a newer write that already reached the new owner
+                if (entry != null && !entry.isExpired(now) && to.entries.putIfAbsent(key, entry) == null) {
+                    moved++;
+                }
+            }
+        } finally {
+            to.lock.writeLock().unlock();
+            from.lock.writeLock().unlock();
+        }
+        migratedKeys.add(moved);
+        return moved;
+    }
+
+    /**
+     * Retires a finished migration and drops shards of nodes that left the
+     * ring and no longer serve as a fallback. Once no migration is left, the
+     * shards' bounds are split again by the current ownership; until then
+     * they keep their old bounds, so a source shard does not evict keys it is
+     * about to hand over.
+     */
+    private synchronized void finish(Migration migration) {
+        List<Migration> pending = new ArrayList<>(state.pending());
+        pending.remove(migration);
+        state = new State(state.routing(), List.copyOf(pending));
+
+        RingSnapshot routing = state.routing();
+        shards.keySet().removeIf(nodeId -> !isOnRing(routing, nodeId) && pending.stream()
+                .flatMap(m -> m.plan().moves().stream())
+                .noneMatch(move -> nodeId.equals(move.fromNodeId())));
+        if (pending.isEmpty()) {
+            double[] ownership = routing.ownershipBySlot();
+            for (int slot = 0; slot < routing.slotCount(); slot++) {
+                ConsistentHashRing.Node node = routing.nodeAt(slot);
+                Shard shard = node == null ? null : shards.get(node.getId());
+                if (shard != null) {
+                    shard.resize(shareOf(ownership[slot]));
+                }
+            }
+        }
+        migration.done().countDown();
+    }
+
+    /**
+     * Creates the shard of a node, bounded by the node's share of the hash
+     * space in the current layout.
+     */
+    private Shard newShard(String nodeId) {
+        RingSnapshot routing = state.routing();
+        double[] ownership = routing.ownershipBySlot();
+        double owned = 0;
+        for (int slot = 0; slot < routing.slotCount(); slot++) {
+            ConsistentHashRing.Node node = routing.nodeAt(slot);
+            if (node != null && node.getId().equals(nodeId)) {
+                owned = ownership[slot];
+            }
+        }
+        return new Shard(shareOf(owned), maximumWeightBytes > 0, ticker);
+    }
+
+    private long shareOf(double ownership) {
+        long budget = maximumWeightBytes > 0 ? maximumWeightBytes : maximumSize;
+        return Math.max(1, (long) Math.ceil(budget * ownership));
+    }
+
+    private Shard ownerShard(State current, long hash, boolean create) {
+        RingSnapshot routing = current.routing();
+        if (routing.isEmpty()) {
+            if (create) {
+                throw new IllegalStateException("Cannot store a value: the hash ring has no nodes");
+            }
+            return null;
+        }
+        String nodeId = routing.ownerAt(routing.positionFor(hash)).getId();
+        return create ? shards.computeIfAbsent(nodeId, this::newShard) : shards.get(nodeId);
+    }
+
+    private static Entry read(Shard shard, String key, long now) {
+        if (shard == null) {
+            return null;
+        }
+        shard.lock.readLock().lock();
+        try {
+            Entry entry = shard.entries.get(key);
+            return entry == null || entry.isExpired(now) ? null : entry;
+        } finally {
+            shard.lock.readLock().unlock();
+        }
+    }
+
+    private static Entry removeFrom(Shard shard, String key) {
+        if (shard == null) {
+            return null;
+        }
+        shard.lock.writeLock().lock();
+        try {
+            return shard.entries.remove(key);
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+    }
+
+    private static Entry newer(Entry current, Entry candidate) {
+        return candidate != null ? candidate : current;
+    }
+
+    private static RebalancePlan.RangeMove moveContaining(RebalancePlan plan, long hash) {
+        return moveContaining(plan.moves(), hash);
+    }
+
+    private static RebalancePlan.RangeMove moveContaining(List<RebalancePlan.RangeMove> moves, long hash) {
+        for (RebalancePlan.RangeMove move : moves) {
+            if (move.contains(hash)) {
+                return move;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isOnRing(RingSnapshot routing, String nodeId) {
+        for (int slot = 0; slot < routing.slotCount(); slot++) {
+            ConsistentHashRing.Node node = routing.nodeAt(slot);
+            if (node != null && Objects.equals(node.getId(), nodeId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
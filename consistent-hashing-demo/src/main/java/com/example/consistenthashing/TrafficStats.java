@@ -0,0 +1,157 @@
+package com.example.consistenthashing;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live traffic telemetry for the placement engine: a striped request counter
+ * per physical node and a {@link HeavyHitterSketch} of lookup keys. Both are
+ * cheap enough to update on every lookup and use bounded memory, so load
+ * skew and hot keys are visible without logging individual requests.
+ * <p>
+ * When a {@link MeterRegistry} is supplied the per-node counters and the
+ * skew are published through Micrometer as
+ * {@value #NODE_REQUESTS_METER} (tagged by node) and {@value #SKEW_METER}.
+ * Hot keys are only reported through {@link #getHotKeys()}, as using keys as
+ * metric tags would make the metric cardinality unbounded.
+ */
+public class TrafficStats {
+
+    static final String NODE_REQUESTS_METER = "consistent.hashing.node.requests";
+    static final String SKEW_METER = "consistent.hashing.traffic.skew";
+
+    private final Map<String, LongAdder> nodeRequests;
+    private final HeavyHitterSketch sketch;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * A key whose estimated lookup count places it among the heaviest hitters.
+     *
+     * @param key            The lookup key
+     * @param estimatedCount Estimated number of lookups; never an undercount
+     */
+    public record HotKey(String key, long estimatedCount) {
+    }
+
+    /**
+     * Creates traffic statistics.
+     *
+     * @param sketchDepth   Rows in the count-min sketch
+     * @param sketchWidth   Counters per row in the count-min sketch
+     * @param topK          Number of hot keys to track
+     * @param meterRegistry Registry to publish metrics to, or null
+     */
+    public TrafficStats(int sketchDepth, int sketchWidth, int topK, MeterRegistry meterRegistry) {
+        this.nodeRequests = new ConcurrentHashMap<>();
+        this.sketch = new HeavyHitterSketch(sketchDepth, sketchWidth, topK);
+        this.meterRegistry = meterRegistry;
+        if (meterRegistry != null) {
+            Gauge.builder(SKEW_METER, this, TrafficStats::getSkew)
+                    .description("Busiest node's request count divided by the mean")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Creates traffic statistics with default sizing and no metrics registry.
+     */
+    public TrafficStats() {
+        this(4, 2048, 20, null);
+    }
+
+    /**
+     * Records a lookup of a key served by a node.
+     *
+     * @param key  The lookup key
+     * @param node The node the key mapped to, or null if none did
+     */
+    public void record(String key, ConsistentHashRing.Node node) {
+        if (node != null) {
+            LongAdder requests = nodeRequests.get(node.getId());
+            if (requests == null) {
+                requests = nodeRequests.computeIfAbsent(node.getId(), this::newNodeCounter);
+            }
+            requests.increment();
+        }
+        if (key != null) {
+            sketch.add(key);
+        }
+    }
+
+    /**
+     * Gets the number of lookups served by each node, including nodes that
+     * have since left the ring.
+     *
+     * @return Map of node ID to request count
+     */
+    public Map<String, Long> getNodeRequests() {
+        Map<String, Long> requests = new TreeMap<>();
+        nodeRequests.forEach((nodeId, count) -> requests.put(nodeId, count.sum()));
+        return requests;
+    }
+
+    /**
+     * Gets the load skew: the busiest node's request count divided by the mean.
+     * 1.0 means perfectly even traffic.
+     *
+     * @return The skew, or 0 if no traffic was recorded
+     */
+    public double getSkew() {
+        long total = 0;
+        long max = 0;
+        for (LongAdder count : nodeRequests.values()) {
+            long sum = count.sum();
+            total += sum;
+            max = Math.max(max, sum);
+        }
+        return total == 0 ? 0 : max / ((double) total / nodeRequests.size());
+    }
+
+    /**
+     * Gets the heaviest lookup keys, most frequent first.
+     *
+     * @return Hot keys with their estimated counts
+     */
+    public List<HotKey> getHotKeys() {
+        return sketch.topK().stream()
+                .map(entry -> new HotKey(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    /**
+     * Gets the estimated number of lookups of a key.
+     *
+     * @param key The lookup key
+     * @return Estimated count; never an undercount
+     */
+    public long estimateCount(String key) {
+        return sketch.estimate(key);
+    }
+
+    /**
+     * Clears all traffic statistics. Node counters already published to the
+     * metrics registry keep their identity and restart from zero.
+     */
+    public void reset() {
+        nodeRequests.values().forEach(LongAdder::reset);
+        sketch.reset();
+    }
+
+    private LongAdder newNodeCounter(String nodeId) {
+        LongAdder requests = new LongAdder();
+        if (meterRegistry != null) {
+            FunctionCounter.builder(NODE_REQUESTS_METER, requests, LongAdder::sum)
+                    .description("Key lookups served by a physical node")
+                    .tag("node", nodeId)
+                    .register(meterRegistry);
+        }
+        return requests;
+    }
+}
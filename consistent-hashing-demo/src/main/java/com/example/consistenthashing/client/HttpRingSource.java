@@ -0,0 +1,76 @@
+package com.example.consistenthashing.client;
+
+import com.example.consistenthashing.RingChanges;
+import com.example.consistenthashing.RingMembership;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Fetches the ring from the service's REST API, long-polling for changes.
+ */
+public class HttpRingSource implements RingSource {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    private final URI baseUri;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Creates a source for a service.
+     *
+     * @param baseUri API base, e.g. {@code http://host:8080/api/v1/consistent-hashing}
+     */
+    public HttpRingSource(URI baseUri) {
+        this(baseUri, HttpClient.newBuilder().connectTimeout(REQUEST_TIMEOUT).build(),
+                new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false));
+    }
+
+    public HttpRingSource(URI baseUri, HttpClient httpClient, ObjectMapper objectMapper) {
+        String base = baseUri.toString();
+        this.baseUri = URI.create(base.endsWith("/") ? base : base + "/");
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public RingMembership fetchMembership() throws IOException {
+        return get("ring", REQUEST_TIMEOUT, RingMembership.class);
+    }
+
+    @Override
+    public RingChanges fetchChanges(long since, Duration wait) throws IOException {
+        return get("ring/changes?since=" + since + "&waitSeconds=" + wait.toSeconds(),
+                REQUEST_TIMEOUT.plus(wait), RingChanges.class);
+    }
+
+    private <T> T get(String path, Duration timeout, Class<T> type) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(timeout)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        HttpResponse<String> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted fetching " + request.uri(), e);
+        }
+
+        JsonNode body = objectMapper.readTree(response.body());
+        if (response.statusCode() != 200 || !body.path("success").asBoolean()) {
+            throw new IOException("Fetching " + request.uri() + " failed with status " + response.statusCode()
+                    + ": " + body.path("message").asText());
+        }
+        return objectMapper.treeToValue(body.get("data"), type);
+    }
+}
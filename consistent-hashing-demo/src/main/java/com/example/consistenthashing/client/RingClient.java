@@ -0,0 +1,225 @@
+package com.example.consistenthashing.client;
+
+import com.example.consistenthashing.ConsistentHashRing;
+import com.example.consistenthashing.MembershipBatch;
+import com.example.consistenthashing.RingChanges;
+import com.example.consistenthashing.RingMembership;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Routes keys in-process against a local replica of the service's ring.
+ * <p>
+ * The client loads the full membership once and then follows the ring's
+ * change feed on a background thread, long-polling for the changes after
+ * the version it holds. Lookups read the replica without a network hop or a
+ * lock and agree with the service once the replica has caught up. When the
+ * service no longer has the changes the client needs, the replica is rebuilt
+ * from the full membership.
+ */
+public class RingClient implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(RingClient.class);
+
+    /**
+     * Default time a change request is held open by the service.
+     */
+    public static final Duration DEFAULT_POLL_WAIT = Duration.ofSeconds(30);
+
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(1);
+
+    private final RingSource source;
+    private final Duration pollWait;
+    private final Thread follower;
+    private volatile ConsistentHashRing replica;
+    private volatile long version;
+    private volatile boolean running;
+
+    /**
+     * Creates a client for a service's REST API.
+     *
+     * @param baseUri API base, e.g. {@code http://host:8080/api/v1/consistent-hashing}
+     */
+    public RingClient(URI baseUri) {
+        this(new HttpRingSource(baseUri), DEFAULT_POLL_WAIT);
+    }
+
+    /**
+     * Creates a client.
+     *
+     * @param source   Where the ring is fetched from
+     * @param pollWait Time each change request may be held open
+     */
+    public RingClient(RingSource source, Duration pollWait) {
+        this.source = source;
+        this.pollWait = pollWait;
+        this.follower = new Thread(this::follow, "ring-client");
+        this.follower.setDaemon(true);
+    }
+
+    /**
+     * Loads the ring and starts following its changes.
+     *
+     * @return This client
+     * @throws UncheckedIOException if the initial membership cannot be fetched
+     */
+    public synchronized RingClient start() {
+        if (running) {
+            return this;
+        }
+        try {
+            reload();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load the ring", e);
+        }
+        running = true;
+        follower.start();
+        return this;
+    }
+
+    /**
+     * Gets the node responsible for a key.
+     *
+     * @param key The key
+     * @return The node, or null if the key is invalid or the ring is empty
+     */
+    public ConsistentHashRing.Node getNode(String key) {
+        return replica().getNode(key);
+    }
+
+    /**
+     * Gets distinct nodes responsible for a key, in preference order.
+     *
+     * @param key   The key
+     * @param count Number of nodes wanted
+     * @return The nodes
+     */
+    public List<ConsistentHashRing.Node> getNodes(String key, int count) {
+        return replica().getNodes(key, count);
+    }
+
+    /**
+     * Gets distinct nodes responsible for a key, those in the caller's zone
+     * first.
+     *
+     * @param key   The key
+     * @param count Number of nodes wanted
+     * @param zone  The caller's zone
+     * @return The nodes
+     */
+    public List<ConsistentHashRing.Node> getNodesByLocality(String key, int count, String zone) {
+        return replica().getNodesByLocality(key, count, zone);
+    }
+
+    /**
+     * Gets the node responsible for a binary key.
+     *
+     * @param key The key bytes
+     * @return The node, or null if the key is empty or the ring is empty
+     */
+    public ConsistentHashRing.Node getNode(byte[] key) {
+        return replica().getNode(key);
+    }
+
+    /**
+     * Gets the service ring version the replica reflects.
+     *
+     * @return The version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Stops following the ring. Lookups keep answering from the last replica.
+     */
+    @Override
+    public void close() {
+        running = false;
+        follower.interrupt();
+    }
+
+    private ConsistentHashRing replica() {
+        ConsistentHashRing current = replica;
+        if (current == null) {
+            throw new IllegalStateException("Ring client has not been started");
+        }
+        return current;
+    }
+
+    private void follow() {
+        while (running) {
+            try {
+                RingChanges changes = source.fetchChanges(version, pollWait);
+                if (changes.resetRequired()) {
+                    logger.info("Ring changes after version {} are not available, reloading", version);
+                    reload();
+                    continue;
+                }
+                for (RingChanges.Version change : changes.versions()) {
+                    if (!apply(change)) {
+                        logger.warn("Ring replica diverged at version {}, reloading", change.version());
+                        reload();
+                        break;
+                    }
+                    version = change.version();
+                }
+            } catch (IOException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Failed to follow ring changes after version {}: {}", version, e.toString());
+                try {
+                    Thread.sleep(RETRY_DELAY.toMillis());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void reload() throws IOException {
+        RingMembership membership = source.fetchMembership();
+        replica = membership.toRing();
+        version = membership.version();
+        logger.info("Loaded ring version {} with {} nodes", membership.version(), membership.members().size());
+    }
+
+    /**
+     * Applies the node changes of one version to the replica. Additions and
+     * removals are batched so each version costs one rebuild.
+     *
+     * @return false if a change did not apply cleanly
+     */
+    private boolean apply(RingChanges.Version change) {
+        ConsistentHashRing ring = replica;
+        MembershipBatch batch = new MembershipBatch();
+        boolean applied = true;
+        for (RingChanges.NodeChange nodeChange : change.changes()) {
+            switch (nodeChange.type()) {
+                case ADD -> batch.add(nodeChange.nodeId(), nodeChange.nodeAddress(), nodeChange.weight(),
+                        nodeChange.zone());
+                case REMOVE -> batch.remove(nodeChange.nodeId());
+                case REWEIGHT -> {
+                    applied &= applyBatch(ring, batch);
+                    batch = new MembershipBatch();
+                    applied &= ring.updateWeight(nodeChange.nodeId(), nodeChange.weight());
+                }
+            }
+        }
+        return applyBatch(ring, batch) && applied;
+    }
+
+    private static boolean applyBatch(ConsistentHashRing ring, MembershipBatch batch) {
+        if (batch.isEmpty()) {
+            return true;
+        }
+        MembershipBatch.Result result = ring.applyBatch(batch);
+        return !result.added().containsValue(false) && !result.removed().containsValue(false);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.consistenthashing.client;
+
+import com.example.consistenthashing.RingChanges;
+import com.example.consistenthashing.RingMembership;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Where a {@link RingClient} fetches the ring from.
+ */
+public interface RingSource {
+
+    /**
+     * Fetches the full ring membership.
+     *
+     * @return The membership at the current version
+     * @throws IOException if the ring cannot be fetched
+     */
+    RingMembership fetchMembership() throws IOException;
+
+    /**
+     * Fetches the ring changes after a version, waiting up to the given time
+     * for one if there are none yet.
+     *
+     * @param since Version the client has
+     * @param wait  Longest time to wait for a change
+     * @return The changes; empty if none happened while waiting
+     * @throws IOException if the changes cannot be fetched
+     */
+    RingChanges fetchChanges(long since, Duration wait) throws IOException;
+}
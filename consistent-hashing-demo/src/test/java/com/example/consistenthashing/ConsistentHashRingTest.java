@@ -0,0 +1,602 @@
+package com.example.consistenthashing;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ConsistentHashRing lookup and membership behaviour.
+ */
+class ConsistentHashRingTest {
+
+    private ConsistentHashRing ring;
+
+    @BeforeEach
+    void setUp() {
+        ring = new ConsistentHashRing();
+        for (int i = 1; i <= 5; i++) {
+            ring.addNode("node-" + i, "192.168.1." + (10 + i) + ":8080");
+        }
+    }
+
+    @Test
+    @DisplayName("Should only move keys owned by a removed node")
+    void testRemovalOnlyMovesOwnedKeys() {
+        // Given
+        Map<String, String> before = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            String key = "key-" + i;
+            before.put(key, ring.getNode(key).getId());
+        }
+
+        // When
+        assertTrue(ring.removeNode("node-3"));
+
+        // Then
+        for (Map.Entry<String, String> entry : before.entrySet()) {
+            String owner = ring.getNode(entry.getKey()).getId();
+            assertNotEquals("node-3", owner);
+            if (!entry.getValue().equals("node-3")) {
+                assertEquals(entry.getValue(), owner);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should return to the original placement after a node flaps")
+    void testNodeFlapRestoresPlacement() {
+        // Given
+        Map<String, String> before = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            String key = "flap-key-" + i;
+            before.put(key, ring.getNode(key).getId());
+        }
+
+        // When
+        ring.removeNode("node-2");
+        ring.addNode("node-2", "192.168.1.12:8080");
+
+        // Then
+        before.forEach((key, owner) -> assertEquals(owner, ring.getNode(key).getId()));
+    }
+
+    @Test
+    @DisplayName("Should apply a membership batch as one epoch with the layout of single changes")
+    void testMembershipBatchMatchesSingleChanges() {
+        // Given
+        ConsistentHashRing sequential = new ConsistentHashRing();
+        for (int i = 1; i <= 5; i++) {
+            sequential.addNode("node-" + i, "192.168.1." + (10 + i) + ":8080");
+        }
+        MembershipBatch batch = new MembershipBatch().remove("node-2").remove("node-4").remove("node-9");
+        for (int i = 6; i <= 55; i++) {
+            batch.add("node-" + i, "10.0.0." + i + ":8080", i % 2 == 0 ? 1.0 : 2.0);
+        }
+        batch.add("node-1", "192.168.1.11:8080");
+        long epoch = ring.getEpoch();
+
+        // When
+        MembershipBatch.Result result = ring.applyBatch(batch);
+        sequential.removeNode("node-2");
+        sequential.removeNode("node-4");
+        for (int i = 6; i <= 55; i++) {
+            sequential.addNode("node-" + i, "10.0.0." + i + ":8080", i % 2 == 0 ? 1.0 : 2.0);
+        }
+
+        // Then
+        assertEquals(epoch + 1, ring.getEpoch());
+        assertEquals(Map.of("node-2", true, "node-4", true, "node-9", false), result.removed());
+        assertTrue(result.added().get("node-6"));
+        assertFalse(result.added().get("node-1"));
+        assertEquals(sequential.getNodeCount(), ring.getNodeCount());
+        assertEquals(sequential.getStats().getVirtualNodeCount(), ring.getStats().getVirtualNodeCount());
+        for (int i = 0; i < 2000; i++) {
+            String key = "key-" + i;
+            assertEquals(sequential.getNode(key), ring.getNode(key), key);
+            assertEquals(sequential.getNodes(key, 3), ring.getNodes(key, 3), key);
+        }
+    }
+
+    @Test
+    @DisplayName("Should replace a node removed and added in the same batch and reject invalid batches whole")
+    void testMembershipBatchReplaceAndReject() {
+        // Given
+        ConsistentHashRing.Node before = ring.getAllNodes().stream()
+                .filter(node -> node.getId().equals("node-3")).findFirst().orElseThrow();
+        long epoch = ring.getEpoch();
+
+        // When
+        MembershipBatch.Result replaced = ring.applyBatch(new MembershipBatch()
+                .remove("node-3").add("node-3", "10.0.0.3:9090", 2.0));
+
+        // Then
+        assertTrue(replaced.changed());
+        ConsistentHashRing.Node after = ring.getAllNodes().stream()
+                .filter(node -> node.getId().equals("node-3")).findFirst().orElseThrow();
+        assertNotSame(before, after);
+        assertEquals("10.0.0.3:9090", after.getAddress());
+        assertEquals(2 * 150, ring.getStats().getNodeDistribution().get("node-3"), 2);
+        assertThrows(IllegalArgumentException.class, () -> ring.applyBatch(new MembershipBatch()
+                .remove("node-1").add("node-6", "10.0.0.6:8080", -1.0)));
+        assertEquals(5, ring.getNodeCount());
+        assertFalse(ring.applyBatch(new MembershipBatch().remove("missing")).changed());
+        assertEquals(epoch + 1, ring.getEpoch());
+    }
+
+    @Test
+    @DisplayName("Should place binary keys exactly like their String form")
+    void testBinaryKeyOverloads() {
+        for (int i = 0; i < 500; i++) {
+            String key = "binary-key-" + i;
+            byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+
+            assertEquals(ring.getNode(key), ring.getNode(bytes));
+            assertEquals(ring.getNode(key), ring.getNode(ByteBuffer.wrap(bytes)));
+            assertEquals(ring.getNodes(key, 3), ring.getNodes(bytes, 3));
+            assertEquals(ring.getNodes(key, 3), ring.getNodes(ByteBuffer.wrap(bytes), 3));
+        }
+        assertNull(ring.getNode(new byte[0]));
+    }
+
+    @Test
+    @DisplayName("Should serve replica lists that match a clockwise walk of the ring")
+    void testPreferenceListsMatchRingWalk() {
+        // Given
+        ring.removeNode("node-4");
+        ring.addNode("node-6", "192.168.1.16:8080");
+
+        for (int i = 0; i < 1000; i++) {
+            String key = "replica-key-" + i;
+            for (int count = 1; count <= 6; count++) {
+                // When
+                List<ConsistentHashRing.Node> replicas = ring.getNodes(key, count);
+
+                // Then
+                assertEquals(walkRing(key, count), replicas);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should give weighted nodes a proportional share of the key space")
+    void testWeightedOwnership() {
+        // Given
+        ConsistentHashRing weighted = new ConsistentHashRing();
+        weighted.addNode("small-1", "10.0.0.1:8080", 1.0);
+        weighted.addNode("small-2", "10.0.0.2:8080", 1.0);
+        weighted.addNode("large", "10.0.0.3:8080", 8.0);
+
+        // When
+        ConsistentHashRing.HashRingStats stats = weighted.getStats();
+
+        // Then
+        assertEquals(1200, stats.getNodeDistribution().get("large"));
+        assertEquals(0.8, stats.getExpectedOwnership().get("large"), 1e-9);
+        stats.getExpectedOwnership().forEach((nodeId, expected) ->
+                assertEquals(expected, stats.getActualOwnership().get(nodeId), 0.05, nodeId));
+        assertEquals(1.0, stats.getActualOwnership().values().stream().mapToDouble(Double::doubleValue).sum(),
+                1e-9);
+    }
+
+    @Test
+    @DisplayName("Should only move keys to or from a re-weighted node")
+    void testUpdateWeightMovesOnlyDelta() {
+        // Given
+        Map<String, String> before = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            String key = "weight-key-" + i;
+            before.put(key, ring.getNode(key).getId());
+        }
+
+        // When
+        assertTrue(ring.updateWeight("node-2", 2.0));
+
+        // Then
+        before.forEach((key, owner) -> {
+            String now = ring.getNode(key).getId();
+            assertTrue(now.equals(owner) || now.equals("node-2"), key);
+        });
+        assertEquals(300, ring.getStats().getNodeDistribution().get("node-2"));
+        assertTrue(ring.getAllNodes().stream()
+                .anyMatch(node -> node.getId().equals("node-2") && node.getWeight() == 2.0));
+
+        // Shrinking back restores the original placement
+        assertTrue(ring.updateWeight("node-2", 1.0));
+        before.forEach((key, owner) -> assertEquals(owner, ring.getNode(key).getId()));
+        assertFalse(ring.updateWeight("missing", 2.0));
+        assertThrows(IllegalArgumentException.class, () -> ring.updateWeight("node-2", 0));
+    }
+
+    @Test
+    @DisplayName("Should plan exactly the keys that move when a node is added")
+    void testPlanAddNodeMatchesActualMoves() {
+        // Given
+        Map<String, String> before = ownersOf(3000);
+
+        // When
+        RebalancePlan plan = ring.planAddNode("node-6", "192.168.1.16:8080", 1.0);
+        assertEquals(before, ownersOf(3000));
+        ring.addNode("node-6", "192.168.1.16:8080");
+
+        // Then
+        assertPlanMatches(plan, before, ownersOf(3000));
+        plan.moves().forEach(move -> assertEquals("node-6", move.toNodeId()));
+        assertEquals(1.0 / 6, plan.movedFraction(), 0.05);
+    }
+
+    @Test
+    @DisplayName("Should plan exactly the keys that move when a node is removed or re-weighted")
+    void testPlanRemoveAndReweightMatchActualMoves() {
+        Map<String, String> before = ownersOf(3000);
+        RebalancePlan removal = ring.planRemoveNode("node-2");
+        ring.removeNode("node-2");
+        assertPlanMatches(removal, before, ownersOf(3000));
+        removal.moves().forEach(move -> assertEquals("node-2", move.fromNodeId()));
+
+        before = ownersOf(3000);
+        RebalancePlan reweight = ring.planUpdateWeight("node-3", 3.0);
+        ring.updateWeight("node-3", 3.0);
+        assertPlanMatches(reweight, before, ownersOf(3000));
+
+        assertThrows(IllegalArgumentException.class, () -> ring.planRemoveNode("node-2"));
+        assertThrows(IllegalArgumentException.class, () -> ring.planAddNode("node-1", "192.168.1.11:8080", 1.0));
+    }
+
+    @Test
+    @DisplayName("Should cap every node at the bounded-load capacity")
+    void testBoundedLoadCapsNodes() {
+        // Given
+        ConsistentHashRing bounded = new ConsistentHashRing(150, "#", 3, 0.25);
+        for (int i = 1; i <= 5; i++) {
+            bounded.addNode("node-" + i, "192.168.1." + (10 + i) + ":8080");
+        }
+
+        // When: one hot tenant's keys all hash to the same node
+        int keys = 1000;
+        for (int i = 0; i < keys; i++) {
+            assertNotNull(bounded.assign(i % 2 == 0 ? "hot-tenant" : "key-" + i));
+        }
+
+        // Then
+        long capacity = (long) Math.ceil(1.25 * keys / 5);
+        bounded.getLoads().values().forEach(load -> assertTrue(load <= capacity, "load " + load));
+        assertEquals(keys, bounded.getLoads().values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    @DisplayName("Should hold the bounded-load capacity under concurrent assignment")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    void testBoundedLoadUnderConcurrency() throws Exception {
+        // Given
+        ConsistentHashRing bounded = new ConsistentHashRing(150, "#", 3, 0.25);
+        for (int i = 1; i <= 5; i++) {
+            bounded.addNode("node-" + i, "192.168.1." + (10 + i) + ":8080");
+        }
+
+        // When: every thread hammers the same hot key
+        int threads = 8;
+        int keysPerThread = 2000;
+        List<CompletableFuture<Void>> assigners = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            assigners.add(CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < keysPerThread; i++) {
+                    assertNotNull(bounded.assign("hot-tenant"));
+                }
+            }));
+        }
+        CompletableFuture.allOf(assigners.toArray(new CompletableFuture<?>[0])).get();
+
+        // Then
+        int keys = threads * keysPerThread;
+        long capacity = (long) Math.ceil(1.25 * keys / 5);
+        bounded.getLoads().values().forEach(load -> assertTrue(load <= capacity, "load " + load));
+        assertEquals(keys, bounded.getLoads().values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    @DisplayName("Should keep keys on their primary node while it has room")
+    void testBoundedLoadKeepsPrimaryBelowCapacity() {
+        // A loose bound: capacity stays above the total load, so no node fills up
+        ConsistentHashRing bounded = new ConsistentHashRing(150, "#", 3, 10.0);
+        for (int i = 1; i <= 5; i++) {
+            bounded.addNode("node-" + i, "192.168.1." + (10 + i) + ":8080");
+        }
+
+        for (int i = 0; i < 50; i++) {
+            String key = "light-key-" + i;
+            assertEquals(bounded.getNode(key), bounded.assign(key));
+        }
+    }
+
+    @Test
+    @DisplayName("Should release load and drop it with a removed node")
+    void testReleaseAndRemoveNodeLoad() {
+        // Given
+        ConsistentHashRing.Node node = ring.assign("tenant-1");
+        ring.assign("tenant-1");
+
+        // When
+        assertTrue(ring.release(node.getId()));
+
+        // Then
+        assertEquals(1L, ring.getLoads().get(node.getId()));
+        ring.removeNode(node.getId());
+        assertFalse(ring.getLoads().containsKey(node.getId()));
+        assertFalse(ring.release(node.getId()));
+        assertEquals(Long.MAX_VALUE, ring.getCapacity());
+    }
+
+    @Test
+    @DisplayName("Should ignore releases of keys a node does not hold")
+    void testReleaseAfterRemoveAndReAdd() {
+        // Given
+        ConsistentHashRing bounded = new ConsistentHashRing(150, "#", 3, 0.25);
+        for (int i = 1; i <= 5; i++) {
+            bounded.addNode("node-" + i, "192.168.1." + (10 + i) + ":8080");
+        }
+        ConsistentHashRing.Node node = bounded.assign("tenant-1");
+
+        // When: the node leaves with its key and comes back empty
+        bounded.removeNode(node.getId());
+        bounded.addNode(node.getId(), node.getAddress());
+
+        // Then: the stale release and a double release change nothing
+        assertFalse(bounded.release(node.getId()));
+        assertEquals(0L, bounded.getLoads().get(node.getId()));
+        ConsistentHashRing.Node again = bounded.assign("tenant-2");
+        assertTrue(bounded.release(again.getId()));
+        assertFalse(bounded.release(again.getId()));
+        assertEquals(0L, bounded.getLoads().get(again.getId()));
+        // No load is left, so the capacity is that of the first key again
+        assertEquals((long) Math.ceil(1.25 / 5), bounded.getCapacity());
+    }
+
+    @Test
+    @DisplayName("Should serve lookups without interruption during membership changes")
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    void testLookupsDuringMembershipChanges() throws Exception {
+        // Given
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<CompletableFuture<Void>> readers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final int threadId = t;
+            readers.add(CompletableFuture.runAsync(() -> {
+                int i = 0;
+                while (running.get() && i < 20_000) {
+                    assertNotNull(ring.getNode("reader-" + threadId + "-" + (i++ % 500)));
+                }
+            }));
+        }
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            ring.addNode("churn-node-" + i, "10.0.0." + i + ":8080");
+            ring.removeNode("churn-node-" + i);
+        }
+        running.set(false);
+
+        // Then
+        CompletableFuture.allOf(readers.toArray(new CompletableFuture<?>[0])).get();
+        assertEquals(5, ring.getNodeCount());
+        assertEquals(5 * 150, ring.getStats().getVirtualNodeCount());
+    }
+
+    @Test
+    @DisplayName("Should answer repeated lookups from the memo with the same owners")
+    void testLookupMemoHits() {
+        // Given
+        ConsistentHashRing memoized = new ConsistentHashRing(150, "#", 3, ConsistentHashRing.UNBOUNDED, 1024);
+        for (int i = 1; i <= 5; i++) {
+            memoized.addNode("node-" + i, "192.168.1." + i + ":8080");
+        }
+        LookupMemo memo = memoized.getLookupMemo().orElseThrow();
+
+        // When
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 100; i++) {
+                String key = "memo-key-" + i;
+                assertEquals(ring.getNode(key), memoized.getNode(key), key);
+                assertEquals(ring.getNodes(key, 3), memoized.getNodes(key, 3), key);
+            }
+        }
+
+        // Then: only the first lookup of each key hashed and searched the ring
+        assertEquals(100, memo.missCount());
+        assertEquals(1900, memo.hitCount());
+        assertTrue(ring.getLookupMemo().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should ignore memo entries from an older ring epoch")
+    void testLookupMemoEpochs() {
+        // Given
+        ConsistentHashRing memoized = new ConsistentHashRing(150, "#", 3, ConsistentHashRing.UNBOUNDED, 1024);
+        for (int i = 1; i <= 5; i++) {
+            memoized.addNode("node-" + i, "192.168.1." + i + ":8080");
+        }
+        long epoch = memoized.getEpoch();
+        for (int i = 0; i < 500; i++) {
+            memoized.getNode("epoch-key-" + i);
+        }
+
+        // When
+        memoized.addNode("node-6", "192.168.1.6:8080");
+        ring.addNode("node-6", "192.168.1.6:8080");
+
+        // Then
+        assertEquals(epoch + 1, memoized.getEpoch());
+        LookupMemo memo = memoized.getLookupMemo().orElseThrow();
+        long missesBefore = memo.missCount();
+        for (int i = 0; i < 500; i++) {
+            String key = "epoch-key-" + i;
+            assertEquals(ring.getNode(key), memoized.getNode(key), key);
+        }
+        assertEquals(missesBefore + 500, memo.missCount());
+    }
+
+    @Test
+    @DisplayName("Should spread replicas over zones without moving primaries")
+    void testZoneAwareReplicas() {
+        // Given
+        ConsistentHashRing zoneAware = new ConsistentHashRing(150, "#", 3, ConsistentHashRing.UNBOUNDED, 0, true);
+        ConsistentHashRing unlabelled = new ConsistentHashRing(150, "#", 3, ConsistentHashRing.UNBOUNDED, 0, true);
+        ConsistentHashRing plain = new ConsistentHashRing();
+        for (int i = 1; i <= 9; i++) {
+            zoneAware.addNode("node-" + i, "10.0.0." + i + ":8080", 1.0, "zone-" + (i % 3));
+            unlabelled.addNode("node-" + i, "10.0.0." + i + ":8080");
+            plain.addNode("node-" + i, "10.0.0." + i + ":8080");
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            String key = "zone-key-" + i;
+
+            // When
+            List<ConsistentHashRing.Node> replicas = zoneAware.getNodes(key, 3);
+            List<ConsistentHashRing.Node> walked = zoneAware.getNodes(key, 6);
+
+            // Then
+            assertEquals(plain.getNode(key), replicas.get(0), key);
+            assertEquals(3, replicas.stream().map(ConsistentHashRing.Node::getZone).distinct().count(), key);
+            assertEquals(replicas, walked.subList(0, 3), key);
+            assertEquals(6, walked.stream().distinct().count(), key);
+            assertEquals(plain.getNodes(key, 5), unlabelled.getNodes(key, 5), key);
+        }
+    }
+
+    @Test
+    @DisplayName("Should rebuild zone-aware replicas quickly when one zone is tiny")
+    @Timeout(value = 2, unit = TimeUnit.SECONDS)
+    void testSkewedZoneRebuild() {
+        // Given: a zone-b token is thousands of tokens away from most positions
+        ConsistentHashRing skewed = new ConsistentHashRing(150, "#", 3, ConsistentHashRing.UNBOUNDED, 0, true);
+        MembershipBatch batch = new MembershipBatch();
+        for (int i = 1; i <= 500; i++) {
+            batch.add("node-" + i, "10.0.0." + i + ":8080", 1.0, "zone-a");
+        }
+        skewed.applyBatch(batch);
+
+        // When
+        skewed.addNode("lonely", "10.0.1.1:8080", 0.05, "zone-b");
+        skewed.updateWeight("lonely", 0.1);
+
+        // Then
+        for (int i = 0; i < 1000; i++) {
+            String key = "skewed-key-" + i;
+            List<ConsistentHashRing.Node> replicas = skewed.getNodes(key, 3);
+            assertEquals(3, replicas.stream().distinct().count(), key);
+            assertTrue(replicas.stream().anyMatch(node -> node.getId().equals("lonely")), key);
+            assertEquals(replicas, skewed.getNodes(key, 4).subList(0, 3), key);
+        }
+    }
+
+    @Test
+    @DisplayName("Should list a reader's own zone first without changing the replica set")
+    void testLocalityOrderedReplicas() {
+        // Given
+        ConsistentHashRing zoned = new ConsistentHashRing(150, "#", 3, ConsistentHashRing.UNBOUNDED, 0, true);
+        for (int i = 1; i <= 6; i++) {
+            zoned.addNode("node-" + i, "10.0.0." + i + ":8080", 1.0, "zone-" + (i % 3));
+        }
+
+        for (int i = 0; i < 500; i++) {
+            String key = "near-key-" + i;
+
+            // When
+            List<ConsistentHashRing.Node> replicas = zoned.getNodes(key, 3);
+            List<ConsistentHashRing.Node> near = zoned.getNodesByLocality(key, 3, "zone-2");
+
+            // Then
+            assertEquals(Set.copyOf(replicas), Set.copyOf(near), key);
+            assertEquals("zone-2", near.get(0).getZone(), key);
+            assertEquals(replicas, zoned.getNodesByLocality(key, 3, "elsewhere"), key);
+        }
+    }
+
+    @Test
+    @DisplayName("Should record the node changes behind each ring version")
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    void testChangeFeed() {
+        // Given
+        long since = ring.getEpoch();
+        CompletableFuture<Void> changed = ring.awaitChangeAfter(since);
+        assertFalse(changed.isDone());
+        assertTrue(ring.getChangesSince(since).isEmpty());
+
+        // When
+        ring.addNode("node-6", "192.168.1.6:8080");
+        ring.updateWeight("node-2", 2.0);
+        ring.applyBatch(new MembershipBatch().remove("node-1").remove("node-3"));
+
+        // Then
+        changed.join();
+        RingChanges changes = ring.getChangesSince(since);
+        assertFalse(changes.resetRequired());
+        assertEquals(ring.getEpoch(), changes.toVersion());
+        assertEquals(List.of(since + 1, since + 2, since + 3),
+                changes.versions().stream().map(RingChanges.Version::version).toList());
+        assertEquals(RingChanges.NodeChange.Type.REWEIGHT, changes.versions().get(1).changes().get(0).type());
+        assertEquals(2, changes.versions().get(2).changes().size());
+        assertTrue(ring.getChangesSince(-1).resetRequired());
+        assertTrue(ring.getChangesSince(ring.getEpoch() + 1).resetRequired());
+
+        RingMembership membership = ring.getMembership();
+        assertEquals(ring.getEpoch(), membership.version());
+        ConsistentHashRing replica = membership.toRing();
+        for (int i = 0; i < 1000; i++) {
+            String key = "feed-key-" + i;
+            assertEquals(ring.getNodes(key, 3), replica.getNodes(key, 3), key);
+        }
+    }
+
+    private List<ConsistentHashRing.Node> walkRing(String key, int count) {
+        RingSnapshot snapshot = ring.snapshot();
+        List<ConsistentHashRing.Node> nodes = new ArrayList<>();
+        int position = snapshot.positionFor(KeyHasher.hash(key));
+        for (int step = 0; step < snapshot.tokenCount() && nodes.size() < count; step++) {
+            ConsistentHashRing.Node owner = snapshot.ownerAt((position + step) % snapshot.tokenCount());
+            if (!nodes.contains(owner)) {
+                nodes.add(owner);
+            }
+        }
+        return nodes;
+    }
+
+    private Map<String, String> ownersOf(int keyCount) {
+        Map<String, String> owners = new HashMap<>();
+        for (int i = 0; i < keyCount; i++) {
+            String key = "plan-key-" + i;
+            owners.put(key, ring.getNode(key).getId());
+        }
+        return owners;
+    }
+
+    private static void assertPlanMatches(RebalancePlan plan, Map<String, String> before, Map<String, String> after) {
+        before.forEach((key, owner) -> {
+            long hash = KeyHasher.hash(key);
+            RebalancePlan.RangeMove move = plan.moves().stream()
+                    .filter(range -> range.contains(hash))
+                    .findFirst()
+                    .orElse(null);
+            if (move == null) {
+                assertEquals(owner, after.get(key), key);
+            } else {
+                assertEquals(owner, move.fromNodeId(), key);
+                assertEquals(after.get(key), move.toNodeId(), key);
+            }
+        });
+    }
+}
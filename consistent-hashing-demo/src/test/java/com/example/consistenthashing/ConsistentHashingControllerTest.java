@@ -0,0 +1,61 @@
+package com.example.consistenthashing;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Request validation tests for the ConsistentHashingController.
+ */
+class ConsistentHashingControllerTest {
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        ConsistentHashingService service = new ConsistentHashingService();
+        service.addNode("node-1", "192.168.1.1:8080");
+        mockMvc = MockMvcBuilders.standaloneSetup(new ConsistentHashingController(service)).build();
+    }
+
+    @Test
+    @DisplayName("Should reject a batch lookup with too many keys")
+    void testBatchLookupTooManyKeys() throws Exception {
+        // Given
+        String body = batchLookupBody(ConsistentHashingController.MAX_BATCH_LOOKUP_KEYS + 1);
+
+        // When / Then
+        mockMvc.perform(post("/api/v1/consistent-hashing/lookup/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should accept a batch lookup at the key limit")
+    void testBatchLookupAtKeyLimit() throws Exception {
+        // Given
+        String body = batchLookupBody(ConsistentHashingController.MAX_BATCH_LOOKUP_KEYS);
+
+        // When / Then
+        mockMvc.perform(post("/api/v1/consistent-hashing/lookup/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isOk());
+    }
+
+    private static String batchLookupBody(int keyCount) {
+        return IntStream.range(0, keyCount)
+                .mapToObj(i -> "\"key-" + i + "\"")
+                .collect(Collectors.joining(",", "{\"keys\":[", "]}"));
+    }
+}
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.RepeatedTest;
 import org.junit.jupiter.api.Timeout;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -88,6 +89,30 @@ class ConsistentHashingServiceTest {
         assertFalse(result);
     }
 
+    @Test
+    @DisplayName("Should apply bulk membership changes as a single ring epoch")
+    void testBulkMembershipChanges() {
+        // Given
+        Map<String, String> nodes = new java.util.LinkedHashMap<>();
+        for (int i = 0; i < 50; i++) {
+            nodes.put("bulk-node-" + i, "10.0.0." + i + ":8080");
+        }
+        nodes.put("node-1", "192.168.1.10:8080");
+        long epoch = service.getRingEpoch();
+
+        // When
+        Map<String, Boolean> added = service.addNodesBulk(nodes);
+        Map<String, Boolean> removed = service.removeNodesBulk(List.of("bulk-node-0", "bulk-node-1", "missing"));
+
+        // Then
+        assertEquals(epoch + 2, service.getRingEpoch());
+        assertEquals(51, added.size());
+        assertFalse(added.get("node-1"));
+        assertTrue(added.get("bulk-node-49"));
+        assertEquals(Map.of("bulk-node-0", true, "bulk-node-1", true, "missing", false), removed);
+        assertEquals(5 + 48, service.getAllNodes().size());
+    }
+
     @Test
     @DisplayName("Should consistently map keys to nodes")
     void testConsistentKeyMapping() {
@@ -201,6 +226,38 @@ class ConsistentHashingServiceTest {
         assertNotNull(node);
     }
 
+    @Test
+    @DisplayName("Should look up a batch in chunks and keep the key order")
+    void testBatchLookupAsync() throws Exception {
+        // Given - small chunks so the batch spans many chunks over few lanes
+        LookupExecutor executor = new LookupExecutor(LookupExecutor.Mode.VIRTUAL, 0, 7, 3);
+        ConsistentHashingService batchService = new ConsistentHashingService(new ConsistentHashRing(),
+                new TrafficStats(), new LocalCache(), null, executor);
+        for (int i = 1; i <= 5; i++) {
+            batchService.addNode("node-" + i, "192.168.1." + i + ":8080");
+        }
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            keys.add("batch-key-" + i);
+        }
+        keys.add(" ");
+
+        try {
+            // When
+            Map<String, ConsistentHashRing.Node> nodes = batchService.getNodesForKeysAsync(keys)
+                    .get(5, TimeUnit.SECONDS);
+
+            // Then - the blank key has no node; the rest keep their order
+            assertEquals(Runtime.version().feature() >= 21 ? LookupExecutor.Mode.VIRTUAL
+                    : LookupExecutor.Mode.PLATFORM, executor.getMode());
+            assertEquals(keys.subList(0, 1000), List.copyOf(nodes.keySet()));
+            nodes.forEach((key, node) -> assertEquals(batchService.getNodeForKey(key), node));
+            assertTrue(batchService.getNodesForKeysAsync(List.of()).get(5, TimeUnit.SECONDS).isEmpty());
+        } finally {
+            executor.close();
+        }
+    }
+
     @Test
     @DisplayName("Should simulate node failure correctly")
     void testSimulateNodeFailure() {
@@ -266,6 +323,61 @@ class ConsistentHashingServiceTest {
         assertTrue((Integer) cacheStats.get("size") >= 2);
     }
 
+    @Test
+    @DisplayName("Should report hit rate from the bounded cache")
+    void testCacheHitRate() {
+        // Given
+        service.putInCache("ttl-key", "value", java.time.Duration.ofMinutes(1));
+
+        // When
+        service.getFromCache("ttl-key");
+        service.getFromCache("absent-key");
+
+        // Then
+        Map<String, Object> cacheStats = service.getCacheStats();
+        assertEquals(1L, cacheStats.get("hitCount"));
+        assertEquals(1L, cacheStats.get("missCount"));
+        assertEquals(0.5, (Double) cacheStats.get("hitRate"), 1e-9);
+        assertTrue(cacheStats.containsKey("evictionCount"));
+    }
+
+    @Test
+    @DisplayName("Should keep cached values readable across membership changes in sharded mode")
+    void testShardedCacheSurvivesRebalance() throws InterruptedException {
+        // Given
+        ConsistentHashRing ring = new ConsistentHashRing();
+        try (ShardedStore store = new ShardedStore(ring, 64, java.time.Duration.ofMinutes(1))) {
+            ConsistentHashingService sharded = new ConsistentHashingService(ring, new TrafficStats(),
+                    null, store);
+            for (int i = 0; i < 500; i++) {
+                sharded.putInCache("key-" + i, i);
+            }
+
+            // When
+            sharded.addNode("node-6", "192.168.1.15:8080");
+            sharded.removeNode("node-1");
+            assertTrue(store.awaitMigrations(java.time.Duration.ofSeconds(10)));
+
+            // Then
+            for (int i = 0; i < 500; i++) {
+                assertEquals(i, sharded.getFromCache("key-" + i));
+            }
+            Map<String, Object> cacheStats = sharded.getCacheStats();
+            assertEquals("sharded", cacheStats.get("mode"));
+            assertEquals(500, cacheStats.get("size"));
+            assertFalse(store.shardSizes().containsKey("node-1"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should require either a local cache or a sharded store")
+    void testCacheRequired() {
+        try (LookupExecutor executor = new LookupExecutor()) {
+            assertThrows(IllegalStateException.class, () -> new ConsistentHashingService(new ConsistentHashRing(),
+                    new TrafficStats(), null, null, executor));
+        }
+    }
+
     @RepeatedTest(10)
     @DisplayName("Should maintain consistent distribution across multiple runs")
     void testConsistentDistribution() {
@@ -309,7 +421,7 @@ class ConsistentHashingServiceTest {
         int operationsPerThread = 100;
 
         // When
-        List<CompletableFuture<Void>> futures = new java.util.ArrayList<>();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
 
         for (int i = 0; i < numThreads; i++) {
             final int threadId = i;
@@ -371,4 +483,64 @@ class ConsistentHashingServiceTest {
             assertNotNull(node);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should track assigned and released keys per node")
+    void testAssignAndReleaseKeys() {
+        // When
+        ConsistentHashRing.Node node = service.assignKey("tenant-42");
+
+        // Then
+        assertNotNull(node);
+        assertEquals(1L, service.getNodeLoads().get(node.getId()));
+        assertFalse(service.isBoundedLoad());
+        assertEquals(Long.MAX_VALUE, service.getNodeCapacity());
+
+        assertTrue(service.releaseKey(node.getId()));
+        assertEquals(0L, service.getNodeLoads().get(node.getId()));
+        assertFalse(service.releaseKey("missing-node"));
+    }
+
+    @Test
+    @DisplayName("Should reject load tracking on engines without it")
+    void testAssignRequiresRingEngine() {
+        ConsistentHashingService jumpService = new ConsistentHashingService(new JumpHashEngine());
+
+        assertThrows(IllegalStateException.class, () -> jumpService.assignKey("tenant-42"));
+        assertFalse(jumpService.isBoundedLoad());
+    }
+
+    @Test
+    @DisplayName("Should add and re-weight nodes by capacity")
+    void testWeightedNodes() {
+        // When
+        assertTrue(service.addNode("big-node", "192.168.1.200:8080", 4.0));
+        assertTrue(service.updateWeight("big-node", 2.0));
+
+        // Then
+        ConsistentHashRing.HashRingStats stats = service.getStats();
+        assertEquals(300, stats.getNodeDistribution().get("big-node"));
+        assertEquals(2.0 / 7.0, stats.getExpectedOwnership().get("big-node"), 1e-9);
+        assertFalse(service.updateWeight("missing-node", 2.0));
+
+        ConsistentHashingService jumpService = new ConsistentHashingService(new JumpHashEngine());
+        assertThrows(UnsupportedOperationException.class,
+                () -> jumpService.addNode("big-node", "192.168.1.200:8080", 4.0));
+        assertTrue(jumpService.addNode("plain-node", "192.168.1.201:8080", 1.0));
+    }
+
+    @Test
+    @DisplayName("Should record lookup traffic per node and per key")
+    void testTrafficStats() {
+        // When
+        ConsistentHashRing.Node node = service.getNodeForKey("popular-key");
+        service.getNodeForKey("popular-key");
+        service.getNodesForKey("popular-key", 3);
+
+        // Then
+        TrafficStats traffic = service.getTrafficStats();
+        assertEquals(3L, traffic.getNodeRequests().get(node.getId()));
+        assertEquals("popular-key", traffic.getHotKeys().get(0).key());
+        assertTrue(traffic.estimateCount("popular-key") >= 3);
+    }
+}
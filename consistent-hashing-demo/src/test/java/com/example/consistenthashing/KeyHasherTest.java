@@ -0,0 +1,78 @@
+package com.example.consistenthashing;
+
+import com.google.common.hash.Hashing;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies the allocation-free hasher against Guava's MurmurHash3 so that
+ * switching hash paths never moves keys.
+ */
+class KeyHasherTest {
+
+    private static long guava(byte[] bytes) {
+        return Hashing.murmur3_128().hashBytes(bytes).asLong();
+    }
+
+    @Test
+    @DisplayName("Should match Guava for ASCII, multi-byte and surrogate strings")
+    void testStringHashMatchesGuava() {
+        String[] keys = {
+                "", "a", "user-123", "exactly-16-bytes", "a-key-longer-than-one-block-of-16",
+                "café", "日本語のキー", "emoji-😀-key",
+                "unpaired-\ud83d-high", "unpaired-\ude00-low", "trailing-high-\ud83d"
+        };
+        for (String key : keys) {
+            long expected = Hashing.murmur3_128().hashString(key, StandardCharsets.UTF_8).asLong();
+            assertEquals(expected, KeyHasher.hash(key), "Mismatch for key: " + key);
+        }
+
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            char[] chars = new char[random.nextInt(40)];
+            for (int c = 0; c < chars.length; c++) {
+                chars[c] = (char) random.nextInt(Character.MAX_VALUE + 1);
+            }
+            String key = new String(chars);
+            long expected = Hashing.murmur3_128().hashString(key, StandardCharsets.UTF_8).asLong();
+            assertEquals(expected, KeyHasher.hash(key));
+        }
+    }
+
+    @Test
+    @DisplayName("Should match Guava for byte arrays and buffers of every tail length")
+    void testBinaryHashMatchesGuava() {
+        Random random = new Random(7);
+        for (int length = 0; length <= 48; length++) {
+            byte[] bytes = new byte[length];
+            random.nextBytes(bytes);
+            long expected = guava(bytes);
+
+            assertEquals(expected, KeyHasher.hash(bytes));
+
+            byte[] padded = new byte[length + 5];
+            System.arraycopy(bytes, 0, padded, 3, length);
+            assertEquals(expected, KeyHasher.hash(padded, 3, length));
+
+            ByteBuffer heap = ByteBuffer.wrap(padded, 3, length);
+            assertEquals(expected, KeyHasher.hash(heap));
+            assertEquals(3, heap.position());
+
+            for (ByteOrder order : new ByteOrder[] { ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN }) {
+                ByteBuffer direct = ByteBuffer.allocateDirect(length + 2).order(order);
+                direct.position(2);
+                direct.put(bytes);
+                direct.position(2);
+                assertEquals(expected, KeyHasher.hash(direct));
+                assertEquals(2, direct.position());
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.consistenthashing;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the bounded local cache.
+ */
+class LocalCacheTest {
+
+    @Test
+    @DisplayName("Should stay within the entry bound and count evictions")
+    void testEntryBound() {
+        // Given
+        LocalCache cache = new LocalCache(100, 0, Duration.ofMinutes(1));
+
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            cache.put("key-" + i, "value-" + i);
+        }
+        cache.cleanUp();
+
+        // Then
+        assertTrue(cache.size() <= 100);
+        assertTrue(cache.stats().evictionCount() >= 9_900);
+        assertTrue(cache.weightedSizeBytes().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should keep frequently read entries through a scan of one-hit keys")
+    void testFrequencyBasedAdmission() {
+        // Given
+        LocalCache cache = new LocalCache(100, 0, Duration.ofMinutes(1));
+        for (int i = 0; i < 100; i++) {
+            cache.put(i < 50 ? "hot-" + i : "filler-" + i, i);
+        }
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 50; i++) {
+                cache.get("hot-" + i);
+                // Drain the lossy read buffer so every access reaches the frequency sketch
+                cache.cleanUp();
+            }
+        }
+
+        // When: stay within one sketch aging period (10x capacity) so the hot counts are not halved away
+        for (int i = 0; i < 500; i++) {
+            cache.put("scan-" + i, i);
+        }
+        cache.cleanUp();
+
+        // Then
+        int survivors = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.get("hot-" + i) != null) {
+                survivors++;
+            }
+        }
+        assertTrue(survivors >= 45, "hot entries kept: " + survivors);
+    }
+
+    @Test
+    @DisplayName("Should expire each entry after its own time-to-live")
+    void testPerEntryTtl() {
+        // Given
+        AtomicLong now = new AtomicLong();
+        Ticker ticker = now::get;
+        LocalCache cache = new LocalCache(100, 0, Duration.ofMinutes(10), ticker);
+        cache.put("short", "a", Duration.ofSeconds(5));
+        cache.put("default", "b");
+
+        // When
+        now.addAndGet(Duration.ofSeconds(6).toNanos());
+
+        // Then
+        assertNull(cache.get("short"));
+        assertEquals("b", cache.get("default"));
+
+        now.addAndGet(Duration.ofMinutes(10).toNanos());
+        assertNull(cache.get("default"));
+        assertThrows(IllegalArgumentException.class, () -> cache.put("bad", "c", Duration.ZERO));
+    }
+
+    @Test
+    @DisplayName("Should bound the estimated byte size when a weight budget is set")
+    void testWeightBound() {
+        // Given
+        LocalCache cache = new LocalCache(0, 64 * 1024, Duration.ofMinutes(1));
+
+        // When
+        for (int i = 0; i < 1_000; i++) {
+            cache.put("key-" + i, new byte[1024]);
+        }
+        cache.cleanUp();
+
+        // Then
+        long weighted = cache.weightedSizeBytes().orElseThrow();
+        assertTrue(weighted <= 64 * 1024, "weighted size " + weighted);
+        assertTrue(cache.size() < 64);
+        assertTrue(cache.stats().evictionWeight() > 0);
+    }
+}
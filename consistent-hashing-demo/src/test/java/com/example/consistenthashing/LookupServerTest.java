@@ -0,0 +1,225 @@
+package com.example.consistenthashing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the binary TCP lookup protocol.
+ */
+@Timeout(value = 10, unit = TimeUnit.SECONDS)
+class LookupServerTest {
+
+    private ConsistentHashRing ring;
+    private LookupServer server;
+    private Socket socket;
+    private DataOutputStream out;
+    private DataInputStream in;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ring = new ConsistentHashRing();
+        for (int i = 1; i <= 5; i++) {
+            ring.addNode("node-" + i, "192.168.1." + i + ":8080");
+        }
+        server = new LookupServer(ring, new InetSocketAddress("127.0.0.1", 0)).start();
+        socket = new Socket("127.0.0.1", server.getPort());
+        out = new DataOutputStream(socket.getOutputStream());
+        in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        socket.close();
+        server.close();
+    }
+
+    private static byte[] lookupFrame(int requestId, int replicas, List<String> keys) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(payload);
+        data.writeByte(LookupServer.OP_LOOKUP);
+        data.writeInt(requestId);
+        data.writeByte(replicas);
+        data.writeShort(keys.size());
+        for (String key : keys) {
+            byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+            data.writeShort(bytes.length);
+            data.write(bytes);
+        }
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        new DataOutputStream(frame).writeInt(payload.size());
+        payload.writeTo(frame);
+        return frame.toByteArray();
+    }
+
+    private String readString() throws IOException {
+        byte[] bytes = new byte[in.readUnsignedShort()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a LOOKUP response, returning the node IDs found for each key.
+     */
+    private List<List<String>> readLookup(int expectedRequestId) throws IOException {
+        in.readInt();
+        assertEquals(LookupServer.STATUS_OK, in.readByte());
+        assertEquals(expectedRequestId, in.readInt());
+        int keyCount = in.readUnsignedShort();
+        List<List<String>> results = new ArrayList<>();
+        for (int k = 0; k < keyCount; k++) {
+            int nodeCount = in.readUnsignedByte();
+            List<String> nodes = new ArrayList<>();
+            for (int n = 0; n < nodeCount; n++) {
+                nodes.add(readString());
+                readString();
+            }
+            results.add(nodes);
+        }
+        return results;
+    }
+
+    @Test
+    @DisplayName("Should answer batched lookups with the same owners as the ring")
+    void testBatchedLookup() throws IOException {
+        // Given
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            keys.add("key-" + i);
+        }
+
+        // When
+        out.write(lookupFrame(7, 3, keys));
+        out.flush();
+        List<List<String>> results = readLookup(7);
+
+        // Then
+        assertEquals(keys.size(), results.size());
+        for (int i = 0; i < keys.size(); i++) {
+            List<String> expected = ring.getNodes(keys.get(i), 3).stream()
+                    .map(ConsistentHashRing.Node::getId).toList();
+            assertEquals(expected, results.get(i), keys.get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Should answer pipelined requests in order and see membership changes")
+    void testPipelinedLookups() throws IOException {
+        // Given
+        ByteArrayOutputStream pipelined = new ByteArrayOutputStream();
+        for (int i = 0; i < 200; i++) {
+            pipelined.write(lookupFrame(i, 1, List.of("pipelined-" + i)));
+        }
+
+        // When
+        out.write(pipelined.toByteArray());
+        out.flush();
+
+        // Then
+        for (int i = 0; i < 200; i++) {
+            assertEquals(List.of(List.of(ring.getNode("pipelined-" + i).getId())), readLookup(i));
+        }
+        ring.removeNode(ring.getNode("moved-key").getId());
+        out.write(lookupFrame(1000, 1, List.of("moved-key")));
+        out.flush();
+        assertEquals(List.of(List.of(ring.getNode("moved-key").getId())), readLookup(1000));
+        assertEquals(201, server.stats().get("keys"));
+    }
+
+    @Test
+    @DisplayName("Should report malformed requests and keep the connection usable")
+    void testMalformedRequest() throws IOException {
+        // Given
+        byte[] truncated = {0, 0, 0, 8, LookupServer.OP_LOOKUP, 0, 0, 0, 3, 1, 0, 5};
+
+        // When
+        out.write(truncated);
+        out.write(lookupFrame(4, 1, List.of("after-error")));
+        out.flush();
+
+        // Then
+        in.readInt();
+        assertEquals(LookupServer.STATUS_ERROR, in.readByte());
+        assertEquals(3, in.readInt());
+        assertEquals("Malformed request", readString());
+        assertEquals(List.of(List.of(ring.getNode("after-error").getId())), readLookup(4));
+    }
+
+    @Test
+    @DisplayName("Should reject lookups asking for too many replicas or results")
+    void testOversizedLookup() throws IOException {
+        // Given
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 30_000; i++) {
+            keys.add("oversized-" + i);
+        }
+
+        // When
+        out.write(lookupFrame(1, ConsistentHashRing.DEFAULT_MAX_REPLICAS + 1, List.of("key")));
+        out.write(lookupFrame(2, 3, keys));
+        out.write(lookupFrame(3, 1, List.of("after-error")));
+        out.flush();
+
+        // Then
+        in.readInt();
+        assertEquals(LookupServer.STATUS_ERROR, in.readByte());
+        assertEquals(1, in.readInt());
+        assertEquals("replicas must be between 1 and 3", readString());
+        in.readInt();
+        assertEquals(LookupServer.STATUS_ERROR, in.readByte());
+        assertEquals(2, in.readInt());
+        assertEquals("keys times replicas must be at most " + LookupServer.MAX_LOOKUP_RESULTS, readString());
+        assertEquals(List.of(List.of(ring.getNode("after-error").getId())), readLookup(3));
+        assertEquals(2, server.stats().get("errors"));
+    }
+
+    @Test
+    @DisplayName("Should pause a client that is not reading and resume once it catches up")
+    void testSlowReader() throws Exception {
+        // Given: responses far larger than the output high-water mark
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            keys.add("slow-" + i);
+        }
+        byte[] frame = lookupFrame(0, 3, keys);
+        int frames = 40;
+
+        // When: every request is sent before any response is read
+        Thread writer = new Thread(() -> {
+            try {
+                for (int i = 0; i < frames; i++) {
+                    out.write(frame);
+                }
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.start();
+        Thread.sleep(200);
+
+        // Then
+        for (int i = 0; i < frames; i++) {
+            assertEquals(keys.size(), readLookup(0).size());
+        }
+        writer.join();
+        assertEquals((long) frames * keys.size(), server.stats().get("keys"));
+    }
+}
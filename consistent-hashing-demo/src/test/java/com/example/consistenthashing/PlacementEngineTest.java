@@ -0,0 +1,152 @@
+package com.example.consistenthashing;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Contract tests run against every placement engine.
+ */
+class PlacementEngineTest {
+
+    private static PlacementEngine engineWithNodes(PlacementEngineType type, int nodeCount) {
+        PlacementEngine engine = type.create();
+        for (int i = 0; i < nodeCount; i++) {
+            assertTrue(engine.addNode("node-" + i, "10.0.0." + i + ":8080"));
+        }
+        return engine;
+    }
+
+    @ParameterizedTest
+    @EnumSource(PlacementEngineType.class)
+    @DisplayName("Should map keys deterministically and spread them over all nodes")
+    void testDeterministicPlacement(PlacementEngineType type) {
+        // Given
+        PlacementEngine engine = engineWithNodes(type, 8);
+
+        // When
+        Map<String, Integer> distribution = new HashMap<>();
+        for (int i = 0; i < 8000; i++) {
+            String key = "key-" + i;
+            ConsistentHashRing.Node node = engine.getNode(key);
+            assertEquals(node, engine.getNode(key));
+            distribution.merge(node.getId(), 1, Integer::sum);
+        }
+
+        // Then
+        assertEquals(8, distribution.size());
+        distribution.values().forEach(count -> assertTrue(count > 500, type + " skewed: " + distribution));
+    }
+
+    @ParameterizedTest
+    @EnumSource(PlacementEngineType.class)
+    @DisplayName("Should return distinct replicas led by the primary node")
+    void testReplicas(PlacementEngineType type) {
+        // Given
+        PlacementEngine engine = engineWithNodes(type, 5);
+
+        // When
+        List<ConsistentHashRing.Node> replicas = engine.getNodes("replica-key", 3);
+
+        // Then
+        assertEquals(3, replicas.size());
+        assertEquals(3, replicas.stream().distinct().count());
+        assertEquals(engine.getNode("replica-key"), replicas.get(0));
+        assertEquals(5, engine.getNodes("replica-key", 10).size());
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = PlacementEngineType.class, names = { "RING", "MAGLEV", "ANCHOR", "RENDEZVOUS" })
+    @DisplayName("Should only move keys away from a removed node")
+    void testMinimalDisruptionOnRemove(PlacementEngineType type) {
+        // Given
+        PlacementEngine engine = engineWithNodes(type, 10);
+        Map<String, String> before = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            before.put("key-" + i, engine.getNode("key-" + i).getId());
+        }
+
+        // When
+        assertTrue(engine.removeNode("node-4"));
+
+        // Then
+        int moved = 0;
+        for (Map.Entry<String, String> entry : before.entrySet()) {
+            String owner = engine.getNode(entry.getKey()).getId();
+            assertNotEquals("node-4", owner);
+            if (!owner.equals(entry.getValue())) {
+                moved++;
+                if (type != PlacementEngineType.MAGLEV) {
+                    assertEquals("node-4", entry.getValue());
+                }
+            }
+        }
+        // Maglev is near-minimal: allow a little extra churn on top of the removed share
+        assertTrue(moved < 5000 * 0.15, type + " moved " + moved + " keys");
+        assertEquals(9, engine.getNodeCount());
+    }
+
+    @Test
+    @DisplayName("Should give weighted rendezvous nodes their share and rank replicas by score")
+    void testWeightedRendezvous() {
+        // Given
+        RendezvousHashEngine engine = new RendezvousHashEngine();
+        engine.addNode("small-1", "10.0.0.1:8080", 1.0);
+        engine.addNode("small-2", "10.0.0.2:8080", 1.0);
+        engine.addNode("large", "10.0.0.3:8080", 2.0);
+
+        // When
+        Map<String, Integer> distribution = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            String key = "key-" + i;
+            List<ConsistentHashRing.Node> replicas = engine.getNodes(key, 3);
+            assertEquals(engine.getNode(key), replicas.get(0));
+            assertEquals(3, replicas.stream().distinct().count());
+            distribution.merge(replicas.get(0).getId(), 1, Integer::sum);
+        }
+
+        // Then
+        assertEquals(0.5, distribution.get("large") / 20000.0, 0.02);
+        assertEquals(0.25, distribution.get("small-1") / 20000.0, 0.02);
+
+        // Resetting the weights restores the unweighted placement
+        engine.updateWeight("large", 1.0);
+        engine.updateWeight("small-1", 3.0);
+        engine.updateWeight("small-1", 1.0);
+        RendezvousHashEngine unweighted = new RendezvousHashEngine();
+        for (String nodeId : List.of("small-1", "small-2", "large")) {
+            unweighted.addNode(nodeId, "10.0.0.9:8080");
+        }
+        for (int i = 0; i < 2000; i++) {
+            String key = "key-" + i;
+            assertEquals(unweighted.getNodes(key, 3), engine.getNodes(key, 3), key);
+        }
+        assertThrows(IllegalArgumentException.class, () -> engine.addNode("bad", "10.0.0.4:8080", 0.0));
+    }
+
+    @Test
+    @DisplayName("Should report a result for every engine in comparison mode")
+    void testComparison() {
+        // When
+        List<PlacementEngineComparison.EngineResult> results = new PlacementEngineComparison(10, 2000).run();
+
+        // Then
+        assertEquals(PlacementEngineType.values().length, results.size());
+        for (PlacementEngineComparison.EngineResult result : results) {
+            assertTrue(result.memoryBytes() > 0);
+            assertTrue(result.movedOnAddFraction() > 0 && result.movedOnAddFraction() < 0.5);
+            assertTrue(result.movedOnRemoveFraction() > 0 && result.movedOnRemoveFraction() < 0.5);
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> new PlacementEngineComparison(PlacementEngineComparison.MAX_NODES + 1, 2000));
+        assertThrows(IllegalArgumentException.class,
+                () -> new PlacementEngineComparison(10, PlacementEngineComparison.MAX_SAMPLE_KEYS + 1));
+    }
+}
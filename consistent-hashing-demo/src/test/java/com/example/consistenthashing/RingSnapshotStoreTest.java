@@ -0,0 +1,155 @@
+package com.example.consistenthashing;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for persisting and restoring ring snapshots.
+ */
+class RingSnapshotStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private static ConsistentHashRing populatedRing() {
+        ConsistentHashRing ring = new ConsistentHashRing();
+        for (int i = 1; i <= 6; i++) {
+            ring.addNode("node-" + i, "192.168.1." + i + ":8080", i == 2 ? 2.0 : 1.0);
+        }
+        // Leave a free slot behind so slot numbering must survive the round trip
+        ring.removeNode("node-4");
+        return ring;
+    }
+
+    @Test
+    @DisplayName("Should restore the same layout and epoch without re-adding nodes")
+    void testRoundTrip() throws IOException {
+        // Given
+        Path file = directory.resolve("ring.snapshot");
+        ConsistentHashRing original = new ConsistentHashRing();
+        try (RingSnapshotStore store = new RingSnapshotStore(file)) {
+            assertFalse(store.attach(original));
+            for (int i = 1; i <= 6; i++) {
+                original.addNode("node-" + i, "192.168.1." + i + ":8080", i == 2 ? 2.0 : 1.0,
+                        i % 3 == 0 ? null : "zone-" + i % 3);
+            }
+            original.removeNode("node-4");
+        }
+
+        // When
+        ConsistentHashRing restored = new ConsistentHashRing();
+        try (RingSnapshotStore store = new RingSnapshotStore(file)) {
+            assertTrue(store.attach(restored));
+        }
+
+        // Then
+        assertEquals(original.getEpoch(), restored.getEpoch());
+        assertEquals(5, restored.getNodeCount());
+        assertEquals(original.getStats().getVirtualNodeCount(), restored.getStats().getVirtualNodeCount());
+        ConsistentHashRing.Node node2 = restored.getAllNodes().stream()
+                .filter(node -> node.getId().equals("node-2")).findFirst().orElseThrow();
+        assertEquals(2.0, node2.getWeight());
+        assertEquals("zone-2", node2.getZone());
+        assertNull(restored.getAllNodes().stream()
+                .filter(node -> node.getId().equals("node-3")).findFirst().orElseThrow().getZone());
+        for (int i = 0; i < 2000; i++) {
+            String key = "key-" + i;
+            assertEquals(original.getNode(key).getId(), restored.getNode(key).getId(), key);
+            assertEquals(original.getNodes(key, 3), restored.getNodes(key, 3), key);
+        }
+    }
+
+    @Test
+    @DisplayName("Should support membership changes after a restore like a freshly built ring")
+    void testChangesAfterRestore() throws IOException {
+        // Given
+        Path file = directory.resolve("ring.snapshot");
+        try (RingSnapshotStore store = new RingSnapshotStore(file)) {
+            store.attach(populatedRing());
+        }
+        ConsistentHashRing restored = new ConsistentHashRing();
+        try (RingSnapshotStore store = new RingSnapshotStore(file)) {
+            store.attach(restored);
+        }
+        ConsistentHashRing rebuilt = populatedRing();
+
+        // When
+        for (ConsistentHashRing ring : new ConsistentHashRing[] {restored, rebuilt}) {
+            ring.updateWeight("node-2", 0.5);
+            ring.removeNode("node-1");
+            ring.addNode("node-7", "192.168.1.7:8080");
+        }
+
+        // Then
+        assertEquals(rebuilt.getStats().getVirtualNodeCount(), restored.getStats().getVirtualNodeCount());
+        for (int i = 0; i < 2000; i++) {
+            String key = "key-" + i;
+            assertEquals(rebuilt.getNode(key).getId(), restored.getNode(key).getId(), key);
+        }
+    }
+
+    @Test
+    @DisplayName("Should write the latest layout atomically after a burst of changes")
+    void testCoalescedAtomicWrites() throws IOException {
+        // Given
+        Path file = directory.resolve("snapshots").resolve("ring.snapshot");
+        ConsistentHashRing ring = new ConsistentHashRing();
+
+        // When
+        try (RingSnapshotStore store = new RingSnapshotStore(file)) {
+            store.attach(ring);
+            for (int i = 0; i < 50; i++) {
+                ring.addNode("node-" + i, "10.0.0." + i + ":8080");
+            }
+        }
+
+        // Then
+        ConsistentHashRing restored = new ConsistentHashRing();
+        try (RingSnapshotStore store = new RingSnapshotStore(file)) {
+            assertTrue(store.attach(restored));
+        }
+        assertEquals(ring.getEpoch(), restored.getEpoch());
+        assertEquals(50, restored.getNodeCount());
+        try (Stream<Path> files = Files.list(file.getParent())) {
+            assertEquals(1, files.count(), "temporary files left behind");
+        }
+    }
+
+    @Test
+    @DisplayName("Should ignore corrupt files and files written with other ring settings")
+    void testRejectsUnusableFiles() throws IOException {
+        // Given
+        Path file = directory.resolve("ring.snapshot");
+        try (RingSnapshotStore store = new RingSnapshotStore(file)) {
+            store.attach(populatedRing());
+        }
+
+        // When
+        ConsistentHashRing otherSettings = new ConsistentHashRing(100, "#");
+        boolean restoredOtherSettings;
+        try (RingSnapshotStore store = new RingSnapshotStore(file)) {
+            restoredOtherSettings = store.load(otherSettings);
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, java.util.Arrays.copyOf(bytes, bytes.length / 2));
+        ConsistentHashRing truncated = new ConsistentHashRing();
+        boolean restoredTruncated;
+        try (RingSnapshotStore store = new RingSnapshotStore(file)) {
+            restoredTruncated = store.load(truncated);
+        }
+
+        // Then
+        assertFalse(restoredOtherSettings);
+        assertTrue(otherSettings.isEmpty());
+        assertFalse(restoredTruncated);
+        assertTrue(truncated.isEmpty());
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.consistenthashing;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ring-partitioned shard store.
+ */
+class ShardedStoreTest {
+
+    /**
+     * Holds migrations until the test runs them.
+     */
+    private static final class ManualExecutor implements Executor {
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) {
+                tasks.poll().run();
+            }
+        }
+    }
+
+    private static ShardedStore store(ConsistentHashRing ring, ManualExecutor migrator) {
+        return store(ring, migrator, LocalCache.DEFAULT_MAXIMUM_SIZE, Ticker.systemTicker());
+    }
+
+    private static ShardedStore store(ConsistentHashRing ring, ManualExecutor migrator, long maximumSize,
+            Ticker ticker) {
+        for (int i = 1; i <= 4; i++) {
+            ring.addNode("node-" + i, "192.168.1." + i + ":8080");
+        }
+        return new ShardedStore(ring, 16, Duration.ofMinutes(1), maximumSize, 0, ticker, migrator);
+    }
+
+    @Test
+    @DisplayName("Should store every key on the shard of its ring owner")
+    void testRoutesToOwner() {
+        // Given
+        ConsistentHashRing ring = new ConsistentHashRing();
+        ShardedStore store = store(ring, new ManualExecutor());
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            store.put("key-" + i, i);
+        }
+
+        // Then
+        Map<String, Integer> sizes = store.shardSizes();
+        assertEquals(4, sizes.size());
+        assertEquals(1000, store.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, store.get("key-" + i));
+        }
+        int expectedOnNode1 = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (ring.getNode("key-" + i).getId().equals("node-1")) {
+                expectedOnNode1++;
+            }
+        }
+        assertEquals(expectedOnNode1, sizes.get("node-1"));
+    }
+
+    @Test
+    @DisplayName("Should migrate only keys in moved ranges and serve them from the old owner meanwhile")
+    void testMigrationOnAdd() {
+        // Given
+        ConsistentHashRing ring = new ConsistentHashRing();
+        ManualExecutor migrator = new ManualExecutor();
+        ShardedStore store = store(ring, migrator);
+        for (int i = 0; i < 2000; i++) {
+            store.put("key-" + i, i);
+        }
+
+        // When
+        assertTrue(store.applyChange("add node-5", () -> ring.addNode("node-5", "192.168.1.5:8080")));
+
+        // Then: nothing moved yet, every key still readable through the fallback
+        assertEquals(0, store.shardSizes().getOrDefault("node-5", 0));
+        for (int i = 0; i < 2000; i++) {
+            assertEquals(i, store.get("key-" + i));
+        }
+        assertTrue((long) store.stats().get("fallbackHits") > 0);
+
+        // When
+        migrator.runAll();
+
+        // Then: exactly the keys node-5 now owns were moved
+        int ownedByNewNode = 0;
+        for (int i = 0; i < 2000; i++) {
+            if (ring.getNode("key-" + i).getId().equals("node-5")) {
+                ownedByNewNode++;
+            }
+        }
+        assertTrue(ownedByNewNode > 0);
+        assertEquals(ownedByNewNode, store.shardSizes().get("node-5"));
+        assertEquals((long) ownedByNewNode, store.stats().get("migratedKeys"));
+        assertEquals(0, store.stats().get("pendingMigrations"));
+        assertEquals(2000, store.size());
+    }
+
+    @Test
+    @DisplayName("Should drain a removed node's shard and drop it")
+    void testMigrationOnRemove() {
+        // Given
+        ConsistentHashRing ring = new ConsistentHashRing();
+        ManualExecutor migrator = new ManualExecutor();
+        ShardedStore store = store(ring, migrator);
+        for (int i = 0; i < 1000; i++) {
+            store.put("key-" + i, i);
+        }
+
+        // When
+        store.applyChange("remove node-2", () -> ring.removeNode("node-2"));
+        migrator.runAll();
+
+        // Then
+        assertFalse(store.shardSizes().containsKey("node-2"));
+        assertEquals(1000, store.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, store.get("key-" + i));
+        }
+    }
+
+    @Test
+    @DisplayName("Should neither resurrect removed keys nor overwrite newer writes during migration")
+    void testWritesDuringMigration() {
+        // Given
+        ConsistentHashRing ring = new ConsistentHashRing();
+        ManualExecutor migrator = new ManualExecutor();
+        ShardedStore store = store(ring, migrator);
+        for (int i = 0; i < 1000; i++) {
+            store.put("key-" + i, "old");
+        }
+        store.applyChange("remove node-3", () -> ring.removeNode("node-3"));
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            if (i % 2 == 0) {
+                store.remove("key-" + i);
+            } else {
+                store.put("key-" + i, "new");
+            }
+        }
+        migrator.runAll();
+
+        // Then
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i % 2 == 0 ? null : "new", store.get("key-" + i));
+        }
+        assertEquals(500, store.size());
+    }
+
+    @Test
+    @DisplayName("Should bound every shard by its share of the store and sweep expired entries")
+    void testBoundedShards() {
+        // Given
+        AtomicLong now = new AtomicLong();
+        ConsistentHashRing ring = new ConsistentHashRing();
+        ManualExecutor migrator = new ManualExecutor();
+        ShardedStore store = store(ring, migrator, 400, now::get);
+
+        // When
+        for (int i = 0; i < 5000; i++) {
+            store.put("key-" + i, i);
+        }
+
+        // Then: each shard stays within its rounded-up share
+        assertTrue(store.size() <= 400 + 4, "size " + store.size());
+        assertTrue((long) store.stats().get("evictionCount") > 0);
+
+        // When: the ring changes and the migration finishes
+        store.applyChange("add node-5", () -> ring.addNode("node-5", "192.168.1.5:8080"));
+        migrator.runAll();
+        for (int i = 0; i < 5000; i++) {
+            store.put("again-" + i, i);
+        }
+
+        // Then
+        assertEquals(5, store.shardSizes().size());
+        assertTrue(store.size() <= 400 + 5, "size " + store.size());
+
+        // When
+        store.clear();
+        for (int i = 0; i < 100; i++) {
+            store.put("short-" + i, i, Duration.ofSeconds(5));
+        }
+        now.addAndGet(Duration.ofSeconds(6).toNanos());
+
+        // Then
+        assertEquals(0, store.size());
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.consistenthashing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for per-node traffic counters and the heavy-hitter sketch.
+ */
+class TrafficStatsTest {
+
+    private static final ConsistentHashRing.Node NODE_A = new ConsistentHashRing.Node("node-a", "10.0.0.1:8080");
+    private static final ConsistentHashRing.Node NODE_B = new ConsistentHashRing.Node("node-b", "10.0.0.2:8080");
+
+    @Test
+    @DisplayName("Should surface hot keys among a long tail of cold ones")
+    void testHotKeysSurface() {
+        // Given
+        TrafficStats traffic = new TrafficStats(4, 1024, 5, null);
+
+        // When: two hot tenants interleaved with 50k distinct cold keys
+        for (int i = 0; i < 50_000; i++) {
+            traffic.record("cold-" + i, NODE_A);
+            if (i % 5 == 0) {
+                traffic.record("hot-tenant", NODE_B);
+            }
+            if (i % 10 == 0) {
+                traffic.record("warm-tenant", NODE_B);
+            }
+        }
+
+        // Then
+        List<TrafficStats.HotKey> hotKeys = traffic.getHotKeys();
+        assertEquals(5, hotKeys.size());
+        assertEquals("hot-tenant", hotKeys.get(0).key());
+        assertEquals("warm-tenant", hotKeys.get(1).key());
+        assertTrue(hotKeys.get(0).estimatedCount() >= 10_000);
+        assertTrue(traffic.estimateCount("warm-tenant") >= 5_000);
+    }
+
+    @Test
+    @DisplayName("Should count requests per node and publish them to Micrometer")
+    void testNodeCountersAndMetrics() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        TrafficStats traffic = new TrafficStats(4, 256, 10, registry);
+
+        // When
+        IntStream.range(0, 300).forEach(i -> traffic.record("key-" + i, NODE_A));
+        IntStream.range(0, 100).forEach(i -> traffic.record("key-" + i, NODE_B));
+        traffic.record("orphan", null);
+
+        // Then
+        assertEquals(300L, traffic.getNodeRequests().get("node-a"));
+        assertEquals(100L, traffic.getNodeRequests().get("node-b"));
+        assertEquals(1.5, traffic.getSkew(), 1e-9);
+        assertEquals(300.0, registry.get(TrafficStats.NODE_REQUESTS_METER).tag("node", "node-a")
+                .functionCounter().count());
+        assertEquals(1.5, registry.get(TrafficStats.SKEW_METER).gauge().value(), 1e-9);
+
+        traffic.reset();
+        assertEquals(0L, traffic.getNodeRequests().get("node-a"));
+        assertTrue(traffic.getHotKeys().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should not lose counts under concurrent recording")
+    void testConcurrentRecording() {
+        // Given
+        TrafficStats traffic = new TrafficStats();
+
+        // When
+        CompletableFuture.allOf(IntStream.range(0, 8)
+                .mapToObj(t -> CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < 5_000; i++) {
+                        traffic.record(i % 2 == 0 ? "shared-key" : "key-" + t + "-" + i, NODE_A);
+                    }
+                }))
+                .toArray(CompletableFuture[]::new)).join();
+
+        // Then
+        assertEquals(40_000L, traffic.getNodeRequests().get("node-a"));
+        assertTrue(traffic.estimateCount("shared-key") >= 20_000);
+        assertEquals("shared-key", traffic.getHotKeys().get(0).key());
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.consistenthashing.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.NoBenchmarksException;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.function.UnaryOperator;
+
+/**
+ * Entry point for the {@code benchmark} Maven profile. Runs the suite with
+ * the GC profiler attached, so every result carries its allocation per
+ * operation ({@code gc.alloc.rate.norm}), and writes JSON results that can be
+ * compared across commits:
+ * <ul>
+ * <li>{@code benchmarks.json} for every benchmark except the lookup
+ * throughput sweep</li>
+ * <li>{@code lookup-threads-N.json} for {@link LookupThroughputBenchmark}
+ * at each thread count</li>
+ * </ul>
+ * Configured through system properties: {@code benchmark.include} (regex,
+ * default all), {@code benchmark.threads} (default 1,2,4,8,16,32,64) and
+ * {@code benchmark.results} (output directory, default target/jmh).
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        String include = System.getProperty("benchmark.include", ".*");
+        int[] threadCounts = Arrays.stream(System.getProperty("benchmark.threads", "1,2,4,8,16,32,64").split(","))
+                .map(String::trim)
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        File results = new File(System.getProperty("benchmark.results", "target/jmh"));
+        if (!results.isDirectory() && !results.mkdirs()) {
+            throw new IllegalStateException("Cannot create benchmark results directory " + results);
+        }
+
+        String sweep = LookupThroughputBenchmark.class.getSimpleName();
+        run(new File(results, "benchmarks.json"), options -> options
+                .include(include)
+                .exclude(sweep));
+
+        // Both conditions as lookaheads, as JMH ORs separate include patterns
+        String sweepInclude = "^(?=.*\\." + sweep + "\\.)(?=.*(?:" + include + ")).*";
+        for (int threads : threadCounts) {
+            run(new File(results, "lookup-threads-" + threads + ".json"), options -> options
+                    .include(sweepInclude)
+                    .threads(threads));
+        }
+    }
+
+    private static void run(File result, UnaryOperator<ChainedOptionsBuilder> selection) throws RunnerException {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result.getPath());
+        try {
+            new Runner(selection.apply(options).build()).run();
+        } catch (NoBenchmarksException e) {
+            // The include pattern selects nothing in this phase; drop the empty result file
+            result.delete();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.consistenthashing.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.example.consistenthashing.ConsistentHashRing;
+import org.slf4j.LoggerFactory;
+
+import java.util.Random;
+
+/**
+ * Shared setup helpers for the JMH benchmarks.
+ */
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Raises the module's log level so per-operation debug and info logging
+     * does not dominate the measurements.
+     */
+    static void quietLogging() {
+        ((Logger) LoggerFactory.getLogger("com.example.consistenthashing")).setLevel(Level.WARN);
+    }
+
+    /**
+     * Creates a ring populated with the given number of nodes.
+     *
+     * @param nodeCount                   Number of physical nodes
+     * @param virtualNodesPerPhysicalNode Virtual nodes per physical node
+     * @return The populated ring
+     */
+    static ConsistentHashRing ring(int nodeCount, int virtualNodesPerPhysicalNode) {
+        return ring(nodeCount, virtualNodesPerPhysicalNode, 0);
+    }
+
+    /**
+     * Creates a ring populated with the given number of nodes and a lookup
+     * memo in front of it.
+     *
+     * @param nodeCount                   Number of physical nodes
+     * @param virtualNodesPerPhysicalNode Virtual nodes per physical node
+     * @param lookupMemoSize              Lookup memo slots; 0 disables the memo
+     * @return The populated ring
+     */
+    static ConsistentHashRing ring(int nodeCount, int virtualNodesPerPhysicalNode, int lookupMemoSize) {
+        ConsistentHashRing ring = new ConsistentHashRing(virtualNodesPerPhysicalNode, "#",
+                ConsistentHashRing.DEFAULT_MAX_REPLICAS, ConsistentHashRing.UNBOUNDED, lookupMemoSize);
+        for (int i = 0; i < nodeCount; i++) {
+            ring.addNode(nodeId(i), "10.0." + (i / 256) + "." + (i % 256) + ":8080");
+        }
+        return ring;
+    }
+
+    static String nodeId(int index) {
+        return "bench-node-" + index;
+    }
+
+    /**
+     * Generates a fixed, reproducible set of lookup keys.
+     *
+     * @param count Number of keys; a power of two so callers can cycle with a mask
+     * @return The keys
+     */
+    static String[] keys(int count) {
+        Random random = new Random(42);
+        String[] keys = new String[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = "bench-key-" + random.nextInt(1_000_000);
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.consistenthashing.benchmark;
+
+import com.example.consistenthashing.ConsistentHashRing;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup throughput on a fixed 100-node ring. {@link BenchmarkRunner} runs
+ * this class once per thread count to show how lookups scale across cores;
+ * every thread walks its own pre-generated key set so key construction stays
+ * out of the measurement. The memoized variants run the same lookups against
+ * an identical ring with a lookup memo large enough to hold every key.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LookupThroughputBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class RingState {
+        ConsistentHashRing ring;
+        ConsistentHashRing memoizedRing;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            BenchmarkSupport.quietLogging();
+            ring = BenchmarkSupport.ring(100, 150);
+            memoizedRing = BenchmarkSupport.ring(100, 150, 16384);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Keys {
+        String[] keys;
+        byte[][] binaryKeys;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            keys = BenchmarkSupport.keys(4096);
+            binaryKeys = new byte[keys.length][];
+            for (int i = 0; i < keys.length; i++) {
+                binaryKeys[i] = keys[i].getBytes(StandardCharsets.UTF_8);
+            }
+        }
+
+        int nextIndex() {
+            return next = (next + 1) & (keys.length - 1);
+        }
+    }
+
+    @Benchmark
+    public ConsistentHashRing.Node getNode(RingState state, Keys keys) {
+        return state.ring.getNode(keys.keys[keys.nextIndex()]);
+    }
+
+    @Benchmark
+    public ConsistentHashRing.Node getNodeMemoized(RingState state, Keys keys) {
+        return state.memoizedRing.getNode(keys.keys[keys.nextIndex()]);
+    }
+
+    @Benchmark
+    public ConsistentHashRing.Node getNodeBinary(RingState state, Keys keys) {
+        return state.ring.getNode(keys.binaryKeys[keys.nextIndex()]);
+    }
+
+    @Benchmark
+    public List<ConsistentHashRing.Node> getNodes(RingState state, Keys keys) {
+        return state.ring.getNodes(keys.keys[keys.nextIndex()], 3);
+    }
+
+    @Benchmark
+    public List<ConsistentHashRing.Node> getNodesMemoized(RingState state, Keys keys) {
+        return state.memoizedRing.getNodes(keys.keys[keys.nextIndex()], 3);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.consistenthashing.benchmark;
+
+import com.example.consistenthashing.ConsistentHashRing;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Add/remove latency while lookups run concurrently. One writer thread flaps
+ * a node in and out of the ring while the reader threads keep looking keys
+ * up; JMH reports both sides of the group separately, showing that writers
+ * never stall readers and how much readers slow down the writer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MembershipUnderLoadBenchmark {
+
+    @State(Scope.Group)
+    public static class SharedRing {
+        @Param({ "100", "500" })
+        int nodeCount;
+
+        ConsistentHashRing ring;
+        String churnNode;
+        boolean present;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            BenchmarkSupport.quietLogging();
+            ring = BenchmarkSupport.ring(nodeCount, 150);
+            churnNode = "churn-node";
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Keys {
+        String[] keys;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            keys = BenchmarkSupport.keys(4096);
+        }
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(1)
+    public boolean addOrRemove(SharedRing state) {
+        // Only the single writer thread touches the flag
+        state.present = !state.present;
+        return state.present
+                ? state.ring.addNode(state.churnNode, "10.9.9.9:8080")
+                : state.ring.removeNode(state.churnNode);
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(4)
+    public ConsistentHashRing.Node lookup(SharedRing state, Keys keys) {
+        keys.next = (keys.next + 1) & (keys.keys.length - 1);
+        return state.ring.getNode(keys.keys[keys.next]);
+    }
+}
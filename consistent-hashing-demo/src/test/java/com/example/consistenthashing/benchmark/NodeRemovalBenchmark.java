@@ -0,0 +1,53 @@
+package com.example.consistenthashing.benchmark;
+
+import com.example.consistenthashing.ConsistentHashRing;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of removing a node, and of a remove/re-add flap, as the
+ * cluster grows. With the per-node token index only the node's own tokens are
+ * searched and no vnode names are rehashed on a flap; what still grows with
+ * the cluster is the bulk copy of the published token arrays.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NodeRemovalBenchmark {
+
+    @Param({ "50", "100", "250", "500" })
+    private int nodeCount;
+
+    @Param({ "150" })
+    private int virtualNodes;
+
+    private ConsistentHashRing ring;
+    private String victim;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        ring = BenchmarkSupport.ring(nodeCount, virtualNodes);
+        victim = BenchmarkSupport.nodeId(nodeCount / 2);
+    }
+
+    @Setup(Level.Invocation)
+    public void ensureVictimPresent() {
+        ring.addNode(victim, "10.9.9.9:8080");
+    }
+
+    @Benchmark
+    public boolean removeNode() {
+        return ring.removeNode(victim);
+    }
+
+    @Benchmark
+    public boolean flapNode() {
+        ring.removeNode(victim);
+        return ring.addNode(victim, "10.9.9.9:8080");
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.consistenthashing.benchmark;
+
+import com.example.consistenthashing.ConsistentHashRing;
+import com.example.consistenthashing.PlacementEngine;
+import com.example.consistenthashing.PlacementEngineType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-threaded lookup latency of the rendezvous engine against the virtual
+ * node ring, swept over cluster size. Rendezvous scores every node per key, so
+ * it grows linearly with the node count while the ring grows with the
+ * logarithm of its token count; the sweep shows where the two cross, with
+ * equal and with mixed node weights.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RendezvousVsRingBenchmark {
+
+    @Param({ "ring", "rendezvous" })
+    private String engineName;
+
+    @Param({ "4", "8", "16", "32", "64", "128", "256" })
+    private int nodeCount;
+
+    @Param({ "false", "true" })
+    private boolean weighted;
+
+    private PlacementEngine engine;
+    private String[] keys;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        engine = PlacementEngineType.fromName(engineName).create();
+        for (int i = 0; i < nodeCount; i++) {
+            double weight = weighted ? 1.0 + (i % 4) : 1.0;
+            engine.addNode(BenchmarkSupport.nodeId(i), "10.0." + (i / 256) + "." + (i % 256) + ":8080", weight);
+        }
+        keys = BenchmarkSupport.keys(4096);
+    }
+
+    @Benchmark
+    public ConsistentHashRing.Node getNode() {
+        next = (next + 1) & (keys.length - 1);
+        return engine.getNode(keys[next]);
+    }
+
+    @Benchmark
+    public List<ConsistentHashRing.Node> getNodes() {
+        next = (next + 1) & (keys.length - 1);
+        return engine.getNodes(keys[next], 3);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.consistenthashing.benchmark;
+
+import com.example.consistenthashing.ConsistentHashRing;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-threaded lookup latency swept over cluster size and virtual node
+ * count. A lookup is a binary search over nodeCount &times; virtualNodes
+ * tokens, so latency should grow with the logarithm of the ring size until
+ * the token array falls out of cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RingScalingBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    private int nodeCount;
+
+    @Param({ "50", "150", "500" })
+    private int virtualNodes;
+
+    private ConsistentHashRing ring;
+    private String[] keys;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        ring = BenchmarkSupport.ring(nodeCount, virtualNodes);
+        keys = BenchmarkSupport.keys(4096);
+    }
+
+    @Benchmark
+    public ConsistentHashRing.Node getNode() {
+        next = (next + 1) & (keys.length - 1);
+        return ring.getNode(keys[next]);
+    }
+
+    @Benchmark
+    public List<ConsistentHashRing.Node> getNodes() {
+        next = (next + 1) & (keys.length - 1);
+        return ring.getNodes(keys[next], 3);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.consistenthashing.client;
+
+import com.example.consistenthashing.ConsistentHashRing;
+import com.example.consistenthashing.MembershipBatch;
+import com.example.consistenthashing.RingChanges;
+import com.example.consistenthashing.RingMembership;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for following a ring's change feed from a local replica.
+ */
+@Timeout(value = 10, unit = TimeUnit.SECONDS)
+class RingClientTest {
+
+    private AtomicReference<ConsistentHashRing> server;
+    private RingClient client;
+
+    /**
+     * Serves whichever ring is current, long-polling like the REST endpoint.
+     */
+    private final RingSource source = new RingSource() {
+        @Override
+        public RingMembership fetchMembership() {
+            return server.get().getMembership();
+        }
+
+        @Override
+        public RingChanges fetchChanges(long since, Duration wait) {
+            ConsistentHashRing ring = server.get();
+            RingChanges changes = ring.getChangesSince(since);
+            if (!changes.isEmpty()) {
+                return changes;
+            }
+            ring.awaitChangeAfter(since).completeOnTimeout(null, wait.toMillis(), TimeUnit.MILLISECONDS).join();
+            return ring.getChangesSince(since);
+        }
+    };
+
+    @BeforeEach
+    void setUp() {
+        server = new AtomicReference<>(populatedRing());
+        client = new RingClient(source, Duration.ofMillis(200)).start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+    }
+
+    private static ConsistentHashRing populatedRing() {
+        ConsistentHashRing ring = new ConsistentHashRing();
+        for (int i = 1; i <= 5; i++) {
+            ring.addNode("node-" + i, "192.168.1." + i + ":8080");
+        }
+        return ring;
+    }
+
+    private void awaitVersion(long version) throws InterruptedException {
+        while (client.getVersion() != version) {
+            Thread.sleep(5);
+        }
+    }
+
+    private void assertSameRouting(ConsistentHashRing ring) {
+        for (int i = 0; i < 2000; i++) {
+            String key = "key-" + i;
+            assertEquals(ring.getNode(key), client.getNode(key), key);
+            assertEquals(ring.getNodes(key, 3), client.getNodes(key, 3), key);
+        }
+    }
+
+    @Test
+    @DisplayName("Should route like the service after each kind of membership change")
+    void testFollowsChanges() throws InterruptedException {
+        // Given
+        ConsistentHashRing ring = server.get();
+        assertEquals(ring.getEpoch(), client.getVersion());
+        assertSameRouting(ring);
+
+        // When
+        ring.addNode("node-6", "192.168.1.6:8080", 2.0);
+        ring.removeNode("node-1");
+        ring.updateWeight("node-3", 0.5);
+        ring.applyBatch(new MembershipBatch()
+                .remove("node-2")
+                .add("node-7", "192.168.1.7:8080", 1.0)
+                .add("node-8", "192.168.1.8:8080", 1.5));
+        awaitVersion(ring.getEpoch());
+
+        // Then
+        assertSameRouting(ring);
+    }
+
+    @Test
+    @DisplayName("Should reload the membership when the service cannot supply a delta")
+    void testReloadsOnReset() throws InterruptedException {
+        // Given - the service restarts with a different, shorter history
+        ConsistentHashRing restarted = new ConsistentHashRing();
+        restarted.addNode("node-9", "192.168.1.9:8080");
+        restarted.addNode("node-10", "192.168.1.10:8080");
+        assertTrue(restarted.getEpoch() < client.getVersion());
+
+        // When
+        server.set(restarted);
+        server.get().addNode("node-11", "192.168.1.11:8080");
+        awaitVersion(restarted.getEpoch());
+
+        // Then
+        assertSameRouting(restarted);
+    }
+}
@@ -1,11 +1,14 @@
 package com.example.distributedcache.config;
 
+import com.example.distributedcache.service.L1Cache;
+import com.example.distributedcache.service.WriteBehindQueue;
 import com.hazelcast.config.*;
 import com.hazelcast.core.Hazelcast;
 import com.hazelcast.core.HazelcastInstance;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
@@ -14,6 +17,7 @@ import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSeriali
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.time.Duration;
 import java.util.concurrent.Executor;
 
 /**
@@ -41,6 +45,21 @@ public class DistributedCacheConfig {
     @Value("${hazelcast.ttl.seconds:3600}")
     private int ttlSeconds;
 
+    @Value("${cache.l1.max.size:10000}")
+    private long l1MaxSize;
+
+    @Value("${cache.l1.ttl.seconds:30}")
+    private int l1TtlSeconds;
+
+    @Value("${cache.write.behind.capacity:10000}")
+    private int writeBehindCapacity;
+
+    @Value("${cache.write.behind.batch.size:500}")
+    private int writeBehindBatchSize;
+
+    @Value("${cache.write.behind.offer.timeout.ms:100}")
+    private long writeBehindOfferTimeoutMs;
+
     /**
      * Creates and configures Hazelcast instance for distributed caching.
      */
@@ -105,6 +124,35 @@ public class DistributedCacheConfig {
         return template;
     }
 
+    /**
+     * Creates the in-JVM L1 cache when cache.l1.enabled is true. Its TTL must
+     * be shorter than the Hazelcast map's.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "cache.l1.enabled", havingValue = "true")
+    public L1Cache l1Cache() {
+        if (l1TtlSeconds <= 0 || (ttlSeconds > 0 && l1TtlSeconds >= ttlSeconds)) {
+            throw new IllegalStateException("cache.l1.ttl.seconds must be positive and shorter than "
+                    + "hazelcast.ttl.seconds (" + ttlSeconds + "), was " + l1TtlSeconds);
+        }
+        logger.info("Configuring L1 cache with max size {} and TTL {}s", l1MaxSize, l1TtlSeconds);
+
+        return new L1Cache(l1MaxSize, Duration.ofSeconds(l1TtlSeconds));
+    }
+
+    /**
+     * Creates the Redis write-behind queue when cache.write.mode is
+     * write-behind.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "cache.write.mode", havingValue = "write-behind")
+    public WriteBehindQueue writeBehindQueue(RedisTemplate<String, Object> redisTemplate) {
+        logger.info("Configuring Redis write-behind");
+
+        return new WriteBehindQueue(redisTemplate, writeBehindCapacity, writeBehindBatchSize,
+                Duration.ofMillis(writeBehindOfferTimeoutMs)).start();
+    }
+
     /**
      * Configures async task executor for concurrent operations.
      */
@@ -13,6 +13,7 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -35,14 +36,15 @@ public class DistributedCacheController {
 
     // Request and Response DTOs
     public record CachePutRequest(@NotBlank String key, @NotNull Object value,
-            @Positive Integer ttlSeconds) {
+            @Positive Integer ttlSeconds, Boolean writeThrough) {
     }
 
     public record CacheGetResponse(String key, Object value, boolean found, long timestamp) {
     }
 
     public record BatchPutRequest(Map<String, Object> keyValuePairs,
-            @Positive Integer ttlSeconds) {
+            @Positive Integer ttlSeconds,
+            Map<String, @Positive Integer> keyTtlSeconds) {
     }
 
     public record BatchGetRequest(List<String> keys) {
@@ -71,7 +73,8 @@ public class DistributedCacheController {
             Duration ttl = request.ttlSeconds() != null ? Duration.ofSeconds(request.ttlSeconds())
                     : Duration.ofHours(1);
 
-            boolean success = cacheService.put(request.key(), request.value(), ttl);
+            boolean success = cacheService.put(request.key(), request.value(), ttl,
+                    Boolean.TRUE.equals(request.writeThrough()));
 
             if (success) {
                 return ResponseEntity.ok(ApiResponse.success(success, "Value stored successfully"));
@@ -194,7 +197,12 @@ public class DistributedCacheController {
             Duration ttl = request.ttlSeconds() != null ? Duration.ofSeconds(request.ttlSeconds())
                     : Duration.ofHours(1);
 
-            Map<String, Boolean> results = cacheService.putMultiple(request.keyValuePairs(), ttl);
+            Map<String, Duration> keyTtls = new HashMap<>();
+            if (request.keyTtlSeconds() != null) {
+                request.keyTtlSeconds().forEach((key, seconds) -> keyTtls.put(key, Duration.ofSeconds(seconds)));
+            }
+
+            Map<String, Boolean> results = cacheService.putMultiple(request.keyValuePairs(), keyTtls, ttl);
 
             return ResponseEntity.ok(ApiResponse.success(results, "Batch operation completed"));
         } catch (Exception e) {
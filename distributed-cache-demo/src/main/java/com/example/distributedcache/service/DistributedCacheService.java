@@ -1,12 +1,26 @@
 package com.example.distributedcache.service;
 
+import com.hazelcast.core.EntryEvent;
+import com.hazelcast.core.EntryView;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.map.IMap;
+import com.hazelcast.map.MapEvent;
+import com.hazelcast.map.listener.EntryAddedListener;
+import com.hazelcast.map.listener.EntryEvictedListener;
+import com.hazelcast.map.listener.EntryExpiredListener;
+import com.hazelcast.map.listener.EntryRemovedListener;
+import com.hazelcast.map.listener.EntryUpdatedListener;
+import com.hazelcast.map.listener.MapClearedListener;
+import com.hazelcast.map.listener.MapEvictedListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.lang.Nullable;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
@@ -14,12 +28,20 @@ import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 /**
  * Core service for distributed caching operations.
  * Provides high-performance caching with both Hazelcast (in-memory) and Redis
  * (persistent) layers.
+ * Redis is written through by default. With a {@link WriteBehindQueue}, Redis
+ * writes are queued and flushed in the background, and writes return once
+ * Hazelcast has them. With an {@link L1Cache}, reads are served from the JVM
+ * first; Hazelcast entry events invalidate it when any member writes.
+ * Concurrent reads that miss Hazelcast for the same key share one Redis read
+ * and one promotion write.
  */
 @Service
 public class DistributedCacheService {
@@ -28,22 +50,54 @@ public class DistributedCacheService {
     private static final String CACHE_NAME = "distributed-cache";
     private static final String REDIS_CACHE_PREFIX = "cache:";
 
+    // Keys per MGET command; larger batches are split and pipelined so one
+    // command does not hold up the Redis server for long
+    private static final int REDIS_MGET_CHUNK_SIZE = 500;
+
     private final HazelcastInstance hazelcastInstance;
     private final RedisTemplate<String, Object> redisTemplate;
     private final IMap<String, Object> hazelcastMap;
+    private final Duration hazelcastMapTtl;
+    private final WriteBehindQueue writeBehindQueue;
+    private final L1Cache l1Cache;
 
     // Local statistics tracking
     private final AtomicLong totalRequests = new AtomicLong(0);
     private final AtomicLong cacheHits = new AtomicLong(0);
     private final AtomicLong cacheMisses = new AtomicLong(0);
+    private final AtomicLong l1Hits = new AtomicLong(0);
+    private final AtomicLong hazelcastHits = new AtomicLong(0);
+    private final AtomicLong redisHits = new AtomicLong(0);
+    private final AtomicLong coalesced = new AtomicLong(0);
+    private final Map<String, CompletableFuture<Object>> redisLoads = new ConcurrentHashMap<>();
     private final Map<String, Long> keyAccessCount = new ConcurrentHashMap<>();
 
-    @Autowired
     public DistributedCacheService(HazelcastInstance hazelcastInstance,
             RedisTemplate<String, Object> redisTemplate) {
+        this(hazelcastInstance, redisTemplate, null);
+    }
+
+    public DistributedCacheService(HazelcastInstance hazelcastInstance,
+            RedisTemplate<String, Object> redisTemplate,
+            @Nullable WriteBehindQueue writeBehindQueue) {
+        this(hazelcastInstance, redisTemplate, writeBehindQueue, null);
+    }
+
+    @Autowired
+    public DistributedCacheService(HazelcastInstance hazelcastInstance,
+            RedisTemplate<String, Object> redisTemplate,
+            @Nullable WriteBehindQueue writeBehindQueue,
+            @Nullable L1Cache l1Cache) {
         this.hazelcastInstance = hazelcastInstance;
         this.redisTemplate = redisTemplate;
+        this.writeBehindQueue = writeBehindQueue;
+        this.l1Cache = l1Cache;
         this.hazelcastMap = hazelcastInstance.getMap(CACHE_NAME);
+        this.hazelcastMapTtl = Duration.ofSeconds(
+                hazelcastInstance.getConfig().getMapConfig(CACHE_NAME).getTimeToLiveSeconds());
+        if (l1Cache != null) {
+            hazelcastMap.addEntryListener(new L1InvalidationListener(l1Cache), false);
+        }
 
         logger.info("DistributedCacheService initialized with Hazelcast instance: {}",
                 hazelcastInstance.getName());
@@ -53,16 +107,34 @@ public class DistributedCacheService {
      * Stores a value in the distributed cache with TTL.
      */
     public boolean put(String key, Object value, Duration ttl) {
+        return put(key, value, ttl, false);
+    }
+
+    /**
+     * Stores a value in the distributed cache with TTL.
+     * In write-behind mode the Redis write is queued unless writeThrough is
+     * set, in which case it completes before this call returns.
+     */
+    public boolean put(String key, Object value, Duration ttl, boolean writeThrough) {
         try {
             totalRequests.incrementAndGet();
             keyAccessCount.merge(key, 1L, Long::sum);
 
             // Store in Hazelcast (primary cache)
             hazelcastMap.set(key, value, ttl.toMillis(), java.util.concurrent.TimeUnit.MILLISECONDS);
+            invalidateL1(key);
+            redisLoads.remove(key);
 
-            // Store in Redis (persistent backup)
+            // Store in Redis (persistent backup), queued in write-behind mode
             String redisKey = REDIS_CACHE_PREFIX + key;
-            redisTemplate.opsForValue().set(redisKey, value, ttl);
+            if (writeBehindQueue != null && !writeThrough && writeBehindQueue.enqueue(redisKey, value, ttl)) {
+                logger.debug("Stored key: {} in Hazelcast, queued for Redis", key);
+                return true;
+            }
+            writeToRedis(List.of(redisKey), () -> {
+                redisTemplate.opsForValue().set(redisKey, value, ttl);
+                return null;
+            });
 
             logger.debug("Stored key: {} in distributed cache", key);
             return true;
@@ -88,23 +160,32 @@ public class DistributedCacheService {
             totalRequests.incrementAndGet();
             keyAccessCount.merge(key, 1L, Long::sum);
 
-            // Try Hazelcast first (fastest)
-            Object value = hazelcastMap.get(key);
+            // Try the in-JVM tier first (fastest)
+            if (l1Cache != null) {
+                Object cached = l1Cache.get(key);
+                if (cached != null) {
+                    cacheHits.incrementAndGet();
+                    l1Hits.incrementAndGet();
+                    return Optional.of(cached);
+                }
+            }
+
+            // Try Hazelcast next
+            long stamp = l1Cache != null ? l1Cache.stamp(key) : 0;
+            Object value = getFromHazelcast(key, stamp);
             if (value != null) {
                 cacheHits.incrementAndGet();
+                hazelcastHits.incrementAndGet();
                 logger.debug("Cache hit in Hazelcast for key: {}", key);
                 return Optional.of(value);
             }
 
             // Try Redis if not in Hazelcast
-            String redisKey = REDIS_CACHE_PREFIX + key;
-            value = redisTemplate.opsForValue().get(redisKey);
+            value = loadFromRedis(key, stamp);
             if (value != null) {
                 cacheHits.incrementAndGet();
-                // Populate Hazelcast with the value from Redis
-                hazelcastMap.set(key, value, Duration.ofHours(1).toMillis(),
-                        java.util.concurrent.TimeUnit.MILLISECONDS);
-                logger.debug("Cache hit in Redis for key: {}, populated Hazelcast", key);
+                redisHits.incrementAndGet();
+                logger.debug("Cache hit in Redis for key: {}", key);
                 return Optional.of(value);
             }
 
@@ -134,8 +215,10 @@ public class DistributedCacheService {
 
             // Remove from both caches
             Object removedFromHazelcast = hazelcastMap.remove(key);
+            invalidateL1(key);
+            redisLoads.remove(key);
             String redisKey = REDIS_CACHE_PREFIX + key;
-            Boolean removedFromRedis = redisTemplate.delete(redisKey);
+            Boolean removedFromRedis = writeToRedis(List.of(redisKey), () -> redisTemplate.delete(redisKey));
 
             boolean removed = removedFromHazelcast != null || Boolean.TRUE.equals(removedFromRedis);
             logger.debug("Removed key: {} from distributed cache", key);
@@ -169,37 +252,391 @@ public class DistributedCacheService {
 
     /**
      * Retrieves multiple values in batch.
+     * Serves what it can from the in-JVM tier, reads the Hazelcast tier with
+     * one getAll, fetches the keys it missed from
+     * Redis with pipelined MGETs, and promotes the Redis hits into Hazelcast
+     * with one setAll, so the batch costs a fixed number of round trips
+     * whatever its size. Statistics are counted per requested key as in get.
+     * Batch reads do not populate the in-JVM tier, as getAll does not report
+     * when entries expire.
      */
     public Map<String, Object> getMultiple(List<String> keys) {
         Map<String, Object> result = new HashMap<>();
-
+        Set<String> distinctKeys = new LinkedHashSet<>();
         for (String key : keys) {
-            get(key).ifPresent(value -> result.put(key, value));
+            if (key != null) {
+                totalRequests.incrementAndGet();
+                keyAccessCount.merge(key, 1L, Long::sum);
+                distinctKeys.add(key);
+            }
+        }
+        if (distinctKeys.isEmpty()) {
+            return result;
+        }
+
+        Set<String> fromL1 = new HashSet<>();
+        Map<String, Object> fromRedis = Map.of();
+        try {
+            // Try the in-JVM tier first
+            if (l1Cache != null) {
+                for (String key : distinctKeys) {
+                    Object cached = l1Cache.get(key);
+                    if (cached != null) {
+                        result.put(key, cached);
+                        fromL1.add(key);
+                    }
+                }
+            }
+
+            // Try Hazelcast next, one operation per owning member
+            Set<String> notInL1 = new HashSet<>(distinctKeys);
+            notInL1.removeAll(fromL1);
+            if (!notInL1.isEmpty()) {
+                result.putAll(hazelcastMap.getAll(notInL1));
+            }
+
+            // Try Redis for the keys not in Hazelcast
+            List<String> missed = new ArrayList<>();
+            for (String key : distinctKeys) {
+                if (!result.containsKey(key)) {
+                    missed.add(key);
+                }
+            }
+            if (!missed.isEmpty()) {
+                fromRedis = loadAllFromRedis(missed);
+                result.putAll(fromRedis);
+                logger.debug("Batch of {} keys: {} from L1 or Hazelcast, {} from Redis", distinctKeys.size(),
+                        distinctKeys.size() - missed.size(), fromRedis.size());
+            }
+        } catch (Exception e) {
+            logger.error("Error retrieving batch of {} keys", distinctKeys.size(), e);
         }
 
+        for (String key : keys) {
+            if (key != null) {
+                if (result.containsKey(key)) {
+                    cacheHits.incrementAndGet();
+                    if (fromL1.contains(key)) {
+                        l1Hits.incrementAndGet();
+                    } else if (fromRedis.containsKey(key)) {
+                        redisHits.incrementAndGet();
+                    } else {
+                        hazelcastHits.incrementAndGet();
+                    }
+                } else {
+                    cacheMisses.incrementAndGet();
+                }
+            }
+        }
         return result;
     }
 
     /**
-     * Stores multiple values in batch.
+     * Reads a key from Redis and promotes it into Hazelcast, unless another
+     * thread is already doing so for the key, in which case its result is
+     * shared.
+     */
+    private Object loadFromRedis(String key, long stamp) {
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = redisLoads.putIfAbsent(key, load);
+        if (inFlight != null) {
+            coalesced.incrementAndGet();
+            return inFlight.join();
+        }
+
+        try {
+            Object value = redisTemplate.opsForValue().get(REDIS_CACHE_PREFIX + key);
+            if (value != null) {
+                // Populate Hazelcast with the value from Redis, unless a write detached this load meanwhile
+                Object written = hazelcastMap.putIfAbsent(key, value, Duration.ofHours(1).toMillis(),
+                        java.util.concurrent.TimeUnit.MILLISECONDS);
+                if (written != null) {
+                    load.complete(written);
+                    return written;
+                }
+                if (l1Cache != null) {
+                    l1Cache.put(key, value, System.currentTimeMillis() + Duration.ofHours(1).toMillis(), stamp);
+                }
+                logger.debug("Populated Hazelcast with key: {} from Redis", key);
+            }
+            load.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            redisLoads.remove(key, load);
+        }
+    }
+
+    /**
+     * Reads keys from Redis and promotes them into Hazelcast with one setAll,
+     * sharing the loads other threads already have in flight. This thread's
+     * loads are completed before it waits on anyone else's.
+     *
+     * @return The values found, by cache key
+     */
+    private Map<String, Object> loadAllFromRedis(List<String> keys) {
+        Map<String, CompletableFuture<Object>> ownLoads = new LinkedHashMap<>();
+        Map<String, CompletableFuture<Object>> sharedLoads = new HashMap<>();
+        for (String key : keys) {
+            CompletableFuture<Object> load = new CompletableFuture<>();
+            CompletableFuture<Object> inFlight = redisLoads.putIfAbsent(key, load);
+            if (inFlight != null) {
+                coalesced.incrementAndGet();
+                sharedLoads.put(key, inFlight);
+            } else {
+                ownLoads.put(key, load);
+            }
+        }
+
+        Map<String, Object> values = new HashMap<>();
+        try {
+            if (!ownLoads.isEmpty()) {
+                Map<String, Object> fromRedis = getAllFromRedis(new ArrayList<>(ownLoads.keySet()));
+                if (!fromRedis.isEmpty()) {
+                    // Populate Hazelcast with the values from Redis; setAll
+                    // applies the map's configured TTL
+                    hazelcastMap.setAll(fromRedis);
+                }
+                values.putAll(fromRedis);
+                ownLoads.forEach((key, load) -> load.complete(fromRedis.get(key)));
+            }
+        } catch (RuntimeException e) {
+            ownLoads.values().forEach(load -> load.completeExceptionally(e));
+            throw e;
+        } finally {
+            ownLoads.forEach(redisLoads::remove);
+        }
+
+        sharedLoads.forEach((key, load) -> {
+            Object value = load.join();
+            if (value != null) {
+                values.put(key, value);
+            }
+        });
+        return values;
+    }
+
+    /**
+     * Reads keys from Redis in one pipelined round trip of MGET commands.
+     *
+     * @return The values found, by cache key
+     */
+    private Map<String, Object> getAllFromRedis(List<String> keys) {
+        List<Object> replies = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> redis = (RedisOperations<String, Object>) operations;
+                for (int from = 0; from < keys.size(); from += REDIS_MGET_CHUNK_SIZE) {
+                    List<String> redisKeys = keys.subList(from, Math.min(keys.size(), from + REDIS_MGET_CHUNK_SIZE))
+                            .stream()
+                            .map(key -> REDIS_CACHE_PREFIX + key)
+                            .toList();
+                    redis.opsForValue().multiGet(redisKeys);
+                }
+                return null;
+            }
+        });
+
+        // One reply per MGET, each holding a value or null per key in order
+        Map<String, Object> values = new HashMap<>();
+        int index = 0;
+        for (Object reply : replies) {
+            for (Object value : (List<?>) reply) {
+                String key = keys.get(index++);
+                if (value != null) {
+                    values.put(key, value);
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Stores multiple values in batch with the same TTL.
      */
     public Map<String, Boolean> putMultiple(Map<String, Object> keyValuePairs, Duration ttl) {
-        Map<String, Boolean> results = new HashMap<>();
+        return putMultiple(keyValuePairs, Map.of(), ttl);
+    }
 
+    /**
+     * Stores multiple values in batch, each with its own TTL.
+     * The Hazelcast writes are issued asynchronously: one setAllAsync for the
+     * entries whose TTL is the map's configured TTL, and a setAsync with TTL
+     * for each of the others. While they are in flight, all entries are
+     * written to Redis in one pipeline of SET commands with expiry, or queued
+     * in write-behind mode. An entry succeeds if both tiers stored it.
+     *
+     * @param keyValuePairs Values by key; null keys and values are not stored
+     * @param ttls          TTL by key for entries that do not use the default
+     * @param defaultTtl    TTL of the other entries
+     * @return Whether each entry was stored, by key
+     */
+    public Map<String, Boolean> putMultiple(Map<String, Object> keyValuePairs, Map<String, Duration> ttls,
+            Duration defaultTtl) {
+        Map<String, Boolean> results = new HashMap<>();
+        Map<String, Object> entries = new LinkedHashMap<>();
         for (Map.Entry<String, Object> entry : keyValuePairs.entrySet()) {
-            boolean success = put(entry.getKey(), entry.getValue(), ttl);
-            results.put(entry.getKey(), success);
+            totalRequests.incrementAndGet();
+            if (entry.getKey() == null || entry.getValue() == null) {
+                results.put(entry.getKey(), false);
+                continue;
+            }
+            keyAccessCount.merge(entry.getKey(), 1L, Long::sum);
+            entries.put(entry.getKey(), entry.getValue());
+        }
+        if (entries.isEmpty()) {
+            return results;
+        }
+
+        // Store in Hazelcast (primary cache) without waiting
+        Map<String, CompletableFuture<Void>> hazelcastWrites = new HashMap<>();
+        Map<String, Object> mapTtlEntries = new HashMap<>();
+        for (Map.Entry<String, Object> entry : entries.entrySet()) {
+            Duration ttl = ttls.getOrDefault(entry.getKey(), defaultTtl);
+            if (ttl.equals(hazelcastMapTtl)) {
+                mapTtlEntries.put(entry.getKey(), entry.getValue());
+            } else {
+                hazelcastWrites.put(entry.getKey(), setInHazelcastAsync(entry.getKey(), entry.getValue(), ttl));
+            }
+        }
+        if (!mapTtlEntries.isEmpty()) {
+            CompletableFuture<Void> write = setAllInHazelcastAsync(mapTtlEntries);
+            mapTtlEntries.keySet().forEach(key -> hazelcastWrites.put(key, write));
+        }
+        entries.keySet().forEach(redisLoads::remove);
+
+        // Store in Redis (persistent backup) meanwhile, queued in write-behind
+        // mode while the queue has room
+        Map<String, Boolean> storedInRedis = new HashMap<>();
+        List<String> keys = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : entries.entrySet()) {
+            if (writeBehindQueue != null && writeBehindQueue.enqueue(REDIS_CACHE_PREFIX + entry.getKey(),
+                    entry.getValue(), ttls.getOrDefault(entry.getKey(), defaultTtl))) {
+                storedInRedis.put(entry.getKey(), true);
+            } else {
+                keys.add(entry.getKey());
+            }
+        }
+        if (!keys.isEmpty()) {
+            List<String> redisKeys = keys.stream().map(key -> REDIS_CACHE_PREFIX + key).toList();
+            List<Object> redisReplies = writeToRedis(redisKeys,
+                    () -> setAllInRedis(keys, entries, ttls, defaultTtl));
+            for (int i = 0; i < keys.size(); i++) {
+                storedInRedis.put(keys.get(i), redisReplies != null && i < redisReplies.size()
+                        && !(redisReplies.get(i) instanceof Throwable));
+            }
         }
 
+        for (String key : entries.keySet()) {
+            boolean storedInHazelcast;
+            try {
+                hazelcastWrites.get(key).join();
+                storedInHazelcast = true;
+            } catch (Exception e) {
+                logger.error("Error storing key: {} in Hazelcast", key, e);
+                storedInHazelcast = false;
+            }
+            invalidateL1(key);
+            results.put(key, storedInHazelcast && storedInRedis.get(key));
+        }
+
+        logger.debug("Stored batch of {} keys in distributed cache", entries.size());
         return results;
     }
 
+    /**
+     * Reads a key from Hazelcast. With the in-JVM tier, the entry view is read
+     * instead, in the same single operation, so the value can be cached there
+     * until it expires in Hazelcast.
+     */
+    private Object getFromHazelcast(String key, long stamp) {
+        if (l1Cache == null) {
+            return hazelcastMap.get(key);
+        }
+        EntryView<String, Object> entry = hazelcastMap.getEntryView(key);
+        if (entry == null) {
+            return null;
+        }
+        l1Cache.put(key, entry.getValue(), entry.getExpirationTime(), stamp);
+        return entry.getValue();
+    }
+
+    private void invalidateL1(String key) {
+        if (l1Cache != null) {
+            l1Cache.invalidate(key);
+        }
+    }
+
+    /**
+     * Runs a synchronous Redis write, ordered after queued writes of the same
+     * keys in write-behind mode.
+     */
+    private <T> T writeToRedis(Collection<String> redisKeys, Supplier<T> write) {
+        return writeBehindQueue != null ? writeBehindQueue.writeThrough(redisKeys, write) : write.get();
+    }
+
+    private CompletableFuture<Void> setInHazelcastAsync(String key, Object value, Duration ttl) {
+        try {
+            return hazelcastMap.setAsync(key, value, ttl.toMillis(), TimeUnit.MILLISECONDS).toCompletableFuture();
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private CompletableFuture<Void> setAllInHazelcastAsync(Map<String, Object> entries) {
+        try {
+            return hazelcastMap.setAllAsync(entries).toCompletableFuture();
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Writes entries to Redis in one pipelined round trip of SET commands.
+     *
+     * @return One reply per key in order, a Throwable for a failed SET; null
+     *         if the pipeline could not be run
+     */
+    private List<Object> setAllInRedis(List<String> keys, Map<String, Object> entries, Map<String, Duration> ttls,
+            Duration defaultTtl) {
+        try {
+            return redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, Object> redis = (RedisOperations<String, Object>) operations;
+                    for (String key : keys) {
+                        redis.opsForValue().set(REDIS_CACHE_PREFIX + key, entries.get(key),
+                                ttls.getOrDefault(key, defaultTtl));
+                    }
+                    return null;
+                }
+            });
+        } catch (RedisPipelineException e) {
+            logger.error("Error storing {} of a batch of {} keys in Redis",
+                    e.getResults().stream().filter(Throwable.class::isInstance).count(), keys.size(), e);
+            return e.getResults();
+        } catch (Exception e) {
+            logger.error("Error storing batch of {} keys in Redis", keys.size(), e);
+            return null;
+        }
+    }
+
     /**
      * Clears all data from the distributed cache.
      */
     public boolean clear() {
         try {
             hazelcastMap.clear();
+            if (l1Cache != null) {
+                l1Cache.invalidateAll();
+            }
+            if (writeBehindQueue != null) {
+                writeBehindQueue.discardPending();
+            }
             Set<String> keys = redisTemplate.keys(REDIS_CACHE_PREFIX + "*");
             if (keys != null && !keys.isEmpty()) {
                 redisTemplate.delete(keys);
@@ -209,6 +646,10 @@ public class DistributedCacheService {
             totalRequests.set(0);
             cacheHits.set(0);
             cacheMisses.set(0);
+            l1Hits.set(0);
+            hazelcastHits.set(0);
+            redisHits.set(0);
+            coalesced.set(0);
             keyAccessCount.clear();
 
             logger.info("Distributed cache cleared successfully");
@@ -233,10 +674,21 @@ public class DistributedCacheService {
         stats.put("cacheHits", hits);
         stats.put("cacheMisses", misses);
         stats.put("hitRate", total > 0 ? (double) hits / total : 0.0);
+        stats.put("l1Hits", l1Hits.get());
+        stats.put("hazelcastHits", hazelcastHits.get());
+        stats.put("redisHits", redisHits.get());
+        stats.put("coalesced", coalesced.get());
+        if (l1Cache != null) {
+            stats.put("l1Size", l1Cache.size());
+            stats.put("l1Invalidations", l1Cache.getInvalidations());
+        }
         stats.put("hazelcastSize", hazelcastMap.size());
         stats.put("redisSize", getRedisSize());
         stats.put("clusterSize", hazelcastInstance.getCluster().getMembers().size());
         stats.put("mostAccessedKeys", getMostAccessedKeys(10));
+        if (writeBehindQueue != null) {
+            stats.put("writeBehind", writeBehindQueue.getStatistics());
+        }
 
         return stats;
     }
@@ -278,4 +730,54 @@ public class DistributedCacheService {
 
         return clusterInfo;
     }
-}
\ No newline at end of file
+
+    /**
+     * Invalidates the in-JVM tier when any member changes the Hazelcast map.
+     */
+    private static final class L1InvalidationListener implements EntryAddedListener<String, Object>,
+            EntryUpdatedListener<String, Object>, EntryRemovedListener<String, Object>,
+            EntryEvictedListener<String, Object>, EntryExpiredListener<String, Object>, MapClearedListener,
+            MapEvictedListener {
+
+        private final L1Cache l1Cache;
+
+        L1InvalidationListener(L1Cache l1Cache) {
+            this.l1Cache = l1Cache;
+        }
+
+        @Override
+        public void entryAdded(EntryEvent<String, Object> event) {
+            l1Cache.invalidate(event.getKey());
+        }
+
+        @Override
+        public void entryUpdated(EntryEvent<String, Object> event) {
+            l1Cache.invalidate(event.getKey());
+        }
+
+        @Override
+        public void entryRemoved(EntryEvent<String, Object> event) {
+            l1Cache.invalidate(event.getKey());
+        }
+
+        @Override
+        public void entryEvicted(EntryEvent<String, Object> event) {
+            l1Cache.invalidate(event.getKey());
+        }
+
+        @Override
+        public void entryExpired(EntryEvent<String, Object> event) {
+            l1Cache.invalidate(event.getKey());
+        }
+
+        @Override
+        public void mapCleared(MapEvent event) {
+            l1Cache.invalidateAll();
+        }
+
+        @Override
+        public void mapEvicted(MapEvent event) {
+            l1Cache.invalidateAll();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.distributedcache.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded in-JVM cache in front of the Hazelcast tier.
+ * Entries live at most the L1 TTL and never outlive the distributed entry
+ * they were read from. Writers invalidate keys here, locally and through
+ * Hazelcast entry events for writes made by other members.
+ * <p>
+ * A read that misses takes a stamp before going to Hazelcast and may only
+ * populate the key if no invalidation of it has happened since, so a value
+ * read just before a write cannot be cached after that write's
+ * invalidation. Stamps are striped by key hash.
+ */
+public class L1Cache {
+
+    private static final int STAMP_STRIPES = 1024;
+
+    private final Cache<String, Entry> cache;
+    private final AtomicLongArray stamps = new AtomicLongArray(STAMP_STRIPES);
+    private final AtomicLong invalidations = new AtomicLong(0);
+    private final long maxSize;
+    private final Duration ttl;
+
+    private record Entry(Object value, long expiresAtMillis) {
+    }
+
+    public L1Cache(long maxSize, Duration ttl) {
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Gets a cached value.
+     *
+     * @return The value, or null on a miss; a cached null is returned as a
+     *         miss too
+     */
+    public Object get(String key) {
+        Entry entry = cache.getIfPresent(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() >= entry.expiresAtMillis()) {
+            cache.invalidate(key);
+            return null;
+        }
+        return entry.value();
+    }
+
+    /**
+     * Takes the key's stamp before reading it from a lower tier.
+     */
+    public long stamp(String key) {
+        return stamps.get(stripe(key));
+    }
+
+    /**
+     * Caches a value read from a lower tier, unless the key was invalidated
+     * since the stamp was taken.
+     *
+     * @param expiresAtMillis When the value expires in the lower tier
+     */
+    public void put(String key, Object value, long expiresAtMillis, long stamp) {
+        int stripe = stripe(key);
+        if (value == null || stamps.get(stripe) != stamp) {
+            return;
+        }
+        cache.put(key, new Entry(value, expiresAtMillis));
+        // An invalidation may have slipped in between the check and the put
+        if (stamps.get(stripe) != stamp) {
+            cache.invalidate(key);
+        }
+    }
+
+    /**
+     * Drops a key after it was written or removed.
+     */
+    public void invalidate(String key) {
+        stamps.incrementAndGet(stripe(key));
+        cache.invalidate(key);
+        invalidations.incrementAndGet();
+    }
+
+    /**
+     * Drops every key.
+     */
+    public void invalidateAll() {
+        for (int i = 0; i < STAMP_STRIPES; i++) {
+            stamps.incrementAndGet(i);
+        }
+        cache.invalidateAll();
+        invalidations.incrementAndGet();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    private static int stripe(String key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (STAMP_STRIPES - 1);
+    }
+}
@@ -0,0 +1,389 @@
+package com.example.distributedcache.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Bounded write-behind queue for the Redis tier.
+ * Pending writes are kept per key, so repeated writes to a key that has not
+ * been flushed yet replace its value in place. A background flusher takes
+ * pending writes in arrival order and sends them to Redis in pipelined
+ * batches. A key is never in two batches at once, so Redis sees each key's
+ * writes in order.
+ * <p>
+ * When the queue is full, writers of new keys wait for the flusher to make
+ * room. A writer that still finds no room is told to write through instead.
+ * Writes that must reach Redis before returning go through
+ * {@link #writeThrough}, which discards the key's pending write and waits for
+ * any batch carrying it, so an older queued value never overwrites them.
+ */
+public class WriteBehindQueue implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindQueue.class);
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(1);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final int capacity;
+    private final int batchSize;
+    private final Duration offerTimeout;
+    private final Thread flusher;
+
+    // Guarded by lock
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Condition keysReleased = lock.newCondition();
+    private final LinkedHashMap<String, PendingWrite> pending = new LinkedHashMap<>();
+    private final Set<String> busyKeys = new HashSet<>();
+    private volatile boolean running;
+
+    // Statistics
+    private final AtomicLong enqueued = new AtomicLong(0);
+    private final AtomicLong coalesced = new AtomicLong(0);
+    private final AtomicLong rejected = new AtomicLong(0);
+    private final AtomicLong flushed = new AtomicLong(0);
+    private final AtomicLong batches = new AtomicLong(0);
+    private final AtomicLong failures = new AtomicLong(0);
+    private volatile long lastFlushLagMillis;
+
+    /**
+     * A write waiting to be flushed. Expiry is absolute, so the time spent
+     * queued does not extend the entry's life in Redis.
+     */
+    private static final class PendingWrite {
+        Object value;
+        long expiresAtMillis;
+        final long enqueuedAtMillis;
+
+        PendingWrite(Object value, long expiresAtMillis, long enqueuedAtMillis) {
+            this.value = value;
+            this.expiresAtMillis = expiresAtMillis;
+            this.enqueuedAtMillis = enqueuedAtMillis;
+        }
+    }
+
+    public WriteBehindQueue(RedisTemplate<String, Object> redisTemplate, int capacity, int batchSize,
+            Duration offerTimeout) {
+        if (capacity <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Write-behind capacity and batch size must be positive");
+        }
+        this.redisTemplate = redisTemplate;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.offerTimeout = offerTimeout;
+        this.flusher = new Thread(this::run, "redis-write-behind");
+        this.flusher.setDaemon(true);
+    }
+
+    /**
+     * Starts the background flusher.
+     */
+    public synchronized WriteBehindQueue start() {
+        if (!running) {
+            running = true;
+            flusher.start();
+            logger.info("Redis write-behind started with capacity {} and batch size {}", capacity, batchSize);
+        }
+        return this;
+    }
+
+    /**
+     * Queues a Redis SET, replacing the key's pending write if it has one.
+     * Waits up to the offer timeout for room when the queue is full.
+     *
+     * @return false if the queue stayed full; the caller should write through
+     */
+    public boolean enqueue(String redisKey, Object value, Duration ttl) {
+        long now = System.currentTimeMillis();
+        long expiresAt = now + ttl.toMillis();
+        long remainingNanos = offerTimeout.toNanos();
+        lock.lock();
+        try {
+            PendingWrite write = pending.get(redisKey);
+            if (write != null) {
+                write.value = value;
+                write.expiresAtMillis = expiresAt;
+                coalesced.incrementAndGet();
+                return true;
+            }
+            while (pending.size() >= capacity) {
+                if (remainingNanos <= 0) {
+                    rejected.incrementAndGet();
+                    return false;
+                }
+                remainingNanos = notFull.awaitNanos(remainingNanos);
+                write = pending.get(redisKey);
+                if (write != null) {
+                    write.value = value;
+                    write.expiresAtMillis = expiresAt;
+                    coalesced.incrementAndGet();
+                    return true;
+                }
+            }
+            pending.put(redisKey, new PendingWrite(value, expiresAt, now));
+            enqueued.incrementAndGet();
+            notEmpty.signal();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejected.incrementAndGet();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs a synchronous Redis write for keys, ordered after their queued
+     * writes. Pending writes of the keys are discarded, as the write
+     * supersedes them, and batches carrying the keys are waited for.
+     */
+    public <T> T writeThrough(Collection<String> redisKeys, Supplier<T> write) {
+        acquire(redisKeys);
+        try {
+            return write.get();
+        } finally {
+            release(redisKeys);
+        }
+    }
+
+    /**
+     * Discards all pending writes and waits for the batch in flight, if any.
+     */
+    public void discardPending() {
+        lock.lock();
+        try {
+            pending.clear();
+            notFull.signalAll();
+            while (!busyKeys.isEmpty()) {
+                keysReleased.awaitUninterruptibly();
+            }
+            // A batch that failed meanwhile has queued its writes again
+            pending.clear();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Flushes pending writes on the calling thread until the queue is empty.
+     */
+    public void flush() {
+        while (flushBatch()) {
+            // Keep flushing
+        }
+    }
+
+    /**
+     * Gets the number of keys waiting to be flushed.
+     */
+    public int getDepth() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets write-behind statistics. The flush lag is how long the oldest
+     * pending write has been waiting; the last flush lag is the longest wait
+     * in the most recent batch.
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        long oldestPendingMillis;
+        int depth;
+        lock.lock();
+        try {
+            depth = pending.size();
+            oldestPendingMillis = pending.isEmpty() ? 0
+                    : System.currentTimeMillis() - pending.values().iterator().next().enqueuedAtMillis;
+        } finally {
+            lock.unlock();
+        }
+        stats.put("queueDepth", depth);
+        stats.put("queueCapacity", capacity);
+        stats.put("flushLagMillis", oldestPendingMillis);
+        stats.put("lastFlushLagMillis", lastFlushLagMillis);
+        stats.put("enqueued", enqueued.get());
+        stats.put("coalesced", coalesced.get());
+        stats.put("rejected", rejected.get());
+        stats.put("flushed", flushed.get());
+        stats.put("batches", batches.get());
+        stats.put("failures", failures.get());
+        return stats;
+    }
+
+    /**
+     * Stops the flusher and flushes what is still pending.
+     */
+    @Override
+    public void close() {
+        running = false;
+        flusher.interrupt();
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        logger.info("Redis write-behind stopped");
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                lock.lockInterruptibly();
+                try {
+                    while (running && !hasFlushableWrite()) {
+                        notEmpty.await();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                flushBatch();
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Takes up to a batch of pending writes, skipping keys busy elsewhere,
+     * and pipelines them to Redis. Failed batches are queued again unless
+     * their keys have been written since.
+     *
+     * @return false if there was nothing to flush
+     */
+    private boolean flushBatch() {
+        LinkedHashMap<String, PendingWrite> batch = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            Iterator<Map.Entry<String, PendingWrite>> entries = pending.entrySet().iterator();
+            while (entries.hasNext() && batch.size() < batchSize) {
+                Map.Entry<String, PendingWrite> entry = entries.next();
+                if (!busyKeys.contains(entry.getKey())) {
+                    batch.put(entry.getKey(), entry.getValue());
+                    entries.remove();
+                }
+            }
+            busyKeys.addAll(batch.keySet());
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (batch.isEmpty()) {
+            return false;
+        }
+
+        boolean failed = false;
+        try {
+            write(batch);
+            long now = System.currentTimeMillis();
+            long oldest = batch.values().stream().mapToLong(write -> write.enqueuedAtMillis).min().orElse(now);
+            lastFlushLagMillis = now - oldest;
+            flushed.addAndGet(batch.size());
+            batches.incrementAndGet();
+        } catch (Exception e) {
+            failed = true;
+            failures.incrementAndGet();
+            logger.error("Error flushing {} writes to Redis, will retry", batch.size(), e);
+        } finally {
+            lock.lock();
+            try {
+                if (failed) {
+                    batch.forEach(pending::putIfAbsent);
+                }
+                busyKeys.removeAll(batch.keySet());
+                keysReleased.signalAll();
+                notEmpty.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (failed && running) {
+            try {
+                Thread.sleep(RETRY_DELAY.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return !failed;
+    }
+
+    private void write(Map<String, PendingWrite> batch) {
+        long now = System.currentTimeMillis();
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> redis = (RedisOperations<String, Object>) operations;
+                batch.forEach((redisKey, write) -> {
+                    long ttlMillis = write.expiresAtMillis - now;
+                    if (ttlMillis > 0) {
+                        redis.opsForValue().set(redisKey, write.value, Duration.ofMillis(ttlMillis));
+                    } else {
+                        // Expired while queued; drop any older value too
+                        redis.delete(redisKey);
+                    }
+                });
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Checks for a pending write whose key is not busy. Must be called with
+     * the lock held.
+     */
+    private boolean hasFlushableWrite() {
+        for (String redisKey : pending.keySet()) {
+            if (!busyKeys.contains(redisKey)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void acquire(Collection<String> redisKeys) {
+        lock.lock();
+        try {
+            redisKeys.forEach(pending::remove);
+            notFull.signalAll();
+            while (redisKeys.stream().anyMatch(busyKeys::contains)) {
+                keysReleased.awaitUninterruptibly();
+            }
+            // A batch that failed meanwhile has queued its writes again
+            redisKeys.forEach(pending::remove);
+            notFull.signalAll();
+            busyKeys.addAll(redisKeys);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(Collection<String> redisKeys) {
+        lock.lock();
+        try {
+            busyKeys.removeAll(redisKeys);
+            keysReleased.signalAll();
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -9,22 +9,29 @@ import org.junit.jupiter.api.RepeatedTest;
 import org.junit.jupiter.api.Timeout;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.RedisConnectionFailureException;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
 
 /**
  * Comprehensive unit tests for DistributedCacheService.
  * Tests all major functionality including concurrent operations and edge cases.
  */
-@SpringBootTest
+@SpringBootTest(properties = "cache.l1.enabled=true")
 @ActiveProfiles("test")
 class DistributedCacheServiceTest {
 
@@ -161,6 +168,236 @@ class DistributedCacheServiceTest {
         assertEquals(batchData, getResults);
     }
 
+    @Test
+    @DisplayName("Should honor per-key TTLs in batch puts")
+    void testBatchPutWithKeyTtls() throws InterruptedException {
+        Map<String, Object> batchData = new HashMap<>();
+        batchData.put("short-lived", "short-value");
+        batchData.put("long-lived", "long-value");
+
+        Map<String, Boolean> putResults = cacheService.putMultiple(batchData,
+                Map.of("short-lived", Duration.ofMillis(100)), Duration.ofMinutes(10));
+        assertEquals(Map.of("short-lived", true, "long-lived", true), putResults);
+        assertEquals(batchData, cacheService.getMultiple(List.of("short-lived", "long-lived")));
+
+        // Wait for the short TTL to expire in both tiers
+        Thread.sleep(200);
+
+        assertEquals(Map.of("long-lived", "long-value"),
+                cacheService.getMultiple(List.of("short-lived", "long-lived")));
+    }
+
+    @Test
+    @DisplayName("Should read a batch from both tiers and promote Redis hits")
+    void testBatchGetAcrossTiers() {
+        for (int i = 0; i < 20; i++) {
+            cacheService.put("tier-key-" + i, "tier-value-" + i);
+        }
+        // Leave the odd keys only in Redis
+        for (int i = 1; i < 20; i += 2) {
+            hazelcastMap.delete("tier-key-" + i);
+        }
+        long hitsBefore = (Long) cacheService.getStatistics().get("cacheHits");
+        long missesBefore = (Long) cacheService.getStatistics().get("cacheMisses");
+
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            keys.add("tier-key-" + i);
+        }
+        keys.add("tier-missing");
+        Map<String, Object> results = cacheService.getMultiple(keys);
+
+        assertEquals(20, results.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals("tier-value-" + i, results.get("tier-key-" + i));
+            assertTrue(hazelcastMap.containsKey("tier-key-" + i));
+        }
+        Map<String, Object> stats = cacheService.getStatistics();
+        assertEquals(hitsBefore + 20, stats.get("cacheHits"));
+        assertEquals(missesBefore + 1, stats.get("cacheMisses"));
+    }
+
+    @Test
+    @DisplayName("Should coalesce write-behind writes and keep write-through ordered")
+    void testWriteBehind() {
+        // Not started, so the test decides when the queue flushes
+        WriteBehindQueue queue = new WriteBehindQueue(redisTemplate, 100, 10, Duration.ofMillis(10));
+        DistributedCacheService writeBehindService = new DistributedCacheService(hazelcastInstance,
+                redisTemplate, queue);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(writeBehindService.put("wb-key", "wb-value-" + i));
+        }
+        assertTrue(writeBehindService.put("wb-other", "wb-other-value"));
+
+        // Acknowledged by Hazelcast, not yet in Redis
+        assertEquals("wb-value-2", hazelcastMap.get("wb-key"));
+        assertNull(redisTemplate.opsForValue().get("cache:wb-key"));
+        assertEquals(2, queue.getDepth());
+
+        // A write-through supersedes the queued write for its key
+        assertTrue(writeBehindService.put("wb-other", "wb-through", Duration.ofMinutes(1), true));
+        assertEquals(1, queue.getDepth());
+
+        queue.flush();
+
+        assertEquals("wb-value-2", redisTemplate.opsForValue().get("cache:wb-key"));
+        assertEquals("wb-through", redisTemplate.opsForValue().get("cache:wb-other"));
+        Map<String, Object> stats = queue.getStatistics();
+        assertEquals(0, stats.get("queueDepth"));
+        assertEquals(2L, stats.get("coalesced"));
+        assertEquals(1L, stats.get("flushed"));
+        queue.close();
+    }
+
+    @Test
+    @DisplayName("Should not requeue a failed batch's write over a write-through waiting on it")
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    @SuppressWarnings("unchecked")
+    void testWriteThroughSupersedesFailedBatch() throws Exception {
+        // A Redis whose first pipeline blocks until released and then fails
+        RedisTemplate<String, Object> failingRedis = mock(RedisTemplate.class);
+        CountDownLatch inFlight = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(failingRedis.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+            inFlight.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            throw new RedisConnectionFailureException("Redis down");
+        });
+        WriteBehindQueue queue = new WriteBehindQueue(failingRedis, 100, 10, Duration.ofMillis(10));
+        assertTrue(queue.enqueue("cache:stale-key", "stale-value", Duration.ofMinutes(1)));
+
+        Thread flusher = new Thread(queue::flush);
+        flusher.start();
+        assertTrue(inFlight.await(10, TimeUnit.SECONDS));
+
+        // The write-through waits for the batch carrying its key
+        Thread writer = new Thread(() -> queue.writeThrough(List.of("cache:stale-key"), () -> "through"));
+        writer.start();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (writer.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+        flusher.join(10_000);
+        writer.join(10_000);
+
+        // The failed write is superseded, so nothing is left to overwrite it
+        assertEquals(0, queue.getDepth());
+        queue.flush();
+        verify(failingRedis, times(1)).executePipelined(any(SessionCallback.class));
+        assertEquals(1L, queue.getStatistics().get("failures"));
+    }
+
+    @Test
+    @DisplayName("Should serve repeated reads from L1 and drop them on writes from any member")
+    void testL1Cache() throws InterruptedException {
+        cacheService.put("l1-key", "l1-value");
+        long l1HitsBefore = (Long) cacheService.getStatistics().get("l1Hits");
+
+        // The put's own entry event may still invalidate the first cached read
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((Long) cacheService.getStatistics().get("l1Hits") == l1HitsBefore
+                && System.currentTimeMillis() < deadline) {
+            assertEquals("l1-value", cacheService.get("l1-key").orElseThrow());
+        }
+        assertTrue((Long) cacheService.getStatistics().get("l1Hits") > l1HitsBefore);
+
+        // A write made straight to the map, as another member would
+        hazelcastMap.set("l1-key", "l1-updated");
+        deadline = System.currentTimeMillis() + 5000;
+        while (!"l1-updated".equals(cacheService.get("l1-key").orElse(null))
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals("l1-updated", cacheService.get("l1-key").orElseThrow());
+
+        assertTrue(cacheService.remove("l1-key"));
+        assertFalse(cacheService.get("l1-key").isPresent());
+    }
+
+    @Test
+    @DisplayName("Should share one Redis read and promotion among concurrent misses")
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    @SuppressWarnings("unchecked")
+    void testSingleFlightMisses() throws Exception {
+        // A Redis whose read of the key blocks until released
+        RedisTemplate<String, Object> slowRedis = mock(RedisTemplate.class);
+        ValueOperations<String, Object> valueOperations = mock(ValueOperations.class);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger redisReads = new AtomicInteger(0);
+        when(slowRedis.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("cache:herd-key")).thenAnswer(invocation -> {
+            redisReads.incrementAndGet();
+            release.await(10, TimeUnit.SECONDS);
+            return "herd-value";
+        });
+        DistributedCacheService herdService = new DistributedCacheService(hazelcastInstance, slowRedis);
+
+        int readers = 10;
+        ExecutorService executor = Executors.newFixedThreadPool(readers);
+        try {
+            List<CompletableFuture<Optional<Object>>> futures = new ArrayList<>();
+            for (int i = 0; i < readers; i++) {
+                futures.add(CompletableFuture.supplyAsync(() -> herdService.get("herd-key"), executor));
+            }
+
+            // Wait until every reader but the one reading Redis has joined it
+            long deadline = System.currentTimeMillis() + 10_000;
+            while ((Long) herdService.getStatistics().get("coalesced") < readers - 1
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+
+            for (CompletableFuture<Optional<Object>> future : futures) {
+                assertEquals("herd-value", future.get(10, TimeUnit.SECONDS).orElseThrow());
+            }
+            assertEquals(1, redisReads.get());
+            assertEquals((long) readers - 1, herdService.getStatistics().get("coalesced"));
+            assertEquals("herd-value", hazelcastMap.get("herd-key"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should not let a Redis load started before a batch write overwrite it")
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    @SuppressWarnings("unchecked")
+    void testBatchWriteDetachesRedisLoad() throws Exception {
+        // A Redis whose read of the key blocks until released and returns the old value
+        RedisTemplate<String, Object> slowRedis = mock(RedisTemplate.class);
+        ValueOperations<String, Object> valueOperations = mock(ValueOperations.class);
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(slowRedis.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("cache:batch-key")).thenAnswer(invocation -> {
+            reading.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return "old-value";
+        });
+        DistributedCacheService batchService = new DistributedCacheService(hazelcastInstance, slowRedis);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CompletableFuture<Optional<Object>> staleRead = CompletableFuture.supplyAsync(
+                    () -> batchService.get("batch-key"), executor);
+            assertTrue(reading.await(10, TimeUnit.SECONDS));
+
+            // When
+            batchService.putMultiple(Map.of("batch-key", "new-value"), Map.of(), Duration.ofMinutes(1));
+            release.countDown();
+            staleRead.get(10, TimeUnit.SECONDS);
+
+            // Then
+            assertEquals("new-value", batchService.get("batch-key").orElseThrow());
+            assertEquals("new-value", hazelcastMap.get("batch-key"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     @DisplayName("Should handle async operations")
     void testAsyncOperations() throws Exception {